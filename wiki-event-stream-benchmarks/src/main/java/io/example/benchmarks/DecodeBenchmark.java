@@ -0,0 +1,78 @@
+package io.example.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import io.example.schema.page.RecentChange;
+import io.example.schema.page.RecentChangeDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways a recent change payload can be decoded: binding the whole event with Gson, as the processor
+ * originally did, binding it with Jackson, and the streaming {@link RecentChangeDecoder} that only reads the fields
+ * the processor uses.
+ *
+ * @author Kenny Bastani
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+    private final Gson gson = new Gson();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addMixIn(RecentChange.class, IgnoreLogParams.class);
+    private final RecentChangeDecoder decoder = new RecentChangeDecoder();
+    private String[] payloads;
+    private int index;
+
+    @Setup
+    public void setup() {
+        payloads = RecentChangeSamples.payloads();
+    }
+
+    private String nextPayload() {
+        index = (index + 1) % payloads.length;
+        return payloads[index];
+    }
+
+    /**
+     * The stream sends {@code log_params} as either an array or an object, which the generated schema can't bind
+     * with Jackson, and the processor never reads them.
+     */
+    @JsonIgnoreProperties("log_params")
+    private static abstract class IgnoreLogParams {
+    }
+
+    @Benchmark
+    public RecentChange gsonBinding() {
+        return gson.fromJson(nextPayload(), RecentChange.class);
+    }
+
+    @Benchmark
+    public RecentChange jacksonBinding() throws IOException {
+        return objectMapper.readValue(nextPayload(), RecentChange.class);
+    }
+
+    @Benchmark
+    public RecentChange streamingDecoder() {
+        return decoder.decode(nextPayload());
+    }
+}
@@ -0,0 +1,69 @@
+package io.example.benchmarks;
+
+import io.example.output.ChangeEncoder;
+import io.example.output.OutputMode;
+import io.example.schema.category.CategorizedChange;
+import io.example.schema.category.CategoryChange;
+import io.example.schema.page.RecentChange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning a change that was joined with its categories into the records that are sent to Kafka. Most
+ * english articles have somewhere between a handful and a few dozen categories, with a long tail beyond that.
+ *
+ * @author Kenny Bastani
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+
+    @Param({"1", "8", "32", "128"})
+    private int categoryCount;
+
+    @Param({"FAN_OUT", "MULTI_VALUE"})
+    private OutputMode outputMode;
+
+    private RecentChange recentChange;
+    private List<String> categories;
+    private CategorizedChange categorizedChange;
+    private ChangeEncoder changeEncoder;
+
+    @Setup
+    public void setup() {
+        recentChange = RecentChangeSamples.recentChanges()[0];
+        categories = RecentChangeSamples.categories(categoryCount);
+        categorizedChange = new CategorizedChange(recentChange, categories);
+        changeEncoder = new ChangeEncoder(outputMode);
+    }
+
+    @Benchmark
+    public List<CategoryChange> createCategoryChanges() {
+        List<CategoryChange> categoryChanges = new ArrayList<>(categories.size());
+        for (String category : categories)
+            categoryChanges.add(CategoryChange.create(recentChange, category));
+        return categoryChanges;
+    }
+
+    @Benchmark
+    public List<Object> encode() {
+        return changeEncoder.encode(categorizedChange);
+    }
+}
@@ -0,0 +1,59 @@
+package io.example.benchmarks;
+
+import io.example.clients.RecentChangeFilter;
+import io.example.clients.RecentChangePreFilter;
+import io.example.schema.page.RecentChange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the filters that drop the events which are not english edits, both the pre-filter that scans the raw
+ * payload and the filter that is applied to the decoded change.
+ *
+ * @author Kenny Bastani
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    private final RecentChangePreFilter preFilter = new RecentChangePreFilter("enwiki", "edit");
+    private final RecentChangeFilter filter = new RecentChangeFilter("enwiki", "edit");
+    private String[] payloads;
+    private RecentChange[] recentChanges;
+    private int index;
+
+    @Setup
+    public void setup() {
+        payloads = RecentChangeSamples.payloads();
+        recentChanges = RecentChangeSamples.recentChanges();
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % payloads.length;
+        return index;
+    }
+
+    @Benchmark
+    public boolean preFilter() {
+        return preFilter.test(payloads[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean applyFilter() {
+        return filter.test(recentChanges[nextIndex()]);
+    }
+}
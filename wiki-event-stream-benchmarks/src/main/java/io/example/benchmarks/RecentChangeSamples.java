@@ -0,0 +1,69 @@
+package io.example.benchmarks;
+
+import io.example.schema.page.RecentChange;
+import io.example.schema.page.RecentChangeDecoder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the captured recent change payloads that the benchmarks run against. The samples are the data of server-sent
+ * events from the Wikimedia change stream, one per line, and mix english edits with the changes to other wikis and
+ * the other change types that make up most of the stream.
+ *
+ * @author Kenny Bastani
+ */
+public class RecentChangeSamples {
+
+    private static final String SAMPLES = "/recentchange-samples.jsonl";
+
+    /**
+     * Reads the raw JSON payloads of the captured events.
+     *
+     * @return the payloads in the order they were captured
+     */
+    public static String[] payloads() {
+        try (InputStream in = RecentChangeSamples.class.getResourceAsStream(SAMPLES);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines()
+                    .filter(line -> !line.isBlank())
+                    .collect(Collectors.toList());
+            return lines.toArray(new String[0]);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read the recent change samples", ex);
+        }
+    }
+
+    /**
+     * Decodes the captured events.
+     *
+     * @return the decoded {@link RecentChange} of every captured event
+     */
+    public static RecentChange[] recentChanges() {
+        RecentChangeDecoder decoder = new RecentChangeDecoder();
+        List<RecentChange> recentChanges = new ArrayList<>();
+        for (String payload : payloads())
+            recentChanges.add(decoder.decode(payload));
+        return recentChanges.toArray(new RecentChange[0]);
+    }
+
+    /**
+     * Generates category names that are as long as the categories of a typical english article.
+     *
+     * @param count is the number of categories to generate
+     * @return the generated category names
+     */
+    public static List<String> categories(int count) {
+        List<String> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            categories.add("Category:Articles with example statements from section " + i);
+        return categories;
+    }
+}
@@ -0,0 +1,106 @@
+package io.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.output.AvroCategoryChangeSerializer;
+import io.example.output.JsonCategoryChangeSerializer;
+import io.example.schema.category.CategoryChange;
+import io.example.schema.category.MultiValueCategoryChange;
+import io.example.schema.page.RecentChange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.stream.converter.CompositeMessageConverterFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON serialization of the records sent to Kafka. Spring Cloud Stream converts the payload of every
+ * message sent to the {@code output} binding with the composite converter of its {@link CompositeMessageConverterFactory},
+ * which picks the JSON converter for the binding's {@code application/json} content type, so the same converter is
+ * used here.
+ * <p>
+ * The fan-out benchmarks compare sending every record of a change through the converter with the
+ * {@link JsonCategoryChangeSerializer}, whose {@code byte[]} payloads the converter passes through as they are, and
+ * with the {@link AvroCategoryChangeSerializer} of the {@code avro} output format.
+ *
+ * @author Kenny Bastani
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"8", "32"})
+    private int categoryCount;
+
+    private final MessageConverter converter = new CompositeMessageConverterFactory(null, new ObjectMapper())
+            .getMessageConverterForAllRegistered();
+    private final MessageHeaders headers = new MessageHeaders(
+            Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON));
+    private final JsonCategoryChangeSerializer serializer = new JsonCategoryChangeSerializer();
+    private final AvroCategoryChangeSerializer avroSerializer = new AvroCategoryChangeSerializer(1);
+    private RecentChange recentChange;
+    private List<String> categories;
+    private CategoryChange categoryChange;
+    private MultiValueCategoryChange multiValueCategoryChange;
+
+    @Setup
+    public void setup() {
+        recentChange = RecentChangeSamples.recentChanges()[0];
+        categories = RecentChangeSamples.categories(categoryCount);
+        categoryChange = CategoryChange.create(recentChange, categories.get(0));
+        multiValueCategoryChange = MultiValueCategoryChange.create(recentChange, categories);
+    }
+
+    @Benchmark
+    public Message<?> categoryChange() {
+        return converter.toMessage(categoryChange, headers);
+    }
+
+    @Benchmark
+    public Message<?> multiValueCategoryChange() {
+        return converter.toMessage(multiValueCategoryChange, headers);
+    }
+
+    @Benchmark
+    public List<Message<?>> fanOutConverted() {
+        List<Message<?>> messages = new ArrayList<>(categories.size());
+        for (String category : categories)
+            messages.add(converter.toMessage(CategoryChange.create(recentChange, category), headers));
+        return messages;
+    }
+
+    @Benchmark
+    public List<Message<?>> fanOutPreSerialized() {
+        List<Message<?>> messages = new ArrayList<>(categories.size());
+        for (byte[] record : serializer.serialize(recentChange, categories, null))
+            messages.add(converter.toMessage(record, headers));
+        return messages;
+    }
+
+    @Benchmark
+    public List<Message<?>> fanOutAvro() {
+        List<Message<?>> messages = new ArrayList<>(categories.size());
+        for (byte[] record : avroSerializer.serialize(recentChange, categories, null))
+            messages.add(converter.toMessage(record, headers));
+        return messages;
+    }
+}
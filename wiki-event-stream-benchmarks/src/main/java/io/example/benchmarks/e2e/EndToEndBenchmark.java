@@ -0,0 +1,154 @@
+package io.example.benchmarks.e2e;
+
+import io.example.output.OutputFormat;
+import io.example.standins.StandInServer;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes a fixed volume of events through the whole ingest service, from the stand-in change stream to an embedded
+ * Kafka broker, and writes the sustained throughput, the latency from the stand-in sending a change to the broker
+ * acknowledging its records, and the heap and GC behaviour as JSON, so that releases can be compared.
+ * <p>
+ * Every synthetic event is an english edit, so each event makes it through the filters. The broker, the stand-ins,
+ * and the service all run in this JVM, so the heap and GC figures include all of them.
+ * <p>
+ * Arguments are given as {@code --name=value}: {@code events}, {@code output}, {@code rate} of the stand-in stream
+ * ({@code 0} for as fast as possible), {@code api-latency} for the median latency of the stand-in API,
+ * {@code output-mode} and {@code output-format} of the service, and {@code timeout}. The stand-ins serve the schema
+ * registry that the service registers the schema of the {@code avro} format with.
+ *
+ * @author Kenny Bastani
+ */
+public class EndToEndBenchmark {
+
+    private static Logger logger = LoggerFactory.getLogger(EndToEndBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("events", "100000");
+        defaults.put("output", "target/e2e-benchmark.json");
+        defaults.put("rate", "0");
+        defaults.put("api-latency", "20ms");
+        defaults.put("output-mode", "fan-out");
+        defaults.put("output-format", "json");
+        defaults.put("timeout", "PT10M");
+        Map<String, String> options = Harness.options(defaults, args);
+
+        long events = Long.parseLong(options.get("events"));
+        Path output = Paths.get(options.get("output"));
+        String rate = options.get("rate");
+        String apiLatency = options.get("api-latency");
+        String outputMode = options.get("output-mode");
+        OutputFormat outputFormat = OutputFormat.valueOf(options.get("output-format").toUpperCase());
+        Duration timeout = Duration.parse(options.get("timeout"));
+        Path workDirectory = Files.createTempDirectory("e2e-benchmark");
+
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, false);
+        broker.afterPropertiesSet();
+        String brokers = broker.getBrokersAsString();
+        Harness.createTopic(brokers);
+
+        Map<String, Object> standIn = new HashMap<>();
+        standIn.put("standin.stream.rate", rate);
+        standIn.put("standin.stream.limit", events);
+        standIn.put("standin.stream.enwiki-ratio", 1.0);
+        standIn.put("standin.stream.edit-ratio", 1.0);
+        standIn.put("standin.api.latency-median", apiLatency);
+        standIn.put("standin.api.latency-p99", apiLatency);
+        standIn.put("standin.registry.path", workDirectory.resolve("schemas"));
+        StandInServer standIns = StandInServer.start(standIn);
+
+        boolean complete = false;
+        try {
+            complete = run(brokers, standIns, workDirectory, events, outputMode, outputFormat, timeout, output,
+                    options);
+        } catch (Exception ex) {
+            logger.error("The end-to-end benchmark failed", ex);
+        } finally {
+            standIns.close();
+            broker.destroy();
+        }
+        System.exit(complete ? 0 : 1);
+    }
+
+    private static boolean run(String brokers, StandInServer standIns, Path workDirectory, long events,
+                               String outputMode, OutputFormat outputFormat, Duration timeout, Path output,
+                               Map<String, String> options) throws Exception {
+        TopicObserver observer = new TopicObserver(brokers, Harness.TOPIC, events, outputFormat);
+        Thread observerThread = new Thread(observer, "e2e-observer");
+        observerThread.setDaemon(true);
+        observerThread.start();
+
+        JvmStats jvmStats = new JvmStats();
+        jvmStats.start();
+        long started = System.currentTimeMillis();
+
+        ConfigurableApplicationContext service = Harness.startService(brokers, standIns.getStreamHost(),
+                standIns.getApiEndpoint(), workDirectory, "--wiki.output.mode=" + outputMode,
+                "--wiki.output.format=" + outputFormat.name().toLowerCase(),
+                "--wiki.output.avro.registry-url=" + standIns.getRegistryUrl());
+
+        long deadline = started + timeout.toMillis();
+        while (!observer.isComplete() && System.currentTimeMillis() < deadline)
+            TimeUnit.MILLISECONDS.sleep(100);
+
+        long finished = System.currentTimeMillis();
+        Map<String, Object> jvm = jvmStats.stop();
+
+        Map<String, Object> results = results(observer, events, finished - started, options);
+        results.put("jvm", jvm);
+        Harness.writeResults(output, results);
+        logger.info("Received {} of {} events as {} records in {}ms, with a p99 latency of {}ms, see {}",
+                observer.getChanges(), events, observer.getRecords(), finished - started,
+                observer.getLatency().getValueAtPercentile(99.0), output);
+
+        service.close();
+        observer.close();
+        observerThread.join(TimeUnit.SECONDS.toMillis(10));
+        return observer.isComplete();
+    }
+
+    private static Map<String, Object> results(TopicObserver observer, long events, long elapsed,
+                                               Map<String, String> options) {
+        long ackWindow = Math.max(1L, observer.getLastAck() - observer.getFirstAck());
+        Histogram latency = observer.getLatency();
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("eventsPerSecond", observer.getChanges() * 1000.0 / ackWindow);
+        throughput.put("recordsPerSecond", observer.getRecords() * 1000.0 / ackWindow);
+
+        Map<String, Object> latencyMs = new LinkedHashMap<>();
+        latencyMs.put("p50", latency.getValueAtPercentile(50.0));
+        latencyMs.put("p99", latency.getValueAtPercentile(99.0));
+        latencyMs.put("p999", latency.getValueAtPercentile(99.9));
+        latencyMs.put("max", latency.getMaxValue());
+        latencyMs.put("mean", latency.getMean());
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", Instant.now().toString());
+        results.put("options", options);
+        results.put("complete", observer.isComplete());
+        results.put("expectedEvents", events);
+        results.put("events", observer.getChanges());
+        results.put("records", observer.getRecords());
+        results.put("bytesPerRecord", observer.getBytes() / (double) Math.max(1L, observer.getRecords()));
+        results.put("elapsedMs", elapsed);
+        results.put("throughput", throughput);
+        results.put("latencyMs", latencyMs);
+        return results;
+    }
+}
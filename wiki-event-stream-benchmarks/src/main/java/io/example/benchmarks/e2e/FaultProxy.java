@@ -0,0 +1,141 @@
+package io.example.benchmarks.e2e;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A TCP proxy that sits between the ingest service and one of its dependencies, so that faults can be injected into
+ * the connection without the service or the dependency knowing. A stall stops forwarding bytes in both directions
+ * for a while, which looks like a hung network to both ends, and a reset closes every open connection at once.
+ *
+ * @author Kenny Bastani
+ */
+class FaultProxy implements Closeable {
+
+    private static Logger logger = LoggerFactory.getLogger(FaultProxy.class);
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final String name;
+    private final int targetPort;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private volatile long stalledUntil = 0L;
+
+    FaultProxy(String name, int targetPort) throws IOException {
+        this.name = name;
+        this.targetPort = targetPort;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fault-proxy-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.execute(this::accept);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of client connections that are currently open through the proxy
+     */
+    int getOpenConnections() {
+        return connections.size();
+    }
+
+    /**
+     * @return the number of client connections that were ever opened through the proxy
+     */
+    int getAcceptedConnections() {
+        return accepted.get();
+    }
+
+    /**
+     * Stops forwarding bytes in both directions, without closing the connections.
+     *
+     * @param duration is how long the connections are stalled for
+     */
+    void stall(Duration duration) {
+        logger.info("Stalling the {} connections for {}", name, duration);
+        stalledUntil = System.currentTimeMillis() + duration.toMillis();
+    }
+
+    /**
+     * Closes every open connection, as if the dependency had dropped them.
+     */
+    void reset() {
+        logger.info("Resetting {} {} connections", connections.size(), name);
+        connections.forEach(FaultProxy::closeQuietly);
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket upstream = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                accepted.incrementAndGet();
+                connections.add(client);
+                executor.execute(() -> forward(client, upstream));
+                executor.execute(() -> forward(upstream, client));
+            } catch (IOException ex) {
+                if (!serverSocket.isClosed())
+                    logger.warn("Unable to proxy a {} connection", name, ex);
+            }
+        }
+    }
+
+    private void forward(Socket from, Socket to) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                awaitStall();
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException | InterruptedException ex) {
+            // The connection was closed by either end, or reset by the proxy
+        } finally {
+            connections.remove(from);
+            connections.remove(to);
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private void awaitStall() throws InterruptedException {
+        while (System.currentTimeMillis() < stalledUntil)
+            Thread.sleep(10L);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        reset();
+        executor.shutdownNow();
+    }
+}
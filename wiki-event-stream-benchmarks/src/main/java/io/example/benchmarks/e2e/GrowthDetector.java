@@ -0,0 +1,99 @@
+package io.example.benchmarks.e2e;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides whether a resource sampled over a soak run grows without bound, or levels off. A resource is reported
+ * as growing when both the least squares trend over the run and the rise from the first third of the samples to
+ * the last third exceed the allowance for that resource. Requiring both keeps a single spike, such as the
+ * connections that pile up during an injected stall, from failing the run, while a steady creep still does.
+ *
+ * @author Kenny Bastani
+ */
+class GrowthDetector {
+
+    private static final int MIN_SAMPLES = 6;
+
+    private final String resource;
+    private final double allowance;
+    private final List<Long> times = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+
+    /**
+     * @param resource  is the name of the sampled resource
+     * @param allowance is how much the resource may grow over the run before it is reported as growing
+     */
+    GrowthDetector(String resource, double allowance) {
+        this.resource = resource;
+        this.allowance = allowance;
+    }
+
+    void sample(long time, double value) {
+        times.add(time);
+        values.add(value);
+    }
+
+    /**
+     * @return whether the resource grew by more than its allowance, which is only decided after enough samples
+     */
+    boolean isGrowing() {
+        return values.size() >= MIN_SAMPLES && trend() > allowance && rise() > allowance;
+    }
+
+    /**
+     * @return the growth over the span of the samples that is predicted by their least squares slope
+     */
+    double trend() {
+        int n = times.size();
+        if (n < 2)
+            return 0.0;
+
+        double meanTime = times.stream().mapToLong(Long::longValue).average().orElse(0.0);
+        double meanValue = values.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        double covariance = 0.0;
+        double variance = 0.0;
+        for (int i = 0; i < n; i++) {
+            double time = times.get(i) - meanTime;
+            covariance += time * (values.get(i) - meanValue);
+            variance += time * time;
+        }
+
+        double slope = variance == 0.0 ? 0.0 : covariance / variance;
+        return slope * (times.get(n - 1) - times.get(0));
+    }
+
+    /**
+     * @return the median of the last third of the samples minus the median of the first third
+     */
+    double rise() {
+        int third = values.size() / 3;
+        if (third == 0)
+            return 0.0;
+        return median(values.subList(values.size() - third, values.size())) - median(values.subList(0, third));
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resource", resource);
+        result.put("allowance", allowance);
+        result.put("samples", values.size());
+        result.put("first", values.isEmpty() ? null : values.get(0));
+        result.put("last", values.isEmpty() ? null : values.get(values.size() - 1));
+        result.put("max", values.stream().mapToDouble(Double::doubleValue).max().orElse(0.0));
+        result.put("trend", trend());
+        result.put("rise", rise());
+        result.put("growing", isGrowing());
+        return result;
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2.0;
+    }
+}
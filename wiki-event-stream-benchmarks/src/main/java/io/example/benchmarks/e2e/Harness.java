@@ -0,0 +1,94 @@
+package io.example.benchmarks.e2e;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.example.WikiEventStreamApplication;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parts that the end-to-end harnesses share: parsing their arguments, creating the output topic, starting the
+ * ingest service against the stand-ins, and writing the results.
+ *
+ * @author Kenny Bastani
+ */
+final class Harness {
+
+    static final String TOPIC = "wiki-recent-change";
+
+    private Harness() {
+    }
+
+    /**
+     * Parses arguments given as {@code --name=value} over a set of defaults.
+     *
+     * @param defaults are the default value of every option
+     * @param args     are the arguments of the harness
+     * @return the resolved options, in the order of the defaults
+     */
+    static Map<String, String> options(Map<String, String> defaults, String[] args) {
+        Map<String, String> options = new LinkedHashMap<>(defaults);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("Arguments must be given as --name=value: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Creates the output topic with log append time, so that the timestamp of each record is the time that the
+     * broker acknowledged it.
+     */
+    static void createTopic(String brokers) throws Exception {
+        Map<String, Object> config = Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, brokers);
+        try (AdminClient admin = AdminClient.create(config)) {
+            NewTopic topic = new NewTopic(TOPIC, 1, (short) 1)
+                    .configs(Map.of(TopicConfig.MESSAGE_TIMESTAMP_TYPE_CONFIG, "LogAppendTime"));
+            admin.createTopics(List.of(topic)).all().get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Starts the ingest service with its checkpoint, spill and category cache files in a work directory, so that
+     * runs don't see each other's state.
+     */
+    static ConfigurableApplicationContext startService(String brokers, String streamHost, String apiEndpoint,
+                                                       Path workDirectory, String... args) {
+        List<String> serviceArgs = new ArrayList<>(List.of(
+                "--spring.profiles.active=benchmark",
+                "--server.port=0",
+                // The stand-ins run in the same JVM and register the same integration MBeans
+                "--spring.jmx.enabled=false",
+                "--spring.cloud.stream.kafka.binder.brokers=" + brokers,
+                "--wiki.stream.host=" + streamHost,
+                "--wiki.categories.api.endpoint=" + apiEndpoint,
+                "--wiki.checkpoint.store=file",
+                "--wiki.checkpoint.file.path=" + workDirectory.resolve("checkpoint.json"),
+                "--wiki.buffer.spill-path=" + workDirectory.resolve("buffer.spill"),
+                "--wiki.categories.cache.persistence.path=" + workDirectory.resolve("category-cache")));
+        serviceArgs.addAll(List.of(args));
+
+        return new SpringApplicationBuilder(WikiEventStreamApplication.class)
+                .run(serviceArgs.toArray(new String[0]));
+    }
+
+    static void writeResults(Path output, Map<String, Object> results) throws Exception {
+        File file = output.toAbsolutePath().toFile();
+        file.getParentFile().mkdirs();
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(file, results);
+    }
+}
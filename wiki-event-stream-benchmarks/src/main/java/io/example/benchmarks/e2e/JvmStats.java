@@ -0,0 +1,57 @@
+package io.example.benchmarks.e2e;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Captures the heap and garbage collection behaviour of the JVM between the start and the end of a benchmark.
+ *
+ * @author Kenny Bastani
+ */
+class JvmStats {
+
+    private final Map<String, long[]> collectorsAtStart = new LinkedHashMap<>();
+
+    /**
+     * Resets the peak heap usage and remembers the collection counts and times at the start of the benchmark.
+     */
+    void start() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            pool.resetPeakUsage();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            collectorsAtStart.put(collector.getName(),
+                    new long[]{collector.getCollectionCount(), collector.getCollectionTime()});
+    }
+
+    /**
+     * @return the heap and collector statistics since the start of the benchmark
+     */
+    Map<String, Object> stop() {
+        long peakHeap = 0L;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        Map<String, Object> collectors = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long[] start = collectorsAtStart.getOrDefault(collector.getName(), new long[]{0L, 0L});
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("collections", collector.getCollectionCount() - start[0]);
+            stats.put("timeMs", collector.getCollectionTime() - start[1]);
+            collectors.put(collector.getName(), stats);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("heapMaxBytes", Runtime.getRuntime().maxMemory());
+        stats.put("heapPeakUsedBytes", peakHeap);
+        stats.put("heapUsedAtEndBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        stats.put("collectors", collectors);
+        return stats;
+    }
+}
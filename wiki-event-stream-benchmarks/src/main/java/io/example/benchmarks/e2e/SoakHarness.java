@@ -0,0 +1,230 @@
+package io.example.benchmarks.e2e;
+
+import io.example.metrics.PipelineMetrics;
+import io.example.standins.StandInServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the ingest service for hours against the stand-ins and an embedded Kafka broker, while injecting the faults
+ * that make it rebuild its pipelines: dropped and stalled change stream connections, a stalled MediaWiki API, and
+ * a stalled or dropped connection to Kafka. Each fault is injected through a {@link FaultProxy} in front of the
+ * dependency, on top of the disconnects and errors that the stand-ins inject themselves.
+ * <p>
+ * After a warm-up, the heap after a collection, the live threads, the open connections to each dependency, and the
+ * open subscriptions to the change stream are sampled at a fixed interval. The run fails if any of them keeps
+ * growing, as decided by a {@link GrowthDetector}, or if the service stops sending records to Kafka. The samples
+ * and the verdict are written as JSON, and the exit code is non-zero when the run fails.
+ * <p>
+ * Arguments are given as {@code --name=value}: {@code duration}, {@code warmup}, {@code sample-interval},
+ * {@code fault-interval}, {@code rate} of the stand-in stream, and {@code output}.
+ *
+ * @author Kenny Bastani
+ */
+public class SoakHarness {
+
+    private static Logger logger = LoggerFactory.getLogger(SoakHarness.class);
+
+    /**
+     * The stream is stalled for longer than the read timeout of the service, so that the stall is detected.
+     */
+    private static final Duration STREAM_STALL = Duration.ofSeconds(8);
+    private static final Duration API_STALL = Duration.ofSeconds(15);
+    private static final Duration KAFKA_STALL = Duration.ofSeconds(45);
+
+    private final List<Map<String, Object>> samples = new ArrayList<>();
+    private final Map<String, GrowthDetector> detectors = new LinkedHashMap<>();
+    private final Map<String, Integer> faults = new LinkedHashMap<>();
+    private final FaultProxy streamProxy;
+    private final FaultProxy apiProxy;
+    private final FaultProxy kafkaProxy;
+    private final PipelineMetrics metrics;
+
+    private SoakHarness(FaultProxy streamProxy, FaultProxy apiProxy, FaultProxy kafkaProxy, PipelineMetrics metrics) {
+        this.streamProxy = streamProxy;
+        this.apiProxy = apiProxy;
+        this.kafkaProxy = kafkaProxy;
+        this.metrics = metrics;
+        detectors.put("heapUsedBytes", new GrowthDetector("heapUsedBytes", 64 * 1024 * 1024));
+        detectors.put("liveThreads", new GrowthDetector("liveThreads", 8));
+        detectors.put("streamConnections", new GrowthDetector("streamConnections", 2));
+        detectors.put("apiConnections", new GrowthDetector("apiConnections", 8));
+        detectors.put("kafkaConnections", new GrowthDetector("kafkaConnections", 4));
+        detectors.put("streamSubscriptions", new GrowthDetector("streamSubscriptions", 1));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("duration", "PT4H");
+        defaults.put("warmup", "PT10M");
+        defaults.put("sample-interval", "PT30S");
+        defaults.put("fault-interval", "PT2M");
+        defaults.put("rate", "200");
+        defaults.put("output", "target/soak-test.json");
+        Map<String, String> options = Harness.options(defaults, args);
+
+        Duration duration = Duration.parse(options.get("duration"));
+        Duration warmup = Duration.parse(options.get("warmup"));
+        Duration sampleInterval = Duration.parse(options.get("sample-interval"));
+        Duration faultInterval = Duration.parse(options.get("fault-interval"));
+        Path output = Paths.get(options.get("output"));
+        Path workDirectory = Files.createTempDirectory("soak-test");
+
+        // Clients learn the address of the broker from its metadata, so the broker advertises the proxy
+        int brokerPort = freePort();
+        FaultProxy kafkaProxy = new FaultProxy("kafka", brokerPort);
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, false)
+                .kafkaPorts(brokerPort)
+                .brokerProperty("advertised.listeners", "PLAINTEXT://localhost:" + kafkaProxy.getPort());
+        broker.afterPropertiesSet();
+        String brokers = "localhost:" + kafkaProxy.getPort();
+        Harness.createTopic(brokers);
+
+        Map<String, Object> standIn = new HashMap<>();
+        standIn.put("standin.stream.rate", options.get("rate"));
+        standIn.put("standin.stream.disconnect-every", 50000);
+        standIn.put("standin.api.error-rate", 0.01);
+        StandInServer standIns = StandInServer.start(standIn);
+        FaultProxy streamProxy = new FaultProxy("stream", standIns.getPort());
+        FaultProxy apiProxy = new FaultProxy("api", standIns.getPort());
+
+        boolean passed = false;
+        try (ConfigurableApplicationContext service = Harness.startService(brokers,
+                "http://localhost:" + streamProxy.getPort(),
+                "http://localhost:" + apiProxy.getPort() + "/w/api.php", workDirectory)) {
+            SoakHarness harness = new SoakHarness(streamProxy, apiProxy, kafkaProxy,
+                    service.getBean(PipelineMetrics.class));
+            passed = harness.run(duration, warmup, sampleInterval, faultInterval, output, options);
+        } catch (Exception ex) {
+            logger.error("The soak test failed", ex);
+        } finally {
+            streamProxy.close();
+            apiProxy.close();
+            standIns.close();
+            broker.destroy();
+            kafkaProxy.close();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run(Duration duration, Duration warmup, Duration sampleInterval, Duration faultInterval,
+                        Path output, Map<String, String> options) throws Exception {
+        long started = System.currentTimeMillis();
+        long end = started + duration.toMillis();
+        long sampleFrom = started + warmup.toMillis();
+        long nextSample = sampleFrom;
+        long nextFault = started + faultInterval.toMillis();
+        int fault = 0;
+        List<Double> sent = new ArrayList<>();
+
+        while (System.currentTimeMillis() < end) {
+            long now = System.currentTimeMillis();
+            if (now >= nextFault) {
+                injectFault(fault++);
+                nextFault = now + faultInterval.toMillis();
+            }
+            if (now >= nextSample) {
+                sample(now);
+                sent.add(metrics.getKafkaHandoff().count() * 1.0);
+                nextSample = now + sampleInterval.toMillis();
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+
+        // The service has to still be sending records at the end of the run, not just hold steady resources
+        int quarter = Math.max(1, sent.size() / 4);
+        boolean progressing = sent.size() > quarter &&
+                sent.get(sent.size() - 1) > sent.get(sent.size() - 1 - quarter);
+        boolean growing = detectors.values().stream().anyMatch(GrowthDetector::isGrowing);
+        boolean passed = progressing && !growing;
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", Instant.now().toString());
+        results.put("options", options);
+        results.put("passed", passed);
+        results.put("progressing", progressing);
+        results.put("recordsSent", metrics.getKafkaHandoff().count());
+        results.put("reconnects", metrics.getReconnects().count());
+        results.put("kafkaSendFailures", metrics.getKafkaSendFailures().count());
+        results.put("faults", faults);
+        List<Map<String, Object>> resources = new ArrayList<>();
+        detectors.values().forEach(detector -> resources.add(detector.toMap()));
+        results.put("resources", resources);
+        results.put("samples", samples);
+        Harness.writeResults(output, results);
+        logger.info("The soak run {} with {} records sent and {} growing resources, see {}",
+                passed ? "passed" : "failed", (long) metrics.getKafkaHandoff().count(),
+                detectors.values().stream().filter(GrowthDetector::isGrowing).count(), output);
+        return passed;
+    }
+
+    /**
+     * Injects the next fault, cycling through every kind of fault so that each recovery path is exercised.
+     */
+    private void injectFault(int fault) {
+        String name;
+        switch (fault % 5) {
+            case 0:
+                name = "streamReset";
+                streamProxy.reset();
+                break;
+            case 1:
+                name = "streamStall";
+                streamProxy.stall(STREAM_STALL);
+                break;
+            case 2:
+                name = "apiStall";
+                apiProxy.stall(API_STALL);
+                break;
+            case 3:
+                name = "kafkaStall";
+                kafkaProxy.stall(KAFKA_STALL);
+                break;
+            default:
+                name = "kafkaReset";
+                kafkaProxy.reset();
+        }
+        faults.merge(name, 1, Integer::sum);
+    }
+
+    private void sample(long time) {
+        // Only the heap that survives a collection says anything about retained memory
+        System.gc();
+
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("time", time);
+        sample.put("heapUsedBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        sample.put("liveThreads", ManagementFactory.getThreadMXBean().getThreadCount());
+        sample.put("streamConnections", streamProxy.getOpenConnections());
+        sample.put("apiConnections", apiProxy.getOpenConnections());
+        sample.put("kafkaConnections", kafkaProxy.getOpenConnections());
+        sample.put("streamSubscriptions", metrics.getStreamSubscriptions().get());
+        sample.put("recordsSent", metrics.getKafkaHandoff().count());
+        samples.add(sample);
+
+        detectors.forEach((resource, detector) -> detector.sample(time, ((Number) sample.get(resource)).doubleValue()));
+        logger.info("Soak sample: {}", sample);
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
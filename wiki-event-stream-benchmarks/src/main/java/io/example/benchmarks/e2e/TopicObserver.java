@@ -0,0 +1,132 @@
+package io.example.benchmarks.e2e;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.output.AvroCategoryChangeSerializer;
+import io.example.output.OutputFormat;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes the records that the ingest service sends to its output topic and measures how fast and how late they
+ * arrive. The topic uses log append time, so the timestamp of each record is the time the broker acknowledged it,
+ * and the latency of a record is that time minus the time the stand-in sent the change. Records are read in the
+ * {@link OutputFormat} of the service, and their sizes are counted as they were sent, before compression.
+ *
+ * @author Kenny Bastani
+ */
+class TopicObserver implements Runnable, Closeable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GenericDatumReader<GenericRecord> avroReader =
+            new GenericDatumReader<>(new Schema.Parser().parse(AvroCategoryChangeSerializer.SCHEMA));
+    private final OutputFormat format;
+    private final KafkaConsumer<byte[], byte[]> consumer;
+    private final Histogram latency = new Histogram(TimeUnit.MINUTES.toMillis(10), 3);
+    private final BitSet changes = new BitSet();
+    private final long expectedChanges;
+    private volatile boolean running = true;
+    private long records;
+    private long bytes;
+    private long firstAck = Long.MAX_VALUE;
+    private long lastAck = Long.MIN_VALUE;
+
+    TopicObserver(String brokers, String topic, long expectedChanges, OutputFormat format) {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, "e2e-benchmark");
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        this.consumer = new KafkaConsumer<>(properties, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        this.consumer.subscribe(List.of(topic));
+        this.expectedChanges = expectedChanges;
+        this.format = format;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(100)))
+                observe(record);
+        }
+        consumer.close();
+    }
+
+    private void observe(ConsumerRecord<byte[], byte[]> record) {
+        int id;
+        long changedTime;
+        try {
+            if (format == OutputFormat.AVRO) {
+                // Skips the magic byte and the schema id that precede the record
+                GenericRecord change = avroReader.read(null, DecoderFactory.get()
+                        .binaryDecoder(record.value(), 5, record.value().length - 5, null));
+                id = (Integer) change.get("id");
+                changedTime = (Long) change.get("changedTime");
+            } else {
+                JsonNode change = objectMapper.readTree(record.value());
+                id = change.get("id").asInt();
+                changedTime = change.get("changedTime").asLong();
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read a record from the output topic", ex);
+        }
+
+        long ack = record.timestamp();
+        synchronized (this) {
+            records++;
+            bytes += record.value().length;
+            firstAck = Math.min(firstAck, ack);
+            lastAck = Math.max(lastAck, ack);
+            changes.set(id);
+            latency.recordValue(Math.max(0L, ack - changedTime));
+        }
+    }
+
+    synchronized boolean isComplete() {
+        return changes.cardinality() >= expectedChanges;
+    }
+
+    synchronized long getChanges() {
+        return changes.cardinality();
+    }
+
+    synchronized long getRecords() {
+        return records;
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    synchronized long getFirstAck() {
+        return firstAck;
+    }
+
+    synchronized long getLastAck() {
+        return lastAck;
+    }
+
+    synchronized Histogram getLatency() {
+        return latency.copy();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+    }
+}
@@ -0,0 +1,134 @@
+package io.example.buffer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded hand-off between the stage that produces items and the stage that sends them to Kafka. The buffer
+ * absorbs short slowdowns on the consumer side, and when it fills up, the configured {@link OverflowPolicy} decides
+ * whether the producer blocks, the oldest items are dropped, or items are spilled to disk. The depth of the buffer
+ * and the number of dropped and spilled items can be monitored while it is running.
+ *
+ * @author Kenny Bastani
+ */
+public class BoundedBuffer<T> implements AutoCloseable {
+
+    private final BlockingQueue<T> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final SpillFile<T> spillFile;
+    private final Object spillLock = new Object();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+
+    /**
+     * Creates a buffer that either blocks or drops the oldest items when it is full.
+     *
+     * @param capacity       is the maximum number of items held in memory
+     * @param overflowPolicy is the {@link OverflowPolicy} that is applied when the buffer is full
+     */
+    public BoundedBuffer(int capacity, OverflowPolicy overflowPolicy) {
+        this(capacity, overflowPolicy, null, null);
+    }
+
+    /**
+     * Creates a buffer that can spill its overflow to a file on disk.
+     *
+     * @param capacity       is the maximum number of items held in memory
+     * @param overflowPolicy is the {@link OverflowPolicy} that is applied when the buffer is full
+     * @param spillPath      is the file that overflow is spilled to when the policy is {@link OverflowPolicy#SPILL}
+     * @param type           is the type of the items, which is used to read spilled items back from disk
+     */
+    public BoundedBuffer(int capacity, OverflowPolicy overflowPolicy, Path spillPath, Class<T> type) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = overflowPolicy == OverflowPolicy.SPILL ? new SpillFile<>(spillPath, type) : null;
+    }
+
+    /**
+     * Adds an item to the buffer, applying the {@link OverflowPolicy} if the buffer is full.
+     *
+     * @param item is the item to add
+     */
+    public void offer(T item) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(item);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for room in the buffer", ex);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(item)) {
+                    if (queue.poll() != null)
+                        dropped.incrementAndGet();
+                }
+                break;
+            case SPILL:
+                synchronized (spillLock) {
+                    // Once anything has been spilled, new items go to disk too, so that the order is preserved
+                    if (spillFile.isEmpty() && queue.offer(item))
+                        return;
+                    spillFile.append(item);
+                    spilled.incrementAndGet();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Removes the next item from the buffer, waiting until one is available.
+     *
+     * @return the oldest item in the buffer
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public T take() throws InterruptedException {
+        T item = queue.take();
+
+        if (spillFile != null) {
+            synchronized (spillLock) {
+                // Move spilled items back into memory as room becomes available
+                while (!spillFile.isEmpty() && queue.remainingCapacity() > 0)
+                    queue.offer(spillFile.poll());
+            }
+        }
+
+        return item;
+    }
+
+    /**
+     * @return the number of items waiting in the buffer, including items that were spilled to disk
+     */
+    public long size() {
+        if (spillFile == null)
+            return queue.size();
+
+        synchronized (spillLock) {
+            return queue.size() + spillFile.size();
+        }
+    }
+
+    /**
+     * @return the total number of items that were dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the total number of items that were spilled to disk because the buffer was full
+     */
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spillFile != null)
+            spillFile.close();
+    }
+}
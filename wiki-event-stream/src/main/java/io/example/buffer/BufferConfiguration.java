@@ -0,0 +1,28 @@
+package io.example.buffer;
+
+import io.example.metrics.PipelineMetrics;
+import io.example.schema.category.CategorizedChange;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Configures the {@link BoundedBuffer} that hands changes joined with their categories over to the Kafka sender.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@EnableConfigurationProperties(BufferProperties.class)
+public class BufferConfiguration {
+
+    @Bean
+    public BoundedBuffer<CategorizedChange> categorizedChangeBuffer(BufferProperties properties,
+                                                                   PipelineMetrics metrics) {
+        BoundedBuffer<CategorizedChange> buffer = new BoundedBuffer<>(properties.getCapacity(),
+                properties.getOverflowPolicy(), Paths.get(properties.getSpillPath()), CategorizedChange.class);
+        metrics.monitorBuffer(buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,67 @@
+package io.example.buffer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures the bounded buffer between the category enrichment stage and the Kafka sender.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.buffer")
+public class BufferProperties {
+
+    /**
+     * The maximum number of changes that are held in memory while waiting to be sent to Kafka.
+     */
+    private int capacity = 10_000;
+
+    /**
+     * What happens when the buffer is full, which is one of {@code block}, {@code drop-oldest}, or {@code spill}.
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * The file that changes are spilled to when the overflow policy is {@code spill}.
+     */
+    private String spillPath = "spill/categorized-changes.spill";
+
+    /**
+     * How long the application waits on shutdown for the changes in the buffer to be sent to Kafka, before it saves
+     * its last checkpoint. Changes that are still in the buffer after this are received again on the next start.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public String getSpillPath() {
+        return spillPath;
+    }
+
+    public void setSpillPath(String spillPath) {
+        this.spillPath = spillPath;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public void setDrainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+}
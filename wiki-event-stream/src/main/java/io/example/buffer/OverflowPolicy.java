@@ -0,0 +1,25 @@
+package io.example.buffer;
+
+/**
+ * Decides what happens when an item is offered to a full {@link BoundedBuffer}.
+ *
+ * @author Kenny Bastani
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Blocks the producer until the consumer has made room in the buffer.
+     */
+    BLOCK,
+
+    /**
+     * Drops the oldest items in the buffer to make room for the new item.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Spills items to a file on disk until the consumer has caught up, without losing or reordering any items. The
+     * items that are still spilled when the application stops are received again after the last checkpoint.
+     */
+    SPILL
+}
@@ -0,0 +1,123 @@
+package io.example.buffer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+/**
+ * An append-only file of length-prefixed JSON records that a {@link BoundedBuffer} spills its overflow into. Items
+ * are read back in the same order that they were written, and the file is truncated as soon as it has been fully
+ * read, so it only takes up space on disk while the consumer is behind. Dates are written as epoch millis, so
+ * that they are read back exactly as they were written.
+ * <p>
+ * The items that are left in the file when the application stops are discarded when it is opened again. They were
+ * all received after the last change that was sent, which is the position that the processor checkpoints, so they
+ * are received again when the processor resumes from its checkpoint. Reading them back as well would send them
+ * twice.
+ *
+ * @author Kenny Bastani
+ */
+class SpillFile<T> implements AutoCloseable {
+
+    private static Logger logger = LoggerFactory.getLogger(SpillFile.class);
+    private final Gson gson;
+    private final Class<T> type;
+    private final FileChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+    private long readPosition = 0;
+    private long writePosition = 0;
+    private long size = 0;
+
+    SpillFile(Path path, Class<T> type) {
+        this.type = type;
+        this.gson = new GsonBuilder()
+                .registerTypeAdapter(Date.class, (JsonSerializer<Date>) (date, dateType, context) ->
+                        new JsonPrimitive(date.getTime()))
+                .registerTypeAdapter(Date.class, (JsonDeserializer<Date>) (json, dateType, context) ->
+                        new Date(json.getAsLong()))
+                .create();
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            if (Files.exists(path) && Files.size(path) > 0)
+                logger.info("Discarding the {} bytes left in the spill file {}, since the changes in it are received " +
+                        "again after the last checkpoint", Files.size(path), path);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open the spill file " + path, ex);
+        }
+    }
+
+    void append(T item) {
+        byte[] json = gson.toJson(item, type).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + json.length);
+        record.putInt(json.length).put(json).flip();
+        try {
+            while (record.hasRemaining())
+                writePosition += channel.write(record, writePosition);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to write to the spill file", ex);
+        }
+        size++;
+    }
+
+    T poll() {
+        if (size == 0)
+            return null;
+
+        try {
+            header.clear();
+            readFully(header, readPosition);
+            int length = header.getInt(0);
+            ByteBuffer json = ByteBuffer.allocate(length);
+            readFully(json, readPosition + Integer.BYTES);
+            readPosition += Integer.BYTES + length;
+            size--;
+
+            if (size == 0) {
+                channel.truncate(0);
+                readPosition = 0;
+                writePosition = 0;
+            }
+
+            return gson.fromJson(new String(json.array(), StandardCharsets.UTF_8), type);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read from the spill file", ex);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new IOException("Unexpected end of the spill file");
+        }
+    }
+}
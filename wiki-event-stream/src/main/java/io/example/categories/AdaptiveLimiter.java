@@ -0,0 +1,192 @@
+package io.example.categories;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the requests that are made to an API with a token bucket, which caps the request rate, combined with an
+ * additive-increase/multiplicative-decrease (AIMD) limit on the requests that are in flight at the same time. The
+ * concurrency limit grows slowly while requests complete within the latency target and at least half of the limit
+ * is in use, shrinks a little when requests get slow, and is halved when the API pushes back. A push back
+ * with a {@code Retry-After} also pauses every request until that time has passed. Callers that can't get a permit
+ * are queued until they can, instead of failing, so the throughput settles near what the API allows.
+ * <p>
+ * Requests that were already in flight when the limit was halved don't halve it again, so a burst of rejections of
+ * concurrent requests only counts as a single push back, as TCP does for losses within one round trip.
+ *
+ * @author Kenny Bastani
+ */
+public class AdaptiveLimiter {
+
+    private static final double SLOW_DECREASE = 0.9;
+    private static final double THROTTLED_DECREASE = 0.5;
+
+    private final double rate;
+    private final double burst;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyTarget;
+    private double limit;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+    private long lastDecrease;
+    private int inFlight;
+    private int queued;
+
+    /**
+     * @param rate          is the most requests per second, or {@code 0} to not limit the rate
+     * @param burst         is the most requests that can be made at once after a quiet period
+     * @param initialLimit  is the concurrency limit to start with
+     * @param minLimit      is the lowest that the concurrency limit is decreased to
+     * @param maxLimit      is the highest that the concurrency limit is increased to
+     * @param latencyTarget is the latency under which requests are considered healthy
+     */
+    public AdaptiveLimiter(double rate, int burst, int initialLimit, int minLimit, int maxLimit,
+                           Duration latencyTarget) {
+        if (minLimit < 1 || minLimit > maxLimit)
+            throw new IllegalArgumentException("The concurrency limits must be at least 1 and min <= max");
+        this.rate = rate;
+        this.burst = Math.max(1, burst);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTarget = latencyTarget.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+        this.lastDecrease = lastRefill;
+    }
+
+    /**
+     * Waits until a request may be made, which is when a token is available, fewer requests than the limit are in
+     * flight, and the API has not asked to be left alone. Every permit has to be given back with one of
+     * {@link #onSuccess}, {@link #onThrottled} or {@link #onFailure}.
+     *
+     * @return the permit to make one request
+     * @throws InterruptedException if the thread was interrupted while it was queued
+     */
+    public synchronized Permit acquire() throws InterruptedException {
+        long queuedAt = System.nanoTime();
+        queued++;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+
+                long waitFor;
+                if (now < pausedUntil) {
+                    waitFor = pausedUntil - now;
+                } else if (inFlight >= (int) limit) {
+                    // Woken up when a request in flight is given back
+                    waitFor = 0L;
+                } else if (rate > 0 && tokens < 1.0) {
+                    waitFor = Math.max(1L, (long) ((1.0 - tokens) / rate * TimeUnit.SECONDS.toNanos(1)));
+                } else {
+                    if (rate > 0)
+                        tokens -= 1.0;
+                    inFlight++;
+                    return new Permit(now, now - queuedAt);
+                }
+
+                if (waitFor == 0L) {
+                    wait();
+                } else {
+                    TimeUnit.NANOSECONDS.timedWait(this, waitFor);
+                }
+            }
+        } finally {
+            queued--;
+        }
+    }
+
+    /**
+     * Gives back the permit of a request that succeeded, which grows the limit if the request was fast and the
+     * limit was in use, or shrinks it a little if the request was slow.
+     *
+     * @param permit  is the permit of the request
+     * @param latency is how long the request took, in nanoseconds
+     */
+    public synchronized void onSuccess(Permit permit, long latency) {
+        // Only grows the limit when it is being used, so that it doesn't creep up while the load is light
+        boolean saturated = inFlight * 2 >= limit;
+        inFlight--;
+
+        if (latency > latencyTarget) {
+            decrease(permit, SLOW_DECREASE);
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Gives back the permit of a request that the API rejected because it was overloaded or rate limited, which
+     * halves the limit, and pauses every request if the API asked to retry after a while.
+     *
+     * @param permit     is the permit of the request
+     * @param retryAfter is how long the API asked to wait for, or {@code null} if it didn't say
+     */
+    public synchronized void onThrottled(Permit permit, Duration retryAfter) {
+        inFlight--;
+        decrease(permit, THROTTLED_DECREASE);
+        if (retryAfter != null)
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + retryAfter.toNanos());
+        notifyAll();
+    }
+
+    /**
+     * Gives back the permit of a request that failed for a reason that says nothing about the load on the API.
+     *
+     * @param permit is the permit of the request
+     */
+    public synchronized void onFailure(Permit permit) {
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    private void decrease(Permit permit, double factor) {
+        if (permit.issuedAt < lastDecrease)
+            return;
+        limit = Math.max(minLimit, limit * factor);
+        lastDecrease = System.nanoTime();
+    }
+
+    private void refill(long now) {
+        if (rate > 0)
+            tokens = Math.min(burst, tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+
+    /**
+     * The permission to make one request.
+     */
+    public static class Permit {
+
+        private final long issuedAt;
+        private final long waited;
+
+        private Permit(long issuedAt, long waited) {
+            this.issuedAt = issuedAt;
+            this.waited = waited;
+        }
+
+        /**
+         * @return how long the request was queued for, in nanoseconds
+         */
+        public long getWaited() {
+            return waited;
+        }
+    }
+}
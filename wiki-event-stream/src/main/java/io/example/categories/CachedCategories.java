@@ -0,0 +1,93 @@
+package io.example.categories;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The categories of a page as they are kept by the {@link CachingCategoryLookup}, along with when they were fetched
+ * from the API, which decides when they are refreshed and when they expire, and when they were last changed, which
+ * decides which of the copies of a page in the {@link CategoryCacheLog} is the latest. The categories are kept as
+ * the ids of a {@link CategoryDictionary}, so a page costs four bytes per category instead of a copy of each name.
+ *
+ * @author Kenny Bastani
+ */
+public class CachedCategories {
+
+    private final CategoryDictionary dictionary;
+    private final int[] categories;
+    private final long fetchedAt;
+    private final long updatedAt;
+
+    public CachedCategories(CategoryDictionary dictionary, int[] categories, long fetchedAt, long updatedAt) {
+        this.dictionary = dictionary;
+        this.categories = categories;
+        this.fetchedAt = fetchedAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @param dictionary is the dictionary that the categories are interned in
+     * @param categories are the categories that were just fetched from the API
+     * @param now        is the current epoch milliseconds
+     * @return the categories of a page that were fetched and changed just now
+     */
+    public static CachedCategories fetched(CategoryDictionary dictionary, List<String> categories, long now) {
+        return new CachedCategories(dictionary, dictionary.encode(categories), now, now);
+    }
+
+    /**
+     * Adds a category to the page or removes it, such as for a {@code categorize} event.
+     *
+     * @param category is the name of the category
+     * @param added    is whether the category was added to the page or removed from it
+     * @param now      is the current epoch milliseconds
+     * @return the changed categories, which were fetched at the same time as these categories, or these categories
+     * if the page already had the category or didn't have it
+     */
+    public CachedCategories withCategory(String category, boolean added, long now) {
+        int id = added ? dictionary.id(category) : dictionary.find(category);
+        int index = indexOf(id);
+        if (added == (index >= 0))
+            return this;
+
+        int[] next;
+        if (added) {
+            next = Arrays.copyOf(categories, categories.length + 1);
+            next[categories.length] = id;
+        } else {
+            next = new int[categories.length - 1];
+            System.arraycopy(categories, 0, next, 0, index);
+            System.arraycopy(categories, index + 1, next, index, next.length - index);
+        }
+        return new CachedCategories(dictionary, next, fetchedAt, now);
+    }
+
+    /**
+     * @return the names of the categories, which are looked up in the dictionary as they are read
+     */
+    public List<String> getCategories() {
+        return dictionary.decode(categories);
+    }
+
+    /**
+     * @return the epoch milliseconds that the categories were fetched from the API at
+     */
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * @return the epoch milliseconds that the categories were last changed at
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < categories.length; i++) {
+            if (categories[i] == id)
+                return i;
+        }
+        return -1;
+    }
+}
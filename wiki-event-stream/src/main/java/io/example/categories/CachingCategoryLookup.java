@@ -0,0 +1,285 @@
+package io.example.categories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link CategoryLookup} that keeps a bounded cache of page categories in front of another lookup. Hot pages on
+ * Wikipedia are edited many times a minute, so repeated edits to the same title are answered from the cache instead
+ * of making another round trip to the MediaWiki API. The cache uses Caffeine's W-TinyLFU eviction policy, which
+ * keeps frequently edited pages resident even when a burst of one-off edits passes through. Batched lookups only
+ * send the titles that missed the cache to the delegate.
+ * <p>
+ * The cache is also a state store of the categories of pages. Pages are loaded lazily when they are first looked up,
+ * and are then kept current by the {@code categorize} events of the change stream. Pages that were fetched longer
+ * ago than the refresh interval are still answered from the cache, and are fetched again in the background. A page
+ * is only fetched while a lookup waits for it once its entry has expired.
+ * <p>
+ * Pages are keyed by the 64-bit {@link PageKey} of their title, and their categories are kept as the ids of a
+ * shared {@link CategoryDictionary}, so that the cache holds no strings of its own.
+ * <p>
+ * With a {@link CategoryCacheLog}, every page that is fetched or changed is also written to disk. The pages that
+ * were written before a restart are restored in the background after it, so that the API isn't asked for the whole
+ * working set again.
+ *
+ * @author Kenny Bastani
+ */
+public class CachingCategoryLookup implements CategoryLookup {
+    private static Logger logger = LoggerFactory.getLogger(CachingCategoryLookup.class);
+    private static final long MIN_COMPACTION = 10_000L;
+
+    private final Cache<Long, CachedCategories> cache;
+    private final CategoryDictionary dictionary = new CategoryDictionary();
+    private final CategoryLookup delegate;
+    private final CategoryCacheLog log;
+    private final Executor executor;
+    private final long ttl;
+    private final long refreshAfter;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private volatile boolean restored;
+
+    public CachingCategoryLookup(CategoryLookup delegate, CategoryCacheProperties properties) {
+        this(delegate, properties, null, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param delegate   is the lookup that pages which aren't cached are fetched with
+     * @param properties are the size, expiry and refresh interval of the cache
+     * @param log        is the log that the cache is written to and restored from, or {@code null}
+     * @param executor   runs the refreshes of stale pages and the restore of the cache
+     */
+    public CachingCategoryLookup(CategoryLookup delegate, CategoryCacheProperties properties, CategoryCacheLog log,
+                                 Executor executor) {
+        this.delegate = delegate;
+        this.log = log;
+        this.executor = executor;
+        this.ttl = properties.getTtl().toMillis();
+        this.refreshAfter = properties.getRefreshAfter() == null ? 0L : properties.getRefreshAfter().toMillis();
+        this.restored = log == null;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new Expiry<Long, CachedCategories>() {
+                    @Override
+                    public long expireAfterCreate(Long page, CachedCategories categories, long currentTime) {
+                        return remaining(categories);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long page, CachedCategories categories, long currentTime,
+                                                  long currentDuration) {
+                        return remaining(categories);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long page, CachedCategories categories, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        if (log != null)
+            executor.execute(this::restore);
+    }
+
+    @Override
+    public List<String> getCategories(String title) {
+        CachedCategories categories = cache.get(PageKey.of(title), page -> {
+            CachedCategories fetched = CachedCategories.fetched(dictionary, delegate.getCategories(title),
+                    System.currentTimeMillis());
+            write(page, fetched);
+            return fetched;
+        });
+        if (isStale(categories) && refreshing.add(title))
+            executor.execute(() -> refresh(List.of(title)));
+        return categories.getCategories();
+    }
+
+    /**
+     * Answers the titles that are cached, and fetches the rest from the delegate with a single batched lookup.
+     */
+    @Override
+    public Map<String, List<String>> getCategories(Collection<String> titles) {
+        Map<String, List<String>> categories = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+
+        for (String title : titles) {
+            CachedCategories cached = cache.getIfPresent(PageKey.of(title));
+            if (cached == null) {
+                misses.add(title);
+                continue;
+            }
+
+            categories.put(title, cached.getCategories());
+            if (isStale(cached) && refreshing.add(title))
+                stale.add(title);
+        }
+
+        if (!misses.isEmpty()) {
+            fetch(misses).forEach((title, cached) -> {
+                cache.put(PageKey.of(title), cached);
+                categories.put(title, cached.getCategories());
+            });
+        }
+
+        if (!stale.isEmpty())
+            executor.execute(() -> refresh(stale));
+
+        return categories;
+    }
+
+    /**
+     * Adds or removes a category of a page that is in the cache. The change doesn't restart the expiry of the page,
+     * since the rest of its categories are as old as before. Pages that aren't in the cache are left for the next
+     * lookup to load.
+     */
+    @Override
+    public void apply(CategoryMembershipChange change) {
+        long page = PageKey.of(change.getPage());
+        AtomicBoolean changed = new AtomicBoolean(false);
+        CachedCategories updated = cache.asMap().computeIfPresent(page, (key, cached) -> {
+            CachedCategories next = cached.withCategory(change.getCategory(), change.isAdded(),
+                    System.currentTimeMillis());
+            changed.set(next != cached);
+            return next;
+        });
+
+        if (changed.get())
+            write(page, updated);
+    }
+
+    /**
+     * Returns the underlying cache so that its hit, miss, and eviction counters can be bound to a meter registry.
+     *
+     * @return the page to categories cache
+     */
+    public Cache<Long, CachedCategories> getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the dictionary that the names of the cached categories are interned in
+     */
+    public CategoryDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns a snapshot of the cache's hit, miss, and eviction counters.
+     *
+     * @return the current {@link CacheStats}
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return whether the pages in the {@link CategoryCacheLog} were restored, which is always true without one
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    private Map<String, CachedCategories> fetch(List<String> titles) {
+        Map<String, List<String>> categories = delegate.getCategories(titles);
+        long now = System.currentTimeMillis();
+
+        Map<String, CachedCategories> fetched = new HashMap<>();
+        for (String title : titles) {
+            CachedCategories page = CachedCategories.fetched(dictionary, categories.getOrDefault(title, List.of()),
+                    now);
+            fetched.put(title, page);
+            write(PageKey.of(title), page);
+        }
+        return fetched;
+    }
+
+    private void refresh(List<String> titles) {
+        try {
+            fetch(titles).forEach((title, categories) -> cache.put(PageKey.of(title), categories));
+        } catch (RuntimeException ex) {
+            // The stale categories are kept until the page expires or the next lookup refreshes it again
+            logger.warn("Unable to refresh the categories of {} pages", titles.size(), ex);
+        } finally {
+            refreshing.removeAll(titles);
+        }
+    }
+
+    private boolean isStale(CachedCategories categories) {
+        return refreshAfter > 0 && System.currentTimeMillis() - categories.getFetchedAt() >= refreshAfter;
+    }
+
+    private long remaining(CachedCategories categories) {
+        long remaining = categories.getFetchedAt() + ttl - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remaining));
+    }
+
+    private void write(long page, CachedCategories categories) {
+        if (log == null)
+            return;
+
+        log.append(page, categories);
+
+        // Pages are appended every time they change, so the log is compacted once it holds many more copies than
+        // there are pages in the cache
+        if (restored && log.getAppended() > 2 * cache.estimatedSize() + MIN_COMPACTION
+                && compacting.compareAndSet(false, true))
+            executor.execute(this::compact);
+    }
+
+    /**
+     * Restores the pages that were written to the log before a restart, keeping the pages that were fetched since
+     * the start, and appends them to the current generation of the log so that the older ones can be deleted.
+     */
+    private void restore() {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        try {
+            for (Map.Entry<Long, CachedCategories> page : log.readPrevious(dictionary).entrySet()) {
+                CachedCategories categories = page.getValue();
+                if (remaining(categories) > 0 && cache.asMap().putIfAbsent(page.getKey(), categories) == null) {
+                    log.append(page.getKey(), categories);
+                    count++;
+                }
+            }
+            log.deletePrevious();
+            logger.info("Restored the categories of {} pages in {} ms", count, System.currentTimeMillis() - start);
+        } catch (RuntimeException ex) {
+            logger.error("Unable to restore the categories of pages from the cache log", ex);
+        } finally {
+            restored = true;
+        }
+    }
+
+    private void compact() {
+        try {
+            log.roll();
+            cache.asMap().forEach(log::append);
+            log.deletePrevious();
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Unable to compact the cache log", ex);
+        } finally {
+            compacting.set(false);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.example.categories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures the MediaWiki API that the categories of pages are fetched from.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.categories.api")
+public class CategoryApiProperties {
+
+    /**
+     * The URL of the MediaWiki API endpoint, which can be pointed at a stand-in for benchmarks.
+     */
+    private String endpoint = "https://en.wikipedia.org/w/api.php";
+
+    /**
+     * The replication lag in seconds above which the API should turn requests away, which is sent as the
+     * {@code maxlag} parameter so that lookups back off when the database replicas are struggling.
+     */
+    private int maxLag = 5;
+
+    /**
+     * How many times a request that the API throttled is retried before the lookup fails.
+     */
+    private int maxAttempts = 10;
+
+    private final Limiter limiter = new Limiter();
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public int getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(int maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Limiter getLimiter() {
+        return limiter;
+    }
+
+    public static class Limiter {
+
+        /**
+         * The most requests per second that are made to the API, or {@code 0} to only limit the concurrency.
+         */
+        private double rate = 20.0;
+
+        /**
+         * The most requests that can be made at once after a quiet period.
+         */
+        private int burst = 10;
+
+        /**
+         * The number of requests in flight to start with, before the limit adapts.
+         */
+        private int initialConcurrency = 2;
+
+        /**
+         * The lowest that the limit on requests in flight is decreased to.
+         */
+        private int minConcurrency = 1;
+
+        /**
+         * The highest that the limit on requests in flight is increased to. The category lookups in flight are
+         * also bounded by {@code wiki.categories.enrichment.concurrency}.
+         */
+        private int maxConcurrency = 16;
+
+        /**
+         * The latency under which requests are considered healthy and the limit may grow.
+         */
+        private Duration latencyTarget = Duration.ofSeconds(1);
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getInitialConcurrency() {
+            return initialConcurrency;
+        }
+
+        public void setInitialConcurrency(int initialConcurrency) {
+            this.initialConcurrency = initialConcurrency;
+        }
+
+        public int getMinConcurrency() {
+            return minConcurrency;
+        }
+
+        public void setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getLatencyTarget() {
+            return latencyTarget;
+        }
+
+        public void setLatencyTarget(Duration latencyTarget) {
+            this.latencyTarget = latencyTarget;
+        }
+    }
+}
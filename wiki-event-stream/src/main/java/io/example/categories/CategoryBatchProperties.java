@@ -0,0 +1,41 @@
+package io.example.categories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures how recent changes are gathered into batches so that their categories can be fetched with a single
+ * multi-title request to the MediaWiki API.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.categories.batch")
+public class CategoryBatchProperties {
+
+    /**
+     * The maximum number of recent changes in a batch. The MediaWiki API accepts up to 50 titles per query.
+     */
+    private int maxSize = 50;
+
+    /**
+     * The maximum amount of time to wait for a batch to fill up before its categories are fetched.
+     */
+    private Duration maxWait = Duration.ofMillis(250);
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+}
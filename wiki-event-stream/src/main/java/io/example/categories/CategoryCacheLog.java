@@ -0,0 +1,204 @@
+package io.example.categories;
+
+import io.example.segment.SegmentReader;
+import io.example.segment.SegmentedLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the page categories of the {@link CachingCategoryLookup} on disk, so that a restart starts with a warm cache
+ * instead of looking up the whole working set again. Every page that is fetched or changed is appended to a
+ * {@link SegmentedLog}, so the log is written incrementally and never rewritten in place.
+ * <p>
+ * The log is split into generations, each in its own directory. A new generation is started every time the log is
+ * opened, and the older generations are only read back to restore the cache, keeping the copy of each page that was
+ * changed last. The restored pages are appended to the new generation, after which the older generations are
+ * deleted. The same happens while running when a generation has grown well past the number of cached pages.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryCacheLog implements Closeable {
+    private static Logger logger = LoggerFactory.getLogger(CategoryCacheLog.class);
+    private static final byte VERSION = 2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Path> previous = new ArrayList<>();
+    private SegmentedLog log;
+    private long generation;
+    private long appended = 0L;
+    private long failures = 0L;
+
+    /**
+     * Opens the log in the given directory and starts a new generation that pages are appended to.
+     *
+     * @param directory   is the directory that the generations are kept in
+     * @param segmentSize is the size in bytes of each segment file
+     * @throws IOException if the directory or the new generation can't be created
+     */
+    public CategoryCacheLog(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> Files.isDirectory(path) && path.getFileName().toString().matches("\\d+"))
+                    .sorted(Comparator.comparingLong(CategoryCacheLog::generationOf))
+                    .forEach(previous::add);
+        }
+
+        this.generation = previous.isEmpty() ? 0L : generationOf(previous.get(previous.size() - 1));
+        roll();
+    }
+
+    /**
+     * Appends the categories of a page to the current generation. A failure is logged and doesn't fail the lookup,
+     * since the log only makes the next start faster.
+     *
+     * @param page       is the key of the page, which is the hash of its title
+     * @param categories are the page's categories
+     */
+    public synchronized void append(long page, CachedCategories categories) {
+        try {
+            log.append(encode(page, categories));
+            appended++;
+        } catch (IOException | RuntimeException ex) {
+            // Logs the first failure and then every thousandth, so that a full disk doesn't flood the logs
+            if (failures++ % 1000 == 0)
+                logger.error("Unable to write the categories of page {} to the cache log ({} failures)", page,
+                        failures, ex);
+        }
+    }
+
+    /**
+     * Reads the pages of the generations before the current one, keeping the copy of each page that was changed
+     * last.
+     *
+     * @param dictionary is the dictionary that the names of the categories are interned in
+     * @return the latest categories of every page in the older generations, by the key of the page
+     */
+    public Map<Long, CachedCategories> readPrevious(CategoryDictionary dictionary) {
+        List<Path> generations;
+        synchronized (this) {
+            generations = new ArrayList<>(previous);
+        }
+
+        Map<Long, CachedCategories> pages = new HashMap<>();
+        for (Path generationDirectory : generations) {
+            try (SegmentReader reader = SegmentedLog.read(generationDirectory)) {
+                while (reader.hasNext())
+                    decode(reader.next(), dictionary, pages);
+            } catch (IOException | RuntimeException ex) {
+                // A generation that can't be read to the end is used up to where it broke off
+                logger.warn("Unable to read all of the cache log at {}", generationDirectory, ex);
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Starts a new generation, which makes every earlier generation one that can be read back and deleted.
+     *
+     * @throws IOException if the new generation can't be created
+     */
+    public synchronized void roll() throws IOException {
+        if (log != null) {
+            log.close();
+            previous.add(directory.resolve(nameOf(generation)));
+        }
+
+        generation++;
+        log = new SegmentedLog(directory.resolve(nameOf(generation)), segmentSize);
+        appended = 0L;
+    }
+
+    /**
+     * Deletes the generations before the current one, once their pages were appended to the current generation.
+     */
+    public synchronized void deletePrevious() {
+        for (Path generationDirectory : previous) {
+            try (Stream<Path> files = Files.walk(generationDirectory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                    Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                logger.warn("Unable to delete the cache log at {}", generationDirectory, ex);
+            }
+        }
+        previous.clear();
+    }
+
+    /**
+     * @return the number of pages that were appended to the current generation
+     */
+    public synchronized long getAppended() {
+        return appended;
+    }
+
+    public synchronized void flush() {
+        log.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    static byte[] encode(long page, CachedCategories categories) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            output.writeLong(categories.getFetchedAt());
+            output.writeLong(categories.getUpdatedAt());
+            output.writeLong(page);
+            output.writeInt(categories.getCategories().size());
+            for (String category : categories.getCategories())
+                output.writeUTF(category);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void decode(byte[] record, CategoryDictionary dictionary, Map<Long, CachedCategories> pages)
+            throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+            byte version = input.readByte();
+            if (version != VERSION)
+                throw new IOException("Unknown cache log record version " + version);
+
+            long fetchedAt = input.readLong();
+            long updatedAt = input.readLong();
+            long page = input.readLong();
+            int count = input.readInt();
+            int[] categories = new int[count];
+            for (int i = 0; i < count; i++)
+                categories[i] = dictionary.id(input.readUTF());
+
+            CachedCategories cached = new CachedCategories(dictionary, categories, fetchedAt, updatedAt);
+            pages.merge(page, cached,
+                    (current, next) -> next.getUpdatedAt() >= current.getUpdatedAt() ? next : current);
+        }
+    }
+
+    private static String nameOf(long generation) {
+        return String.format("%020d", generation);
+    }
+
+    private static long generationOf(Path path) {
+        return Long.parseLong(path.getFileName().toString());
+    }
+}
@@ -0,0 +1,104 @@
+package io.example.categories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configures the bounded cache that sits in front of the MediaWiki category lookups.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.categories.cache")
+public class CategoryCacheProperties {
+
+    /**
+     * The maximum number of page titles to keep categories for.
+     */
+    private long maxEntries = 100_000L;
+
+    /**
+     * How long a page's categories are cached before they are fetched again from the API. Cached pages are kept
+     * current by {@code categorize} events, so this only bounds how long a missed event can leave a page stale.
+     */
+    private Duration ttl = Duration.ofHours(6);
+
+    /**
+     * How long after a page's categories were fetched they are fetched again in the background, while the cached
+     * categories are still used. Set to {@code 0} to only fetch pages again once they expire.
+     */
+    private Duration refreshAfter = Duration.ofHours(1);
+
+    private final Persistence persistence = new Persistence();
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getRefreshAfter() {
+        return refreshAfter;
+    }
+
+    public void setRefreshAfter(Duration refreshAfter) {
+        this.refreshAfter = refreshAfter;
+    }
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public static class Persistence {
+
+        /**
+         * Whether the cache is written to disk and restored from it after a restart.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The directory that the cache's log is kept in.
+         */
+        private String path = "cache/categories";
+
+        /**
+         * The size of each memory-mapped segment file of the log.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.example.categories;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the names of categories, giving each one an {@code int} id, so that the categories of a page can be kept as
+ * an array of ids. A few categories, such as maintenance categories, are on a large share of all pages, so keeping
+ * every name once instead of once per page is most of the memory that the categories of pages take up.
+ * <p>
+ * Ids are never reused, and names are never removed, so the dictionary grows with the number of distinct categories
+ * that were seen, which is bounded by the number of categories on Wikipedia.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[1024];
+    private int size = 0;
+
+    /**
+     * @param name is the name of a category
+     * @return the id of the category, which is added to the dictionary if it is new
+     */
+    public int id(String name) {
+        Integer id = ids.get(name);
+        if (id != null)
+            return id;
+
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null)
+                return id;
+
+            if (size == names.length)
+                names = Arrays.copyOf(names, size * 2);
+            names[size] = name;
+            ids.put(name, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @param id is the id of a category
+     * @return the name of the category
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param name is the name of a category
+     * @return the id of the category, or {@code -1} if it isn't in the dictionary
+     */
+    public int find(String name) {
+        return ids.getOrDefault(name, -1);
+    }
+
+    /**
+     * @param categories are the names of categories
+     * @return the ids of the categories, in the same order
+     */
+    public int[] encode(Collection<String> categories) {
+        int[] encoded = new int[categories.size()];
+        int i = 0;
+        for (String category : categories)
+            encoded[i++] = id(category);
+        return encoded;
+    }
+
+    /**
+     * Turns the ids of categories back into names. The names are looked up when they are read, so that the names
+     * of a page's categories are only produced once a change is encoded for Kafka.
+     *
+     * @param ids are the ids of categories
+     * @return a read-only list of the names of the categories
+     */
+    public List<String> decode(int[] ids) {
+        return new Names(ids);
+    }
+
+    /**
+     * @return the number of categories in the dictionary
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private class Names extends AbstractList<String> implements RandomAccess {
+
+        private final int[] ids;
+
+        private Names(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return name(ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
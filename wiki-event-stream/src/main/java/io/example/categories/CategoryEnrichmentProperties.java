@@ -0,0 +1,71 @@
+package io.example.categories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures the asynchronous stage that joins recent changes with their categories.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.categories.enrichment")
+public class CategoryEnrichmentProperties {
+
+    /**
+     * The maximum number of batched category lookups that may be in flight at the same time.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Whether joined changes are emitted in the order they arrived, or as soon as their lookup completes. The
+     * checkpoint is the position of the last change that was sent, so when changes are emitted out of order, a
+     * restart would skip the changes of a batch that was overtaken by a later one. The processor refuses to start
+     * with {@code false} for that reason.
+     */
+    private boolean ordered = true;
+
+    /**
+     * How many times the lookup of a batch is retried after it failed, on top of the attempts that are made for
+     * each request to the API. The changes of a batch that still fails are dropped, and counted by the
+     * {@code wiki.categories.lookup.failures} counter.
+     */
+    private int retries = 1;
+
+    /**
+     * The delay before the first retry of a batch, which doubles for every retry after that.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+}
@@ -0,0 +1,44 @@
+package io.example.categories;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the categories that a Wikipedia page currently belongs to.
+ *
+ * @author Kenny Bastani
+ */
+public interface CategoryLookup {
+
+    /**
+     * Fetches the categories of a Wikipedia page using the page's title.
+     *
+     * @param title is the full title of the page
+     * @return the list of categories on the page, or an empty list if none were found
+     */
+    List<String> getCategories(String title);
+
+    /**
+     * Fetches the categories of multiple Wikipedia pages at once. Implementations that talk to the MediaWiki API
+     * should override this to resolve many titles with a single request.
+     *
+     * @param titles are the full titles of the pages
+     * @return a map of every requested title to its list of categories
+     */
+    default Map<String, List<String>> getCategories(Collection<String> titles) {
+        Map<String, List<String>> categories = new HashMap<>();
+        titles.forEach(title -> categories.put(title, getCategories(title)));
+        return categories;
+    }
+
+    /**
+     * Applies a page being added to or removed from a category. Lookups that keep the categories of pages update
+     * them, so that they stay current without being fetched again, and other lookups ignore the change.
+     *
+     * @param change is the {@link CategoryMembershipChange} announced by a {@code categorize} event
+     */
+    default void apply(CategoryMembershipChange change) {
+    }
+}
@@ -0,0 +1,111 @@
+package io.example.categories;
+
+import io.example.index.CategoryIndex;
+import io.example.index.CategoryIndexProperties;
+import io.example.index.IndexedCategoryLookup;
+import io.example.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import okhttp3.HttpUrl;
+import org.fastily.jwiki.core.Wiki;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Configures the chain of {@link CategoryLookup} implementations that are used to join recent changes with the
+ * categories of the page that was changed.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@EnableConfigurationProperties({CategoryApiProperties.class, CategoryCacheProperties.class,
+        CategoryBatchProperties.class, CategoryEnrichmentProperties.class, CategoryIndexProperties.class})
+public class CategoryLookupConfiguration {
+    private static Logger logger = LoggerFactory.getLogger(CategoryLookupConfiguration.class);
+
+    @Bean
+    public Wiki wiki(CategoryApiProperties apiProperties) {
+        return new Wiki.Builder()
+                .withApiEndpoint(HttpUrl.parse(apiProperties.getEndpoint()))
+                .build();
+    }
+
+    @Bean
+    public AdaptiveLimiter apiLimiter(CategoryApiProperties apiProperties, PipelineMetrics metrics) {
+        CategoryApiProperties.Limiter properties = apiProperties.getLimiter();
+        AdaptiveLimiter limiter = new AdaptiveLimiter(properties.getRate(), properties.getBurst(),
+                properties.getInitialConcurrency(), properties.getMinConcurrency(), properties.getMaxConcurrency(),
+                properties.getLatencyTarget());
+        metrics.monitorApiLimiter(limiter);
+        return limiter;
+    }
+
+    @Bean
+    public MediaWikiApi mediaWikiApi(Wiki wiki, AdaptiveLimiter apiLimiter, PipelineMetrics metrics,
+                                     CategoryApiProperties apiProperties) {
+        return new MediaWikiApi(wiki, apiLimiter, metrics, apiProperties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.categories.cache.persistence.enabled", havingValue = "true",
+            matchIfMissing = true)
+    public CategoryCacheLog categoryCacheLog(CategoryCacheProperties cacheProperties) throws IOException {
+        CategoryCacheProperties.Persistence persistence = cacheProperties.getPersistence();
+        return new CategoryCacheLog(Paths.get(persistence.getPath()),
+                Math.toIntExact(persistence.getSegmentSize().toBytes()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.categories.index.enabled", havingValue = "true")
+    public CategoryIndex categoryIndex(CategoryIndexProperties indexProperties) throws IOException {
+        CategoryIndex index = CategoryIndex.open(Paths.get(indexProperties.getPath()));
+        logger.info("Opened the category index with {} pages and {} categories from the dump of {}", index.size(),
+                index.getCategoryCount(), Instant.ofEpochMilli(index.getCreatedAt()));
+        return index;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler categoryRefreshScheduler() {
+        // Stale pages are refreshed, and the cache log is restored, without holding up the lookups
+        return Schedulers.newElastic("category-refresh");
+    }
+
+    @Bean
+    public CategoryLookup categoryLookup(MediaWikiApi mediaWikiApi, CategoryCacheProperties cacheProperties,
+                                         Optional<CategoryCacheLog> cacheLog, Optional<CategoryIndex> categoryIndex,
+                                         @Qualifier("categoryRefreshScheduler") Scheduler refreshScheduler,
+                                         MeterRegistry meterRegistry, PipelineMetrics metrics) {
+        // Only the lookups that miss the cache and reach the MediaWiki API are timed
+        CategoryLookup wikiLookup = new TimedCategoryLookup(new WikiCategoryLookup(mediaWikiApi),
+                metrics.getCategoryLookup());
+
+        // Concurrent misses of the same title share one lookup, since the cache only has the title once it completes
+        CategoryLookup coalescingLookup = new CoalescingCategoryLookup(wikiLookup, metrics.getCategoriesCoalesced());
+
+        // Pages in the index of a dump are answered without the API, which is only asked for pages created since
+        CategoryLookup sourceLookup = categoryIndex
+                .<CategoryLookup>map(index -> new IndexedCategoryLookup(index, coalescingLookup,
+                        metrics.getCategoryIndexHits()))
+                .orElse(coalescingLookup);
+
+        CachingCategoryLookup cachingLookup = new CachingCategoryLookup(sourceLookup, cacheProperties,
+                cacheLog.orElse(null), refreshScheduler::schedule);
+
+        // Exposes the cache's hit, miss, and eviction counters through the actuator metrics endpoint
+        CaffeineCacheMetrics.monitor(meterRegistry, cachingLookup.getCache(), "wiki.categories");
+
+        return cachingLookup;
+    }
+}
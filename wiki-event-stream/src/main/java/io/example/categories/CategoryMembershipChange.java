@@ -0,0 +1,74 @@
+package io.example.categories;
+
+import io.example.schema.page.RecentChange;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A page being added to or removed from a category, as announced by a {@code categorize} event on the recent change
+ * stream. The event is about the category page, and the page that was added or removed is only given as the link at
+ * the start of the event's comment, such as {@code [[:Apache Kafka]] added to category}.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryMembershipChange {
+
+    public static final String CHANGE_TYPE = "categorize";
+
+    // The page link is followed by a link to the transclusions of the page when the change came from a template
+    private static final Pattern COMMENT =
+            Pattern.compile("^\\[\\[:?([^\\]|]+)(?:\\|[^\\]]*)?]] (added to|removed from) category");
+
+    private final String page;
+    private final String category;
+    private final boolean added;
+
+    public CategoryMembershipChange(String page, String category, boolean added) {
+        this.page = page;
+        this.category = category;
+        this.added = added;
+    }
+
+    /**
+     * Reads the membership change from a {@code categorize} event.
+     *
+     * @param recentChange is a recent change of any type
+     * @return the membership change, or an empty result if the change isn't a {@code categorize} event or its
+     * comment doesn't name the page
+     */
+    public static Optional<CategoryMembershipChange> from(RecentChange recentChange) {
+        if (!CHANGE_TYPE.equals(recentChange.getType()) || recentChange.getTitle() == null
+                || recentChange.getComment() == null)
+            return Optional.empty();
+
+        Matcher matcher = COMMENT.matcher(recentChange.getComment());
+        if (!matcher.find())
+            return Optional.empty();
+
+        return Optional.of(new CategoryMembershipChange(matcher.group(1), recentChange.getTitle(),
+                "added to".equals(matcher.group(2))));
+    }
+
+    public String getPage() {
+        return page;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean isAdded() {
+        return added;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryMembershipChange{" +
+                "page='" + page + '\'' +
+                ", category='" + category + '\'' +
+                ", added=" + added +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package io.example.categories;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link CategoryLookup} that makes concurrent lookups of the same title share a single lookup by another lookup.
+ * During edit wars and bot runs, the same page is often edited several times within a few hundred milliseconds, and
+ * the batches that hold those edits are enriched at the same time. The cache in front of this lookup doesn't help
+ * then, because the page was cold until the first lookup of it completes. Instead of asking the MediaWiki API for
+ * the same title again, a lookup waits for the one that is already in flight and gets the same result.
+ * <p>
+ * A batched lookup first fetches all of the titles that no one else is looking up, in one request, and only then
+ * waits for the titles that were in flight, so that two batches waiting on each other can't deadlock.
+ *
+ * @author Kenny Bastani
+ */
+public class CoalescingCategoryLookup implements CategoryLookup {
+
+    private final CategoryLookup delegate;
+    private final Counter coalesced;
+    private final Map<String, CompletableFuture<List<String>>> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingCategoryLookup(CategoryLookup delegate, Counter coalesced) {
+        this.delegate = delegate;
+        this.coalesced = coalesced;
+    }
+
+    @Override
+    public List<String> getCategories(String title) {
+        return getCategories(Collections.singletonList(title)).get(title);
+    }
+
+    @Override
+    public Map<String, List<String>> getCategories(Collection<String> titles) {
+        Map<String, CompletableFuture<List<String>>> owned = new HashMap<>();
+        Map<String, CompletableFuture<List<String>>> joined = new HashMap<>();
+
+        for (String title : new LinkedHashSet<>(titles)) {
+            CompletableFuture<List<String>> lookup = new CompletableFuture<>();
+            CompletableFuture<List<String>> existing = inFlight.putIfAbsent(title, lookup);
+            if (existing == null) {
+                owned.put(title, lookup);
+            } else {
+                joined.put(title, existing);
+            }
+        }
+
+        Map<String, List<String>> categories = new HashMap<>();
+        if (!owned.isEmpty())
+            categories.putAll(lookup(owned));
+
+        if (!joined.isEmpty()) {
+            coalesced.increment(joined.size());
+            joined.forEach((title, lookup) -> categories.put(title, await(lookup)));
+        }
+
+        return categories;
+    }
+
+    /**
+     * Looks up the titles that this caller owns and hands the result to every caller that joined the lookups.
+     */
+    private Map<String, List<String>> lookup(Map<String, CompletableFuture<List<String>>> owned) {
+        try {
+            Map<String, List<String>> categories = delegate.getCategories(new ArrayList<>(owned.keySet()));
+            owned.forEach((title, lookup) -> lookup.complete(categories.getOrDefault(title, List.of())));
+            return categories;
+        } catch (RuntimeException ex) {
+            owned.values().forEach(lookup -> lookup.completeExceptionally(ex));
+            throw ex;
+        } finally {
+            // The next lookup of these titles is a new one, which is either answered by the cache or refetched
+            owned.forEach(inFlight::remove);
+        }
+    }
+
+    private static List<String> await(CompletableFuture<List<String>> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw ex;
+        }
+    }
+}
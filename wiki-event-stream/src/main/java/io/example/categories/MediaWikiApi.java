@@ -0,0 +1,167 @@
+package io.example.categories;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.example.metrics.PipelineMetrics;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.fastily.jwiki.core.Wiki;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes {@code action=query} requests to the MediaWiki API through jwiki's HTTP client, with every request gated by
+ * an {@link AdaptiveLimiter}. Responses with a {@code 429} or {@code 503} status, and {@code maxlag} or
+ * {@code ratelimited} errors, are reported to the limiter as push back, honoring their {@code Retry-After}, and the
+ * request is queued again instead of failing the lookup.
+ *
+ * @author Kenny Bastani
+ */
+public class MediaWikiApi {
+
+    private static Logger logger = LoggerFactory.getLogger(MediaWikiApi.class);
+    private static final Duration DEFAULT_MAXLAG_RETRY = Duration.ofSeconds(5);
+
+    private final Wiki wiki;
+    private final AdaptiveLimiter limiter;
+    private final PipelineMetrics metrics;
+    private final int maxLag;
+    private final int maxAttempts;
+
+    public MediaWikiApi(Wiki wiki, AdaptiveLimiter limiter, PipelineMetrics metrics, CategoryApiProperties properties) {
+        this.wiki = wiki;
+        this.limiter = limiter;
+        this.metrics = metrics;
+        this.maxLag = properties.getMaxLag();
+        this.maxAttempts = properties.getMaxAttempts();
+    }
+
+    /**
+     * Makes a query request, waiting for the limiter and retrying for as long as the API throttles it.
+     *
+     * @param params are the parameters of the query, other than the action and format
+     * @return the JSON body of the response
+     */
+    public JsonObject query(Map<String, String> params) {
+        String[] args = arguments(params);
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                JsonObject body = attempt(args);
+                if (body != null)
+                    return body;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        throw new IllegalStateException("The MediaWiki API throttled a request " + maxAttempts + " times");
+    }
+
+    /**
+     * Makes one request once the limiter allows it, and gives the permit back with the outcome of the request.
+     *
+     * @return the body of the response, or {@code null} if the API throttled the request
+     */
+    private JsonObject attempt(String[] args) throws IOException {
+        AdaptiveLimiter.Permit permit = acquire();
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.FAILURE;
+        Duration retryAfter = null;
+
+        try (Response response = wiki.basicGET("query", args)) {
+            if (response == null)
+                throw new IOException("No response from the MediaWiki API");
+
+            retryAfter = parseRetryAfter(response.header("Retry-After"));
+            if (response.code() == 429 || response.code() == 503) {
+                outcome = Outcome.THROTTLED;
+                return null;
+            }
+            if (!response.isSuccessful())
+                throw new IllegalStateException("The MediaWiki API responded with status " + response.code());
+
+            JsonObject body = parse(response.body());
+            if (body.has("error")) {
+                String code = body.getAsJsonObject("error").get("code").getAsString();
+                if ("maxlag".equals(code) || "ratelimited".equals(code)) {
+                    retryAfter = retryAfter != null ? retryAfter : DEFAULT_MAXLAG_RETRY;
+                    outcome = Outcome.THROTTLED;
+                    return null;
+                }
+                throw new IllegalStateException("The MediaWiki API responded with the error " + code);
+            }
+
+            outcome = Outcome.SUCCESS;
+            return body;
+        } finally {
+            release(permit, outcome, System.nanoTime() - start, retryAfter);
+        }
+    }
+
+    private void release(AdaptiveLimiter.Permit permit, Outcome outcome, long latency, Duration retryAfter) {
+        switch (outcome) {
+            case SUCCESS:
+                limiter.onSuccess(permit, latency);
+                break;
+            case THROTTLED:
+                metrics.getApiThrottled().increment();
+                limiter.onThrottled(permit, retryAfter);
+                logger.debug("The MediaWiki API throttled a request, the limit is now {}", limiter.getLimit());
+                break;
+            default:
+                limiter.onFailure(permit);
+        }
+    }
+
+    private AdaptiveLimiter.Permit acquire() {
+        try {
+            AdaptiveLimiter.Permit permit = limiter.acquire();
+            metrics.getApiQueueWait().record(permit.getWaited(), TimeUnit.NANOSECONDS);
+            return permit;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to call the MediaWiki API", ex);
+        }
+    }
+
+    private String[] arguments(Map<String, String> params) {
+        List<String> args = new ArrayList<>();
+        params.forEach((name, value) -> {
+            args.add(name);
+            args.add(value);
+        });
+        if (maxLag > 0) {
+            args.add("maxlag");
+            args.add(String.valueOf(maxLag));
+        }
+        return args.toArray(new String[0]);
+    }
+
+    private static JsonObject parse(ResponseBody body) throws IOException {
+        if (body == null)
+            throw new IOException("The MediaWiki API responded without a body");
+        return JsonParser.parseString(body.string()).getAsJsonObject();
+    }
+
+    /**
+     * Parses a {@code Retry-After} given in seconds. The HTTP date form isn't used by the MediaWiki API.
+     */
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isEmpty() || !value.chars().allMatch(Character::isDigit))
+            return null;
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private enum Outcome {
+        SUCCESS, THROTTLED, FAILURE
+    }
+}
@@ -0,0 +1,35 @@
+package io.example.categories;
+
+/**
+ * Hashes the title of a page into a 64-bit key, which is how the cache and the category index keep pages without
+ * keeping their titles. With a few million pages, the chance that two titles share a key is around one in a million.
+ *
+ * @author Kenny Bastani
+ */
+public final class PageKey {
+
+    private PageKey() {
+    }
+
+    /**
+     * Hashes a title using FNV-1a followed by the finalizer of MurmurHash3, so that titles that only differ in their
+     * last characters are spread over the whole range.
+     *
+     * @param title is the full title of the page
+     * @return the key of the page
+     */
+    public static long of(String title) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < title.length(); i++) {
+            hash ^= title.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
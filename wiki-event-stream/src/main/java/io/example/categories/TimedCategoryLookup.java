@@ -0,0 +1,33 @@
+package io.example.categories;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CategoryLookup} that records the latency of every lookup that is made by another lookup.
+ *
+ * @author Kenny Bastani
+ */
+public class TimedCategoryLookup implements CategoryLookup {
+
+    private final CategoryLookup delegate;
+    private final Timer timer;
+
+    public TimedCategoryLookup(CategoryLookup delegate, Timer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public List<String> getCategories(String title) {
+        return timer.record(() -> delegate.getCategories(title));
+    }
+
+    @Override
+    public Map<String, List<String>> getCategories(Collection<String> titles) {
+        return timer.record(() -> delegate.getCategories(titles));
+    }
+}
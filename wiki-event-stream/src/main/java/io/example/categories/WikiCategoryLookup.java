@@ -0,0 +1,108 @@
+package io.example.categories;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CategoryLookup} that fetches the categories of pages directly from the MediaWiki API. Titles are looked
+ * up 50 at a time, which is the most that the API accepts in one request, and each request goes through the
+ * {@link MediaWikiApi}, so that lookups are throttled to what the API allows.
+ *
+ * @author Kenny Bastani
+ */
+public class WikiCategoryLookup implements CategoryLookup {
+
+    private static final int MAX_TITLES = 50;
+
+    private final MediaWikiApi api;
+
+    public WikiCategoryLookup(MediaWikiApi api) {
+        this.api = api;
+    }
+
+    @Override
+    public List<String> getCategories(String title) {
+        return getCategories(List.of(title)).get(title);
+    }
+
+    /**
+     * Fetches the categories for many titles using multi-title queries of up to 50 titles each, following the
+     * continuations of pages that have more categories than fit in one response.
+     */
+    @Override
+    public Map<String, List<String>> getCategories(Collection<String> titles) {
+        Map<String, List<String>> categories = new HashMap<>();
+        List<String> chunk = new ArrayList<>(MAX_TITLES);
+        for (String title : titles) {
+            chunk.add(title);
+            if (chunk.size() == MAX_TITLES) {
+                lookup(chunk, categories);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            lookup(chunk, categories);
+
+        // Pages that were not returned by the API have no categories, the same as a single title lookup
+        titles.forEach(title -> categories.putIfAbsent(title, Collections.emptyList()));
+
+        return categories;
+    }
+
+    private void lookup(List<String> titles, Map<String, List<String>> categories) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("prop", "categories");
+        params.put("cllimit", "max");
+        params.put("titles", String.join("|", titles));
+
+        while (true) {
+            JsonObject body = api.query(params);
+            JsonObject query = body.getAsJsonObject("query");
+            if (query != null)
+                readPages(query, categories);
+
+            JsonObject next = body.getAsJsonObject("continue");
+            if (next == null)
+                return;
+            next.entrySet().forEach(entry -> params.put(entry.getKey(), entry.getValue().getAsString()));
+        }
+    }
+
+    private static void readPages(JsonObject query, Map<String, List<String>> categories) {
+        // The API normalizes titles, such as capitalizing the first letter, so map them back to the requested titles
+        Map<String, String> requested = new HashMap<>();
+        JsonArray normalized = query.getAsJsonArray("normalized");
+        if (normalized != null) {
+            for (JsonElement element : normalized) {
+                JsonObject normalization = element.getAsJsonObject();
+                requested.put(normalization.get("to").getAsString(), normalization.get("from").getAsString());
+            }
+        }
+
+        JsonObject pages = query.getAsJsonObject("pages");
+        if (pages == null)
+            return;
+
+        for (Map.Entry<String, JsonElement> entry : pages.entrySet()) {
+            JsonObject page = entry.getValue().getAsJsonObject();
+            String title = page.get("title").getAsString();
+            List<String> pageCategories = categories.computeIfAbsent(requested.getOrDefault(title, title),
+                    key -> new ArrayList<>());
+
+            JsonArray pageCategoryArray = page.getAsJsonArray("categories");
+            if (pageCategoryArray != null) {
+                for (JsonElement category : pageCategoryArray)
+                    pageCategories.add(category.getAsJsonObject().get("title").getAsString());
+            }
+        }
+    }
+}
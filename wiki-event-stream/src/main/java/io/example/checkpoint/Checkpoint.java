@@ -0,0 +1,66 @@
+package io.example.checkpoint;
+
+import java.util.Objects;
+
+/**
+ * The position in the Wikimedia recent change stream that the processor can resume from after a restart.
+ *
+ * @author Kenny Bastani
+ */
+public class Checkpoint {
+
+    private String lastEventId;
+    private Long offset;
+
+    public Checkpoint() {
+    }
+
+    public Checkpoint(String lastEventId, Long offset) {
+        this.lastEventId = lastEventId;
+        this.offset = offset;
+    }
+
+    /**
+     * The raw id of the last server-sent event that was received, which is sent back as the Last-Event-Id header.
+     */
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    public void setLastEventId(String lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    /**
+     * The epoch millis of the last recent change that was processed, which is used when there is no event id.
+     */
+    public Long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Checkpoint that = (Checkpoint) o;
+        return Objects.equals(lastEventId, that.lastEventId) &&
+                Objects.equals(offset, that.offset);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastEventId, offset);
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint{" +
+                "lastEventId='" + lastEventId + '\'' +
+                ", offset=" + offset +
+                '}';
+    }
+}
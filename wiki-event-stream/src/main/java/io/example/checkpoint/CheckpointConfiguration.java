@@ -0,0 +1,30 @@
+package io.example.checkpoint;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Configures the {@link CheckpointStore} that is selected with the {@code wiki.checkpoint.store} property.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@EnableConfigurationProperties(CheckpointProperties.class)
+public class CheckpointConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.checkpoint.store", havingValue = "file", matchIfMissing = true)
+    public CheckpointStore fileCheckpointStore(CheckpointProperties properties) {
+        return new FileCheckpointStore(Paths.get(properties.getFile().getPath()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.checkpoint.store", havingValue = "kafka")
+    public CheckpointStore kafkaCheckpointStore(CheckpointProperties properties) {
+        return new KafkaCheckpointStore(properties.getKafka(), properties.getKey());
+    }
+}
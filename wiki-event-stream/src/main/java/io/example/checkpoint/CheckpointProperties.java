@@ -0,0 +1,108 @@
+package io.example.checkpoint;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configures where the recent change processor checkpoints its position in the Wikimedia change stream.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.checkpoint")
+public class CheckpointProperties {
+
+    /**
+     * The store that checkpoints are saved to, which is either {@code file} or {@code kafka}.
+     */
+    private String store = "file";
+
+    /**
+     * The key that identifies this processor's checkpoint.
+     */
+    private String key = "wiki-ingest-service";
+
+    private final File file = new File();
+
+    private final Kafka kafka = new Kafka();
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Kafka getKafka() {
+        return kafka;
+    }
+
+    public static class File {
+
+        /**
+         * The path of the local file that the checkpoint is written to.
+         */
+        private String path = "checkpoint.json";
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+
+    public static class Kafka {
+
+        /**
+         * The Kafka brokers that host the checkpoint topic.
+         */
+        private String brokers = "localhost:9092";
+
+        /**
+         * The compacted topic that checkpoints are written to.
+         */
+        private String topic = "wiki-ingest-checkpoints";
+
+        /**
+         * The replication factor used when the checkpoint topic has to be created.
+         */
+        private short replicationFactor = 1;
+
+        public String getBrokers() {
+            return brokers;
+        }
+
+        public void setBrokers(String brokers) {
+            this.brokers = brokers;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        public short getReplicationFactor() {
+            return replicationFactor;
+        }
+
+        public void setReplicationFactor(short replicationFactor) {
+            this.replicationFactor = replicationFactor;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.example.checkpoint;
+
+import java.util.Optional;
+
+/**
+ * Durably stores the {@link Checkpoint} of the recent change processor, so that a restart resumes the stream where
+ * it left off instead of replaying the last day of changes.
+ *
+ * @author Kenny Bastani
+ */
+public interface CheckpointStore {
+
+    /**
+     * Loads the last checkpoint that was saved.
+     *
+     * @return the last {@link Checkpoint}, or an empty optional if no checkpoint has been saved yet
+     */
+    Optional<Checkpoint> load();
+
+    /**
+     * Saves a checkpoint, replacing the checkpoint that was saved before it.
+     *
+     * @param checkpoint is the {@link Checkpoint} to save
+     */
+    void save(Checkpoint checkpoint);
+}
@@ -0,0 +1,53 @@
+package io.example.checkpoint;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * A {@link CheckpointStore} that keeps the checkpoint in a local JSON file, which is meant for development. The file
+ * is replaced atomically, so a crash while saving never leaves a partially written checkpoint behind.
+ *
+ * @author Kenny Bastani
+ */
+public class FileCheckpointStore implements CheckpointStore {
+
+    private final Gson gson = new Gson();
+    private final Path path;
+
+    public FileCheckpointStore(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public Optional<Checkpoint> load() {
+        if (!Files.exists(path))
+            return Optional.empty();
+
+        try {
+            String json = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            return Optional.ofNullable(gson.fromJson(json, Checkpoint.class));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read the checkpoint file " + path, ex);
+        }
+    }
+
+    @Override
+    public void save(Checkpoint checkpoint) {
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            Files.write(temp, gson.toJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to write the checkpoint file " + path, ex);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.example.checkpoint;
+
+import com.google.gson.Gson;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link CheckpointStore} that keeps the checkpoint in a compacted Kafka topic, which is meant for production.
+ * Each processor writes its checkpoint under its own key, and log compaction keeps only the latest checkpoint for
+ * each key. Loading a checkpoint reads the topic from the beginning up to its end offsets and keeps the last value
+ * that was written for the key.
+ *
+ * @author Kenny Bastani
+ */
+public class KafkaCheckpointStore implements CheckpointStore, AutoCloseable {
+    private static Logger logger = LoggerFactory.getLogger(KafkaCheckpointStore.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final Gson gson = new Gson();
+    private final CheckpointProperties.Kafka properties;
+    private final String key;
+    private KafkaProducer<String, String> producer;
+
+    public KafkaCheckpointStore(CheckpointProperties.Kafka properties, String key) {
+        this.properties = properties;
+        this.key = key;
+    }
+
+    @Override
+    public Optional<Checkpoint> load() {
+        createTopicIfMissing();
+
+        Properties config = new Properties();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBrokers());
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(config, new StringDeserializer(),
+                new StringDeserializer())) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(properties.getTopic(), TIMEOUT);
+            List<TopicPartition> partitions = partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .collect(Collectors.toList());
+
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions, TIMEOUT);
+
+            String value = null;
+            while (!reachedEnd(consumer, endOffsets)) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    if (key.equals(record.key()))
+                        value = record.value();
+                }
+            }
+
+            return Optional.ofNullable(value).map(json -> gson.fromJson(json, Checkpoint.class));
+        }
+    }
+
+    @Override
+    public synchronized void save(Checkpoint checkpoint) {
+        if (producer == null) {
+            Properties config = new Properties();
+            config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBrokers());
+            config.put(ProducerConfig.ACKS_CONFIG, "all");
+            producer = new KafkaProducer<>(config, new StringSerializer(), new StringSerializer());
+        }
+
+        try {
+            producer.send(new ProducerRecord<>(properties.getTopic(), key, gson.toJson(checkpoint)))
+                    .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception ex) {
+            throw new RuntimeException("Unable to write the checkpoint to Kafka", ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (producer != null)
+            producer.close(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private boolean reachedEnd(KafkaConsumer<String, String> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+    }
+
+    private void createTopicIfMissing() {
+        Properties config = new Properties();
+        config.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBrokers());
+
+        try (AdminClient adminClient = AdminClient.create(config)) {
+            NewTopic topic = new NewTopic(properties.getTopic(), 1, properties.getReplicationFactor())
+                    .configs(Collections.singletonMap(TopicConfig.CLEANUP_POLICY_CONFIG,
+                            TopicConfig.CLEANUP_POLICY_COMPACT));
+            adminClient.createTopics(Collections.singleton(topic)).all().get();
+            logger.info("Created the compacted checkpoint topic {}", properties.getTopic());
+        } catch (ExecutionException ex) {
+            if (!(ex.getCause() instanceof TopicExistsException))
+                throw new RuntimeException("Unable to create the checkpoint topic", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+}
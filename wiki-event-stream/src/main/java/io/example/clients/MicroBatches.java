@@ -0,0 +1,54 @@
+package io.example.clients;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gathers a stream into micro-batches of up to a maximum size, where no element waits longer than a maximum time
+ * for its batch to be emitted. This does the same as {@link Flux#bufferTimeout(int, Duration)}, except that it
+ * respects backpressure. A {@code bufferTimeout} emits a partial batch when its timer fires, whether or not a batch
+ * was requested, which fails the stream with an overflow when the stage after it is busy, such as while catching
+ * up on a backlog. Here the timer only inserts a flush marker into the stream, markers that nobody has asked for
+ * are dropped, and a batch is only ever emitted in place of an item that was requested.
+ *
+ * @author Kenny Bastani
+ */
+public final class MicroBatches {
+
+    private static final Object FLUSH = new Object();
+
+    private MicroBatches() {
+    }
+
+    /**
+     * @param source  is the stream to gather into batches
+     * @param maxSize is the largest number of elements in a batch
+     * @param maxWait is the longest time that an element waits for its batch to be emitted
+     * @param <T>     is the type of the elements
+     * @return a stream of the non-empty batches, in the order of the source
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Flux<List<T>> of(Flux<T> source, int maxSize, Duration maxWait) {
+        return Flux.defer(() -> {
+            List<T> pending = new ArrayList<>(maxSize);
+            Flux<Object> items = source.publish(shared -> Flux.merge(shared, Flux.interval(maxWait)
+                    .onBackpressureDrop()
+                    .map(tick -> FLUSH)
+                    .takeUntilOther(shared.ignoreElements())));
+
+            // Emits at most one batch for each item, so that a batch is only emitted when one was requested
+            return items.<List<T>>handle((item, sink) -> {
+                if (item != FLUSH)
+                    pending.add((T) item);
+                if (pending.size() >= maxSize || (item == FLUSH && !pending.isEmpty())) {
+                    sink.next(new ArrayList<>(pending));
+                    pending.clear();
+                }
+            }).concatWith(Mono.fromCallable(() -> pending.isEmpty() ? null : new ArrayList<>(pending)));
+        });
+    }
+}
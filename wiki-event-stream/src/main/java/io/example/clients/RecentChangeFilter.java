@@ -0,0 +1,35 @@
+package io.example.clients;
+
+import io.example.schema.page.RecentChange;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Filters decoded recent changes down to the changes of a single wiki that are of one of the given change types.
+ * This is the full filter that is applied after the {@link RecentChangePreFilter} has let an event through.
+ *
+ * @author Kenny Bastani
+ */
+public class RecentChangeFilter implements Predicate<RecentChange> {
+
+    private final String wiki;
+    private final List<String> types;
+
+    public RecentChangeFilter(String wiki, String... types) {
+        this.wiki = wiki;
+        this.types = Arrays.asList(types);
+    }
+
+    /**
+     * Tests whether a recent change belongs to the wiki and is one of the change types of this filter.
+     *
+     * @param recentChange is the decoded recent change event from Wikipedia
+     * @return true if the change should be joined with its categories
+     */
+    @Override
+    public boolean test(RecentChange recentChange) {
+        return wiki.equals(recentChange.getWiki()) && types.contains(recentChange.getType());
+    }
+}
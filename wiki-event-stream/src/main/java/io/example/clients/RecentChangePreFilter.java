@@ -0,0 +1,74 @@
+package io.example.clients;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A cheap pre-filter that inspects the raw JSON payload of a recent change event before it is decoded. Most of the
+ * events on the Wikimedia stream are for other wikis or are not edits, so instead of decoding every event only to
+ * throw it away, the payload is scanned for the {@code wiki} and {@code type} properties and events that cannot
+ * match are dropped without building any objects.
+ * <p>
+ * The scan is conservative. A property name inside of a JSON string value is always escaped, so an unescaped
+ * {@code "wiki":} can only be a property. When a property occurs more than once, such as in nested log parameters,
+ * the event is kept if any of the occurrences match. Events that pass the pre-filter are still checked by the full
+ * filter after they are decoded.
+ *
+ * @author Kenny Bastani
+ */
+public class RecentChangePreFilter {
+
+    private static final String WIKI_PROPERTY = "\"wiki\"";
+    private static final String TYPE_PROPERTY = "\"type\"";
+
+    private final String wiki;
+    private final List<String> types;
+
+    public RecentChangePreFilter(String wiki, String... types) {
+        this.wiki = wiki;
+        this.types = Arrays.asList(types);
+    }
+
+    /**
+     * Tests whether the raw payload of an event could match the wiki and change types of this filter.
+     *
+     * @param data is the raw JSON payload of the server-sent event
+     * @return true if the event should be decoded, or false if it can be dropped
+     */
+    public boolean test(String data) {
+        if (data == null || !hasProperty(data, WIKI_PROPERTY, wiki))
+            return false;
+
+        for (String type : types) {
+            if (hasProperty(data, TYPE_PROPERTY, type))
+                return true;
+        }
+
+        return false;
+    }
+
+    private static boolean hasProperty(String data, String property, String value) {
+        int from = 0;
+        int index;
+        while ((index = data.indexOf(property, from)) >= 0) {
+            from = index + property.length();
+            int position = skipWhitespace(data, from);
+            if (position >= data.length() || data.charAt(position) != ':')
+                continue;
+
+            position = skipWhitespace(data, position + 1);
+            if (position < data.length() && data.charAt(position) == '"'
+                    && data.startsWith(value, position + 1)
+                    && data.startsWith("\"", position + 1 + value.length()))
+                return true;
+        }
+
+        return false;
+    }
+
+    private static int skipWhitespace(String data, int position) {
+        while (position < data.length() && Character.isWhitespace(data.charAt(position)))
+            position++;
+        return position;
+    }
+}
@@ -1,26 +1,47 @@
 package io.example.clients;
 
-import com.google.gson.Gson;
-import io.example.schema.KafkaEvent;
-import io.example.schema.category.CategoryChange;
+import io.example.buffer.BoundedBuffer;
+import io.example.buffer.BufferProperties;
+import io.example.categories.CategoryBatchProperties;
+import io.example.categories.CategoryEnrichmentProperties;
+import io.example.categories.CategoryLookup;
+import io.example.categories.CategoryMembershipChange;
+import io.example.checkpoint.Checkpoint;
+import io.example.checkpoint.CheckpointStore;
+import io.example.metrics.PipelineMetrics;
+import io.example.output.CategoryDiffTracker;
+import io.example.output.ChangeEncoder;
+import io.example.schema.category.CategorizedChange;
 import io.example.schema.page.RecentChange;
-import org.fastily.jwiki.core.Wiki;
+import io.example.schema.page.RecentChangeDecoder;
+import io.example.stream.ReconnectBackoff;
+import io.example.stream.WikiStreamClient;
+import io.example.stream.WikiStreamProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.stream.messaging.Source;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.DirectProcessor;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxProcessor;
-import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This processor receives Wikimedia change events that describe recent changes as they are happening live on Wikipedia.
@@ -30,19 +51,66 @@ import java.util.Date;
 @Component
 public class RecentChangeProcessor {
     private static Logger logger = LoggerFactory.getLogger(RecentChangeProcessor.class);
-    private static final String STREAM_HOST = "https://stream.wikimedia.org";
-    private static final String STREAM_URI = "/v2/stream/recentchange";
-    private FluxProcessor<CategoryChange, CategoryChange> categoryProcessor;
-    private FluxSink<CategoryChange> categorySink;
+    private static final String WIKI = "enwiki";
+    private static final String CHANGE_TYPE = "edit";
+    private static final long LOG_SAMPLE_RATE = 1000L;
+    private final BoundedBuffer<CategorizedChange> categoryBuffer;
     private final Source messageBroker;
+    private final WikiStreamClient streamClient;
+    private final ReconnectBackoff reconnectBackoff;
     private boolean running = false;
-    private final Gson gson = new Gson();
-    private final Wiki wiki = new Wiki.Builder().build();
-    private Long offset;
-    private KafkaEvent[] lastEventId;
+    private final RecentChangeDecoder decoder = new RecentChangeDecoder();
+    private final RecentChangePreFilter preFilter = new RecentChangePreFilter(WIKI, CHANGE_TYPE,
+            CategoryMembershipChange.CHANGE_TYPE);
+    private final RecentChangeFilter filter = new RecentChangeFilter(WIKI, CHANGE_TYPE);
+    private final CategoryLookup categoryLookup;
+    private final CategoryBatchProperties batchProperties;
+    private final CategoryEnrichmentProperties enrichmentProperties;
+    private Scheduler lookupScheduler;
+    private Scheduler senderScheduler;
+    private final PipelineMetrics metrics;
+    private final CheckpointStore checkpointStore;
+    private final ChangeEncoder changeEncoder;
+    private final CategoryDiffTracker diffTracker;
+    private final Duration drainTimeout;
+    private Checkpoint lastCheckpoint;
+    private volatile Checkpoint sentPosition;
+    private volatile Checkpoint bufferedPosition;
+    private volatile Long offset;
+    private volatile String lastEventId;
+    private Disposable streamSubscription;
+    private Disposable senderSubscription;
+    private final AtomicBoolean connected = new AtomicBoolean(false);
+    private long sentCount = 0L;
 
-    public RecentChangeProcessor(Source messageBroker) {
+    public RecentChangeProcessor(Source messageBroker, WikiStreamClient streamClient,
+                                 WikiStreamProperties streamProperties, CategoryLookup categoryLookup,
+                                 CategoryBatchProperties batchProperties,
+                                 CategoryEnrichmentProperties enrichmentProperties,
+                                 PipelineMetrics metrics,
+                                 CheckpointStore checkpointStore,
+                                 BoundedBuffer<CategorizedChange> categoryBuffer,
+                                 BufferProperties bufferProperties,
+                                 ChangeEncoder changeEncoder,
+                                 Optional<CategoryDiffTracker> diffTracker) {
         this.messageBroker = messageBroker;
+        this.streamClient = streamClient;
+        WikiStreamProperties.Reconnect reconnect = streamProperties.getReconnect();
+        this.reconnectBackoff = new ReconnectBackoff(reconnect.getFirstBackoff(), reconnect.getMaxBackoff(),
+                reconnect.getJitter());
+        // A batch that overtook an earlier one would move the checkpoint past changes that were never sent
+        if (!enrichmentProperties.isOrdered())
+            throw new IllegalStateException("Checkpoints require wiki.categories.enrichment.ordered=true");
+
+        this.categoryLookup = categoryLookup;
+        this.batchProperties = batchProperties;
+        this.enrichmentProperties = enrichmentProperties;
+        this.metrics = metrics;
+        this.checkpointStore = checkpointStore;
+        this.categoryBuffer = categoryBuffer;
+        this.drainTimeout = bufferProperties.getDrainTimeout();
+        this.changeEncoder = changeEncoder;
+        this.diffTracker = diffTracker.orElse(null);
         this.offset = new Date().toInstant().atOffset(ZoneOffset.UTC).minusDays(1).toInstant().toEpochMilli();
     }
 
@@ -55,25 +123,28 @@ public class RecentChangeProcessor {
     public void start() {
         if (!running) {
             running = true;
+            lookupScheduler = Schedulers.newElastic("category-lookup");
+            senderScheduler = Schedulers.newSingle("kafka-sender");
 
-            // Initialize the join processor which will decorate recent change events with their joined category
-            this.categoryProcessor = DirectProcessor.<CategoryChange>create().serialize();
-            this.categorySink = categoryProcessor.sink();
-
-            // Fetch the reactive change stream that is ready for subscription
-            Flux<RecentChange> changeStream = getRecentChangeStream();
+            // Resume from the last checkpoint, so that a restart doesn't replay the last day of changes
+            restoreCheckpoint();
 
-            // When an error occurs, the stream client should re-establish the connection to the SSE API
-            changeStream.onErrorResume(throwable -> getRecentChangeStream())
-                    .retryBackoff(Integer.MAX_VALUE, Duration.ofMillis(300))
+            // The connection to the SSE API is re-established by the stream itself, and failed category lookups are
+            // handled for each batch, so an error that reaches this subscription is unexpected. The batches that
+            // were in flight are dropped with it, so the stream is resumed after the last change that was buffered.
+            streamSubscription = getRecentChangeStream()
+                    .doOnError(throwable -> resumeFromBuffered())
+                    .retryWhen(reconnectBackoff::retries)
                     .subscribe();
 
-            // Subscriptions are non-blocking, so here we start a second subscription that is listening for joins
-            // that are being emitted from the first subscription, before sinking them into Kafka
-            categoryProcessor.log()
+            // Subscriptions are non-blocking, so here we start a second subscription on its own thread that takes
+            // the joins that the first subscription puts into the bounded buffer, before sinking them into Kafka
+            senderSubscription = Flux.generate(this::takeFromBuffer)
+                    .subscribeOn(senderScheduler)
+                    .doOnNext(this::processEvent)
                     .doOnError(throwable -> logger.error("Error when sending events to Kafka", throwable))
-                    .retryBackoff(Integer.MAX_VALUE, Duration.ofMillis(300))
-                    .subscribe(this::processEvent);
+                    .retryBackoff(Long.MAX_VALUE, Duration.ofMillis(300), Duration.ofSeconds(10))
+                    .subscribe();
         } else {
             throw new RuntimeException("The wiki stream replicator is already running...");
         }
@@ -82,27 +153,127 @@ public class RecentChangeProcessor {
     /**
      * Fetches a reactive stream of recent changes that are happening live on Wikipedia. Logs errors if there is an
      * issue connecting to the Wikimedia change stream API. Filters out all changes that are not applicable to
-     * being joined with categories, and also filters to only edits and english version of Wikipedia. Finally, it
-     * joins multiple categories for each change and emits new events to be processed by a different reactive stream.
+     * being joined with categories, and also filters to only edits and english version of Wikipedia. Most events are
+     * rejected by a pre-filter on their raw payload, so that only the candidates are fully decoded. The
+     * {@code categorize} events are applied to the categories of pages that are already known. The remaining
+     * changes are gathered into micro-batches, so that the categories for an entire batch can be fetched using a
+     * single multi-title request. Finally, it joins multiple categories for each change and emits new events to be
+     * processed by a different reactive stream. When category diffs are enabled, the joined categories are reduced to
+     * only the categories that were added to or removed from the page since its last edit.
      *
-     * @return a Flux of {@link RecentChange}
+     * @return a Flux of the {@link CategorizedChange} events that were joined for each batch of recent changes
      */
-    private Flux<RecentChange> getRecentChangeStream() {
+    private Flux<List<CategorizedChange>> getRecentChangeStream() {
         // Get the reactive SSE stream for recent Wikipedia changes
         Flux<ServerSentEvent<String>> eventStream = getWikiStreamClient();
 
-        return eventStream.onErrorResume(throwable -> getWikiStreamClient())
-                .timeout(Duration.ofMillis(5000L))
-                .retryBackoff(Integer.MAX_VALUE, Duration.ofMillis(300))
-                .map(event -> {
-                    lastEventId = gson.fromJson(event.id(), KafkaEvent[].class);
-                    return gson.fromJson(event.data(), RecentChange.class);
+        return eventStream
+                .doOnNext(event -> {
+                    metrics.getEventsReceived().increment();
+
+                    // Receiving events proves that the connection is healthy, so the next reconnect starts over
+                    reconnectBackoff.reset();
+
+                    // The event id is kept raw, since it is only ever sent back as-is when reconnecting. Heartbeat
+                    // comments don't have an id, and must not clear the position in the stream.
+                    if (event.id() != null)
+                        lastEventId = event.id();
                 })
-                .filter(this::applyFilter)
-                .doOnNext(this::joinCategories)
+                .filter(this::applyPreFilter)
+                .handle(this::decode)
+                .filter(change -> applyMembershipChange(change.getRecentChange()))
+                .filter(change -> applyFilter(change.getRecentChange()))
+                .handle(this::applyOffset)
+                .transform(changes -> MicroBatches.of(changes, batchProperties.getMaxSize(),
+                        batchProperties.getMaxWait()))
+                .transform(this::enrichChanges)
+                .map(this::diffCategories)
+                .doOnNext(this::offerToBuffer)
                 .doOnError(throwable -> logger.error("Error receiving SSE", throwable));
     }
 
+    /**
+     * Drops events whose raw payload shows that they can't be english edits, before they are decoded.
+     *
+     * @param event is the server-sent event from the Wikimedia change stream
+     * @return a boolean value indicating whether or not the event should be decoded
+     */
+    private boolean applyPreFilter(ServerSentEvent<String> event) {
+        if (preFilter.test(event.data())) {
+            metrics.getEventsDecoded().increment();
+            return true;
+        }
+
+        metrics.getEventsPreFiltered().increment();
+        return false;
+    }
+
+    /**
+     * Decodes the payload of an event that passed the pre-filter. An event that can't be decoded is dropped rather
+     * than failing the stream, since the stream would otherwise be resumed before it and fail on it again.
+     *
+     * @param event is the server-sent event from the Wikimedia change stream
+     * @param sink  is the sink that the decoded {@link CategorizedChange} is emitted to
+     */
+    private void decode(ServerSentEvent<String> event, SynchronousSink<CategorizedChange> sink) {
+        RecentChange recentChange;
+        try {
+            recentChange = decoder.decode(event.data());
+        } catch (RuntimeException ex) {
+            dropMalformed(event.id(), ex);
+            return;
+        }
+        sink.next(new CategorizedChange(recentChange, event.id(), null));
+    }
+
+    /**
+     * Sets the offset of a change from the time of the event, which is the position the stream is resumed from when
+     * there is no event id. A change without an event time is dropped, since it has no position in the stream.
+     *
+     * @param change is the decoded change
+     * @param sink   is the sink that the change is emitted to if it has an event time
+     */
+    private void applyOffset(CategorizedChange change, SynchronousSink<CategorizedChange> sink) {
+        RecentChange recentChange = change.getRecentChange();
+        if (recentChange.getMeta() == null || recentChange.getMeta().getDt() == null) {
+            dropMalformed(change.getEventId(), new IllegalArgumentException("The event has no meta.dt"));
+            return;
+        }
+
+        change.setOffset(recentChange.getMeta().getDt().getTime());
+        this.offset = change.getOffset();
+        sink.next(change);
+    }
+
+    /**
+     * Counts an event that was dropped because it was malformed, and logs a sample of them.
+     */
+    private void dropMalformed(String eventId, Exception ex) {
+        metrics.getEventsMalformed().increment();
+        if ((long) metrics.getEventsMalformed().count() % LOG_SAMPLE_RATE == 1L)
+            logger.warn("Dropped a malformed event with id {}, {} were dropped so far", eventId,
+                    (long) metrics.getEventsMalformed().count(), ex);
+    }
+
+    /**
+     * Applies the {@code categorize} events of english Wikipedia to the categories of pages that are already known,
+     * so that later edits to those pages are joined with their current categories without asking the API again.
+     *
+     * @param recentChange is the recent change event from Wikipedia
+     * @return false if the change was a {@code categorize} event, which isn't joined with categories itself
+     */
+    private boolean applyMembershipChange(RecentChange recentChange) {
+        if (!WIKI.equals(recentChange.getWiki())
+                || !CategoryMembershipChange.CHANGE_TYPE.equals(recentChange.getType()))
+            return true;
+
+        CategoryMembershipChange.from(recentChange).ifPresent(change -> {
+            categoryLookup.apply(change);
+            metrics.getMembershipChanges().increment();
+        });
+        return false;
+    }
+
     /**
      * Filters out Wikipedia changes that aren't english and excludes any changes that are not edits to articles.
      *
@@ -110,70 +281,289 @@ public class RecentChangeProcessor {
      * @return a boolean value indicating whether or not to filter out the recent change
      */
     private boolean applyFilter(RecentChange recentChange) {
-        return recentChange.getWiki().equals("enwiki") &&
-                recentChange.getType().equals("edit");
+        if (filter.test(recentChange))
+            return true;
+
+        metrics.getEventsFiltered().increment();
+        return false;
+    }
+
+    /**
+     * Joins batches of recent changes with their categories off of the Netty event loop. Category lookups are
+     * blocking calls to the MediaWiki API, so each batch is looked up on a dedicated scheduler with a bounded number
+     * of lookups in flight at the same time. The joined batches are emitted in the same order that the changes
+     * arrived, so that the position of the last change that was sent is a safe checkpoint.
+     *
+     * @param batches is the stream of batches of {@link CategorizedChange} that should be joined with their categories
+     * @return a Flux of the {@link CategorizedChange} events that were joined for each batch
+     */
+    private Flux<List<CategorizedChange>> enrichChanges(Flux<List<CategorizedChange>> batches) {
+        return batches.flatMapSequential(this::joinCategoriesAsync, enrichmentProperties.getConcurrency());
+    }
+
+    /**
+     * Joins a batch of changes with their categories on the lookup scheduler. A lookup that fails after the retries
+     * of the API client is retried for the whole batch with a backoff. If it still fails, the changes of the batch
+     * are passed on without categories, which sends no records for them, so that one failed batch doesn't fail
+     * the stream and drop every other batch that is in flight.
+     *
+     * @param changes is the batch of {@link CategorizedChange} that should be joined with their categories
+     * @return the batch, joined with its categories unless the lookup failed
+     */
+    private Mono<List<CategorizedChange>> joinCategoriesAsync(List<CategorizedChange> changes) {
+        return Mono.fromCallable(() -> joinCategories(changes))
+                .subscribeOn(lookupScheduler)
+                .retryBackoff(enrichmentProperties.getRetries(), enrichmentProperties.getRetryBackoff())
+                .onErrorResume(throwable -> {
+                    logger.warn("Dropping {} changes, since the lookup of their categories failed", changes.size(),
+                            throwable);
+                    metrics.getCategoryLookupFailures().increment(changes.size());
+                    changes.forEach(change -> change.setCategories(null));
+                    return Mono.just(changes);
+                });
+    }
+
+    /**
+     * This method decorates a batch of {@link RecentChange} events from Wikipedia with categories that are fetched
+     * from Wikipedia's API. The articles' categories are fetched using the edited pages' titles with one multi-title
+     * lookup for the whole batch, and are served from a cache when the same page was recently edited. Finally,
+     * the decorated change events are returned in the order the changes arrived, so that they can be emitted to a
+     * new subscriber that will persist them to Kafka.
+     *
+     * @param changes is the batch of {@link CategorizedChange} that should be joined with their categories
+     * @return the {@link CategorizedChange} events for the batch, joined with their categories
+     */
+    private List<CategorizedChange> joinCategories(List<CategorizedChange> changes) {
+        Set<String> titles = new LinkedHashSet<>();
+        changes.forEach(change -> titles.add(change.getRecentChange().getTitle()));
+        Map<String, List<String>> categories = categoryLookup.getCategories(titles);
+
+        for (CategorizedChange change : changes) {
+            List<String> pageCategories = categories.getOrDefault(change.getRecentChange().getTitle(), List.of());
+            metrics.getCategoriesPerChange().record(pageCategories.size());
+            change.setCategories(pageCategories);
+        }
+
+        return changes;
+    }
+
+    /**
+     * Reduces the categories of each change to the categories that were added or removed since the last known edit
+     * to the page, if category diffs are enabled. Changes that didn't change the page's categories are dropped.
+     *
+     * @param categorizedChanges are the changes joined with the page's current categories
+     * @return the changes joined with their category diffs, or the changes as-is if diffs are disabled
+     */
+    private List<CategorizedChange> diffCategories(List<CategorizedChange> categorizedChanges) {
+        if (diffTracker == null)
+            return categorizedChanges;
+
+        List<CategorizedChange> diffs = new ArrayList<>(categorizedChanges.size());
+        for (CategorizedChange categorizedChange : categorizedChanges) {
+            // A change whose lookup failed must not be taken as the removal of all of the page's categories
+            if (categorizedChange.getCategories() == null) {
+                diffs.add(categorizedChange);
+                continue;
+            }
+
+            CategorizedChange diff = diffTracker.diff(categorizedChange);
+            if (!diff.getCategories().isEmpty() || !diff.getRemovedCategories().isEmpty())
+                diffs.add(diff);
+        }
+
+        return diffs;
+    }
+
+    /**
+     * Hands the joined changes of a batch over to the sender through the bounded buffer, and remembers the position
+     * of the last one, which the stream is resumed from if it fails.
+     *
+     * @param categorizedChanges are the joined changes of a batch
+     */
+    private void offerToBuffer(List<CategorizedChange> categorizedChanges) {
+        for (CategorizedChange categorizedChange : categorizedChanges) {
+            categoryBuffer.offer(categorizedChange);
+            bufferedPosition = new Checkpoint(categorizedChange.getEventId(), categorizedChange.getOffset());
+        }
+    }
+
+    /**
+     * Moves the position that the stream is resumed from back to the last change that was buffered, since the
+     * changes after it were dropped when the stream failed.
+     */
+    private void resumeFromBuffered() {
+        Checkpoint position = bufferedPosition != null ? bufferedPosition : sentPosition;
+        if (position == null)
+            return;
+
+        lastEventId = position.getLastEventId();
+        if (position.getOffset() != null)
+            offset = position.getOffset();
     }
 
     /**
-     * This method decorates a {@link RecentChange} event from Wikipedia with categories that are fetched from
-     * Wikipedia's API. The article's categories are fetched using the edited page's title. Since there are many
-     * categories for a single change, the original change event is cloned and decorated with a category. Finally,
-     * the new decorated change event is emitted to a new subscriber that will persist it to Kafka.
+     * Takes the next joined {@link CategorizedChange} from the bounded buffer, waiting until one is available. The
+     * buffer decouples the enrichment stage from Kafka, so a slow broker fills the buffer instead of stalling the
+     * connection to the Wikimedia change stream.
      *
-     * @param recentChange is the {@link RecentChange} that should be joined with its categories
+     * @param sink is the sink that the next {@link CategorizedChange} is emitted to
      */
-    private void joinCategories(RecentChange recentChange) {
-        this.offset = recentChange.getMeta().getDt().toInstant().toEpochMilli();
-        wiki.getCategoriesOnPage(recentChange.getTitle())
-                .stream()
-                .map(category -> CategoryChange.create(recentChange, category))
-                .forEach(categorySink::next);
+    private void takeFromBuffer(SynchronousSink<CategorizedChange> sink) {
+        try {
+            sink.next(categoryBuffer.take());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            sink.error(ex);
+        }
     }
 
     /**
-     * Processes a {@link RecentChange} event that has been joined together with a category and persists it to a
-     * Kafka topic. This Kafka topic will be subscribed to by Apache Pinot, which will ingest the rows into a
-     * real-time table that can be queried using SQL.
+     * Processes a {@link RecentChange} event that has been joined together with its categories and persists it to a
+     * Kafka topic. Depending on the output mode, the change is sent either as one record per category, or as a
+     * single record with a multi-value category column. This Kafka topic will be subscribed to by Apache Pinot,
+     * which will ingest the rows into a real-time table that can be queried using SQL. Only a sample of the sent
+     * changes are logged, and only at debug level, since logging every change throttles the sender.
      *
-     * @param categoryChange is the {@link RecentChange} from Wikipedia joined with a category.
+     * @param categorizedChange is the {@link RecentChange} from Wikipedia joined with its categories.
      */
-    private void processEvent(CategoryChange categoryChange) {
+    private void processEvent(CategorizedChange categorizedChange) {
         try {
-            messageBroker.output().send(MessageBuilder.withPayload(categoryChange).build());
+            String contentType = changeEncoder.getContentType();
+            for (Object payload : changeEncoder.encode(categorizedChange)) {
+                // Serialized payloads carry their own content type, which overrides the one of the binding
+                MessageBuilder<Object> message = MessageBuilder.withPayload(payload);
+                if (contentType != null)
+                    message.setHeader(MessageHeaders.CONTENT_TYPE, contentType);
+                metrics.getKafkaHandoff().record(() -> messageBroker.output().send(message.build()));
+            }
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
 
+        // Only the position of a change that was handed to the binder is checkpointed, so that the changes that are
+        // still being joined or waiting in the buffer are received again after a restart
+        sentPosition = new Checkpoint(categorizedChange.getEventId(), categorizedChange.getOffset());
+        recordLag(categorizedChange.getRecentChange());
+
+        if (++sentCount % LOG_SAMPLE_RATE == 0 && logger.isDebugEnabled())
+            logger.debug("Sent {} changes, latest: {}", sentCount, categorizedChange);
+
         if (!running)
             throw new RuntimeException("The wiki stream replicator was stopped");
     }
 
     /**
-     * Fetches a reactive stream that processes server-sent events from the Wikimedia event platform.
+     * Records the end-to-end lag between a change happening on Wikipedia and the change being sent to Kafka.
+     *
+     * @param recentChange is the {@link RecentChange} that was sent
+     */
+    private void recordLag(RecentChange recentChange) {
+        if (recentChange.getMeta() == null || recentChange.getMeta().getDt() == null)
+            return;
+
+        long lag = System.currentTimeMillis() - recentChange.getMeta().getDt().getTime();
+        metrics.getEndToEndLag().record(Math.max(lag, 0L), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fetches a reactive stream that processes server-sent events from the Wikimedia event platform, or from a
+     * recording of it. The connection is deferred, so that every reconnect resumes from the last event that was
+     * received instead of the position at the time the stream was assembled. A connection that fails is
+     * re-established with an exponential backoff, and a connection that is closed by the server is re-established
+     * after the shortest delay.
      *
      * @return a Flux of {@link ServerSentEvent<String>} that will be converted to {@link RecentChange}
      */
     private Flux<ServerSentEvent<String>> getWikiStreamClient() {
-        WebClient client = WebClient.create(STREAM_HOST);
+        Flux<ServerSentEvent<String>> events = Flux.defer(() -> streamClient.connect(offset, lastEventId));
 
-        // This is a work around for type erasure in the JDK and explicitly types the generic for runtime
-        ParameterizedTypeReference<ServerSentEvent<String>> type = new ParameterizedTypeReference<>() {
-        };
+        // Every subscription after the first one is a reconnect, including the ones made when retrying
+        return events
+                .doOnSubscribe(subscription -> {
+                    if (!connected.compareAndSet(false, true))
+                        metrics.getReconnects().increment();
+                    metrics.getStreamSubscriptions().incrementAndGet();
+                })
+                .doFinally(signal -> metrics.getStreamSubscriptions().decrementAndGet())
+                .doOnError(throwable -> logger.warn("Lost the connection to the change stream: {}",
+                        throwable.toString()))
+                .retryWhen(reconnectBackoff::retries)
+                .repeatWhen(reconnectBackoff::repeats);
+    }
 
-        // Fetches a reactive stream that processes server-sent events from the Wikimedia event platform
-        if(lastEventId == null) {
-            return client.get().uri(String.format(STREAM_URI + "?since=%s", offset)).retrieve()
-                    .bodyToFlux(type);
-        } else {
-            return client.get().uri(STREAM_URI)
-                    .header("Last-Event-Id", gson.toJson(lastEventId)).retrieve()
-                    .bodyToFlux(type);
+    /**
+     * Restores the position in the change stream from the last saved checkpoint. If there is no checkpoint, or it
+     * can't be loaded, the processor starts from the default offset of one day ago.
+     */
+    private void restoreCheckpoint() {
+        if (lastCheckpoint != null)
+            return;
+
+        try {
+            checkpointStore.load().ifPresent(checkpoint -> {
+                logger.info("Resuming the recent change stream from {}", checkpoint);
+                this.lastEventId = checkpoint.getLastEventId();
+                if (checkpoint.getOffset() != null)
+                    this.offset = checkpoint.getOffset();
+                this.lastCheckpoint = checkpoint;
+                this.sentPosition = checkpoint;
+            });
+        } catch (Exception ex) {
+            logger.warn("Unable to load the last checkpoint, starting from offset {}", offset, ex);
         }
+    }
 
+    /**
+     * Saves the position of the last change that was handed to the binder to the {@link CheckpointStore}. Changes
+     * that were received after it, but are still being joined with their categories or waiting in the buffer, are
+     * received again when the processor resumes from the checkpoint. This is called periodically while the processor
+     * is running and once more when the application shuts down.
+     */
+    public synchronized void checkpoint() {
+        Checkpoint checkpoint = sentPosition;
+        if (checkpoint == null || checkpoint.equals(lastCheckpoint))
+            return;
+
+        checkpointStore.save(checkpoint);
+        lastCheckpoint = checkpoint;
     }
 
+    /**
+     * Stops receiving changes, and waits for the changes in the buffer to be sent to Kafka before stopping the
+     * sender, so that the checkpoint that is saved after stopping is as far along as possible. Changes that were
+     * still being joined with their categories are dropped, and are received again after the checkpoint. The threads
+     * of the lookup and sender schedulers are released.
+     */
     public void stop() {
+        if (!running)
+            return;
+
+        if (streamSubscription != null)
+            streamSubscription.dispose();
+
+        drainBuffer();
         running = false;
+
+        if (senderSubscription != null)
+            senderSubscription.dispose();
+
+        // The threads are idle once the subscriptions are disposed, and new schedulers are created on the next start
+        lookupScheduler.dispose();
+        senderScheduler.dispose();
+    }
+
+    private void drainBuffer() {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        try {
+            while (categoryBuffer.size() > 0 && System.nanoTime() < deadline)
+                TimeUnit.MILLISECONDS.sleep(50);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (categoryBuffer.size() > 0)
+            logger.warn("Stopped with {} changes left in the buffer, which are received again on the next start",
+                    categoryBuffer.size());
     }
 
     public boolean isRunning() {
@@ -0,0 +1,278 @@
+package io.example.index;
+
+import io.example.categories.PageKey;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable index of the categories of every page of a wiki, built from a database dump by the
+ * {@link CategoryIndexImporter}. The index is a single file that is memory-mapped, so that it takes no heap and is
+ * shared through the page cache, and a lookup is a binary search over the sorted {@link PageKey} of every page.
+ * <p>
+ * The file starts with a 64-byte header, followed by these sections, each aligned to 8 bytes:
+ * <ul>
+ * <li>the sorted keys of the pages, as {@code long}s</li>
+ * <li>for every page, the position of its first category in the next section, as {@code int}s, followed by the
+ * number of categories in the index</li>
+ * <li>the ids of the categories of every page, as {@code int}s</li>
+ * <li>for every category, the position of its name in the next section, as {@code int}s, followed by the length of
+ * the section</li>
+ * <li>the names of the categories, encoded as UTF-8</li>
+ * </ul>
+ * Pages without categories are kept as well, so that the index can tell a page without categories apart from a page
+ * that is newer than the dump.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryIndex implements Closeable {
+
+    private static final int MAGIC = 0x57434958;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long createdAt;
+    private final int pageCount;
+    private final int categoryCount;
+    private final long keys;
+    private final long entries;
+    private final long ids;
+    private final long nameOffsets;
+    private final long names;
+
+    private CategoryIndex(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < HEADER_SIZE)
+            throw new IOException("The category index is truncated");
+
+        // A mapping can't be larger than 2GB, so the file is mapped in chunks. Values never straddle two chunks,
+        // since every section is aligned to the size of the values in it
+        this.chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_BITS)];
+        for (int i = 0; i < chunks.length; i++) {
+            long position = (long) i << CHUNK_BITS;
+            long length = Math.min(size - position, 1L << CHUNK_BITS);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        if (getInt(0) != MAGIC)
+            throw new IOException("The file is not a category index");
+        if (getInt(4) != VERSION)
+            throw new IOException("Version " + getInt(4) + " of the category index is not supported");
+
+        this.createdAt = getLong(8);
+        this.pageCount = getInt(16);
+        this.categoryCount = getInt(20);
+        this.keys = getLong(24);
+        this.entries = getLong(32);
+        this.ids = getLong(40);
+        this.nameOffsets = getLong(48);
+        this.names = getLong(56);
+    }
+
+    /**
+     * Maps an index that was written by {@link #write}.
+     *
+     * @param path is the path of the index
+     * @return the opened index, which must be closed once it is no longer used
+     * @throws IOException if the index can't be read or isn't a category index
+     */
+    public static CategoryIndex open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CategoryIndex(channel);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Finds the categories of a page.
+     *
+     * @param title is the full title of the page
+     * @return the categories of the page, read lazily from the index, or {@code null} if the page isn't in the index
+     */
+    public List<String> getCategories(String title) {
+        int page = find(PageKey.of(title));
+        if (page < 0)
+            return null;
+
+        int first = getInt(entries + (long) page * Integer.BYTES);
+        int last = getInt(entries + (long) (page + 1) * Integer.BYTES);
+        return new Categories(first, last - first);
+    }
+
+    /**
+     * @return the time, in milliseconds since the epoch, of the dump that the index was built from
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return the number of pages in the index
+     */
+    public int size() {
+        return pageCount;
+    }
+
+    /**
+     * @return the number of distinct categories in the index
+     */
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int find(long key) {
+        int low = 0;
+        int high = pageCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = getLong(keys + (long) middle * Long.BYTES);
+            if (candidate < key)
+                low = middle + 1;
+            else if (candidate > key)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    private String name(int category) {
+        long offset = nameOffsets + (long) category * Integer.BYTES;
+        int start = getInt(offset);
+        int length = getInt(offset + Integer.BYTES) - start;
+
+        byte[] bytes = new byte[length];
+        long position = names + start;
+        for (int i = 0; i < length; i++, position++)
+            bytes[i] = chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & CHUNK_MASK));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getInt(long position) {
+        return chunks[(int) (position >>> CHUNK_BITS)].getInt((int) (position & CHUNK_MASK));
+    }
+
+    private long getLong(long position) {
+        return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes an index, first to a temporary file that replaces the index once it is complete, so that a running
+     * application never maps a partial index.
+     *
+     * @param path       is the path of the index
+     * @param createdAt  is the time, in milliseconds since the epoch, of the dump that the index is built from
+     * @param keys       are the keys of the pages, in ascending order and without duplicates
+     * @param entries    are the positions of the first category of every page in {@code categories}, followed by the
+     *                   number of categories
+     * @param categories are the ids of the categories of every page
+     * @param names      are the names of the categories, by id
+     * @throws IOException if the index can't be written
+     */
+    public static void write(Path path, long createdAt, long[] keys, int[] entries, int[] categories,
+                             List<String> names) throws IOException {
+        if (entries.length != keys.length + 1)
+            throw new IllegalArgumentException("Every page needs an entry, followed by the number of categories");
+
+        byte[][] encoded = new byte[names.size()][];
+        int[] nameOffsets = new int[names.size() + 1];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            nameOffsets[i + 1] = Math.addExact(nameOffsets[i], encoded[i].length);
+        }
+
+        long keysOffset = HEADER_SIZE;
+        long entriesOffset = align(keysOffset + (long) keys.length * Long.BYTES);
+        long idsOffset = align(entriesOffset + (long) entries.length * Integer.BYTES);
+        long nameOffsetsOffset = align(idsOffset + (long) categories.length * Integer.BYTES);
+        long namesOffset = align(nameOffsetsOffset + (long) nameOffsets.length * Integer.BYTES);
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary),
+                1 << 16))) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(createdAt).putInt(keys.length).putInt(names.size())
+                    .putLong(keysOffset).putLong(entriesOffset).putLong(idsOffset).putLong(nameOffsetsOffset)
+                    .putLong(namesOffset);
+            output.write(header.array());
+
+            for (long key : keys)
+                output.writeLong(key);
+            pad(output, keysOffset + (long) keys.length * Long.BYTES, entriesOffset);
+            for (int entry : entries)
+                output.writeInt(entry);
+            pad(output, entriesOffset + (long) entries.length * Integer.BYTES, idsOffset);
+            for (int category : categories)
+                output.writeInt(category);
+            pad(output, idsOffset + (long) categories.length * Integer.BYTES, nameOffsetsOffset);
+            for (int offset : nameOffsets)
+                output.writeInt(offset);
+            pad(output, nameOffsetsOffset + (long) nameOffsets.length * Integer.BYTES, namesOffset);
+            for (byte[] name : encoded)
+                output.write(name);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long align(long position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static void pad(DataOutputStream output, long end, long next) throws IOException {
+        for (long position = end; position < next; position++)
+            output.write(0);
+    }
+
+    private class Categories extends AbstractList<String> implements RandomAccess {
+
+        private final int first;
+        private final int size;
+
+        private Categories(int first, int size) {
+            this.first = first;
+            this.size = size;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            return name(getInt(ids + (long) (first + index) * Integer.BYTES));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
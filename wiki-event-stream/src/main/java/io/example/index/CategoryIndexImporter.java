@@ -0,0 +1,378 @@
+package io.example.index;
+
+import io.example.categories.CategoryDictionary;
+import io.example.categories.PageKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Builds a {@link CategoryIndex} from the dumps of a wiki, so that the categories of most pages can be looked up
+ * without calling the MediaWiki API. The index can be built from the {@code page} and {@code categorylinks} SQL
+ * dumps that are published at {@code https://dumps.wikimedia.org}, or from a file with a title and a category on
+ * each line, separated by a tab.
+ * <p>
+ * Newer dumps of {@code categorylinks} refer to categories with {@code cl_target_id} instead of naming them in
+ * {@code cl_to}, in which case the {@code linktarget} dump is needed as well.
+ * <p>
+ * Arguments are given as {@code --name=value}: {@code page}, {@code categorylinks} and {@code linktarget} for the
+ * SQL dumps, or {@code tsv} for a tab-separated file, {@code output} for the path of the index, and
+ * {@code dump-time} for the date or instant of the dump, which defaults to the time the dump was last modified.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryIndexImporter {
+    private static Logger logger = LoggerFactory.getLogger(CategoryIndexImporter.class);
+
+    private static final String CATEGORY_PREFIX = "Category:";
+    private static final int CATEGORY_NAMESPACE = 14;
+
+    /**
+     * The prefixes of the namespaces of the English Wikipedia. Pages in other namespaces are left out of the index.
+     */
+    private static final Map<Integer, String> NAMESPACES = Map.ofEntries(
+            Map.entry(0, ""), Map.entry(1, "Talk:"), Map.entry(2, "User:"), Map.entry(3, "User talk:"),
+            Map.entry(4, "Wikipedia:"), Map.entry(5, "Wikipedia talk:"), Map.entry(6, "File:"),
+            Map.entry(7, "File talk:"), Map.entry(8, "MediaWiki:"), Map.entry(9, "MediaWiki talk:"),
+            Map.entry(10, "Template:"), Map.entry(11, "Template talk:"), Map.entry(12, "Help:"),
+            Map.entry(13, "Help talk:"), Map.entry(14, "Category:"), Map.entry(15, "Category talk:"),
+            Map.entry(100, "Portal:"), Map.entry(101, "Portal talk:"), Map.entry(118, "Draft:"),
+            Map.entry(119, "Draft talk:"), Map.entry(710, "TimedText:"), Map.entry(711, "TimedText talk:"),
+            Map.entry(828, "Module:"), Map.entry(829, "Module talk:"));
+
+    private final CategoryDictionary dictionary = new CategoryDictionary();
+    private final LongArray keys = new LongArray();
+    private final IntArray pages = new IntArray();
+    private final LongArray links = new LongArray();
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("Arguments must be given as --name=value: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        if (!options.containsKey("output") || !(options.containsKey("tsv")
+                || options.containsKey("page") && options.containsKey("categorylinks")))
+            throw new IllegalArgumentException("Usage: --output=<index> and either --tsv=<file> or " +
+                    "--page=<page dump> --categorylinks=<categorylinks dump> [--linktarget=<linktarget dump>]");
+
+        CategoryIndexImporter importer = new CategoryIndexImporter();
+        Path source;
+        if (options.containsKey("tsv")) {
+            source = Paths.get(options.get("tsv"));
+            importer.readTsv(source);
+        } else {
+            source = Paths.get(options.get("page"));
+            importer.readPages(source);
+            importer.readCategoryLinks(Paths.get(options.get("categorylinks")),
+                    options.containsKey("linktarget") ? Paths.get(options.get("linktarget")) : null);
+        }
+
+        long dumpTime = options.containsKey("dump-time") ? parseTime(options.get("dump-time"))
+                : Files.getLastModifiedTime(source).toMillis();
+        importer.write(Paths.get(options.get("output")), dumpTime);
+    }
+
+    /**
+     * Reads the titles of the pages from the {@code page} dump.
+     *
+     * @param dump is the path of the dump
+     * @throws IOException if the dump can't be read
+     */
+    public void readPages(Path dump) throws IOException {
+        long start = System.currentTimeMillis();
+        new SqlDumpReader(dump).read(List.of("page_id", "page_namespace", "page_title"), row -> {
+            String prefix = NAMESPACES.get(Integer.parseInt(row[1]));
+            if (prefix != null)
+                addPage(Integer.parseInt(row[0]), prefix + row[2].replace('_', ' '));
+        });
+        logger.info("Read {} pages in {} ms", pages.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reads the categories of the pages from the {@code categorylinks} dump.
+     *
+     * @param dump       is the path of the dump
+     * @param linkTarget is the path of the {@code linktarget} dump, which is only needed if the {@code categorylinks}
+     *                   dump has no {@code cl_to} column, or {@code null}
+     * @throws IOException if a dump can't be read
+     */
+    public void readCategoryLinks(Path dump, Path linkTarget) throws IOException {
+        long start = System.currentTimeMillis();
+        SqlDumpReader reader = new SqlDumpReader(dump);
+        if (reader.columns().contains("cl_to")) {
+            reader.read(List.of("cl_from", "cl_to"), row -> addLink(Integer.parseInt(row[0]), category(row[1])));
+        } else {
+            if (linkTarget == null)
+                throw new IllegalArgumentException("The categorylinks dump at " + dump + " refers to categories " +
+                        "by cl_target_id, so the linktarget dump is needed as well");
+
+            Map<Long, Integer> targets = new HashMap<>();
+            new SqlDumpReader(linkTarget).read(List.of("lt_id", "lt_namespace", "lt_title"), row -> {
+                if (Integer.parseInt(row[1]) == CATEGORY_NAMESPACE)
+                    targets.put(Long.parseLong(row[0]), category(row[2]));
+            });
+            reader.read(List.of("cl_from", "cl_target_id"), row -> {
+                Integer category = targets.get(Long.parseLong(row[1]));
+                if (category != null)
+                    addLink(Integer.parseInt(row[0]), category);
+            });
+        }
+        logger.info("Read {} category links to {} categories in {} ms", links.size(), dictionary.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reads pages and their categories from a file with a title and the name of a category on each line, separated
+     * by a tab. A line with only a title adds a page without categories.
+     *
+     * @param file is the path of the file, which is decompressed while it is read if its name ends with {@code .gz}
+     * @throws IOException if the file can't be read
+     */
+    public void readTsv(Path file) throws IOException {
+        Map<Long, Integer> ids = new HashMap<>();
+        InputStream input = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz"))
+            input = new GZIPInputStream(input, 1 << 16);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty())
+                    continue;
+
+                int tab = line.indexOf('\t');
+                String title = (tab < 0 ? line : line.substring(0, tab)).replace('_', ' ');
+                Integer id = ids.get(PageKey.of(title));
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(PageKey.of(title), id);
+                    addPage(id, title);
+                }
+
+                String category = tab < 0 ? "" : line.substring(tab + 1);
+                if (!category.isEmpty())
+                    addLink(id, category.startsWith(CATEGORY_PREFIX) ? dictionary.id(category.replace('_', ' '))
+                            : category(category));
+            }
+        }
+    }
+
+    /**
+     * Writes the pages and categories that were read to an index. Pages whose titles have the same key can't be told
+     * apart in the index, so they are left out, to be looked up with the API instead.
+     *
+     * @param output   is the path of the index
+     * @param dumpTime is the time, in milliseconds since the epoch, of the dump that was read
+     * @return the number of pages in the index
+     * @throws IOException if the index can't be written
+     */
+    public int write(Path output, long dumpTime) throws IOException {
+        long start = System.currentTimeMillis();
+        long[] links = this.links.toArray();
+        Arrays.parallelSort(links);
+
+        long[] keys = this.keys.toArray();
+        int[] pages = this.pages.toArray();
+        sort(keys, pages, 0, keys.length);
+
+        // Leave out the pages that collide, and count the categories of the rest
+        int count = 0;
+        long categoryCount = 0;
+        int collisions = 0;
+        for (int i = 0; i < keys.length; ) {
+            int end = i + 1;
+            while (end < keys.length && keys[end] == keys[i])
+                end++;
+
+            if (end - i > 1) {
+                collisions += end - i;
+            } else {
+                keys[count] = keys[i];
+                pages[count++] = pages[i];
+                categoryCount += copyCategories(links, pages[i], null, 0);
+            }
+            i = end;
+        }
+
+        int[] entries = new int[count + 1];
+        int[] categories = new int[Math.toIntExact(categoryCount)];
+        for (int i = 0; i < count; i++)
+            entries[i + 1] = entries[i] + copyCategories(links, pages[i], categories, entries[i]);
+
+        CategoryIndex.write(output, dumpTime, Arrays.copyOf(keys, count), entries, categories, new Names());
+        logger.info("Wrote {} pages with {} categories to {} in {} ms, leaving out {} pages with colliding keys",
+                count, categoryCount, output, System.currentTimeMillis() - start, collisions);
+        return count;
+    }
+
+    private void addPage(int id, String title) {
+        keys.add(PageKey.of(title));
+        pages.add(id);
+    }
+
+    private void addLink(int page, int category) {
+        links.add((long) page << 32 | category);
+    }
+
+    private int category(String name) {
+        return dictionary.id(CATEGORY_PREFIX + name.replace('_', ' '));
+    }
+
+    /**
+     * Copies the distinct categories of a page out of the sorted links.
+     *
+     * @return the number of categories of the page
+     */
+    private static int copyCategories(long[] links, int page, int[] categories, int position) {
+        int count = 0;
+        long previous = -1;
+        for (int i = lowerBound(links, (long) page << 32); i < links.length && links[i] >>> 32 == page; i++) {
+            if (links[i] == previous)
+                continue;
+            if (categories != null)
+                categories[position + count] = (int) links[i];
+            previous = links[i];
+            count++;
+        }
+        return count;
+    }
+
+    private static int lowerBound(long[] values, long value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Sorts keys in ascending order, along with the values at the same positions.
+     */
+    private static void sort(long[] keys, int[] values, int from, int to) {
+        while (to - from > 16) {
+            long pivot = keys[(from + to) >>> 1];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (keys[i] < pivot)
+                    i++;
+                while (keys[j] > pivot)
+                    j--;
+                if (i <= j)
+                    swap(keys, values, i++, j--);
+            }
+
+            // Recurse into the smaller side, so that the depth of the stack stays logarithmic
+            if (j - from < to - i) {
+                sort(keys, values, from, j + 1);
+                from = i;
+            } else {
+                sort(keys, values, i, to);
+                to = j + 1;
+            }
+        }
+
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && keys[j - 1] > keys[j]; j--)
+                swap(keys, values, j, j - 1);
+        }
+    }
+
+    private static void swap(long[] keys, int[] values, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private static long parseTime(String time) {
+        try {
+            return Instant.parse(time).toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            return LocalDate.parse(time).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+    }
+
+    private class Names extends AbstractList<String> {
+
+        @Override
+        public String get(int index) {
+            return dictionary.name(index);
+        }
+
+        @Override
+        public int size() {
+            return dictionary.size();
+        }
+    }
+
+    private static class LongArray {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, Math.toIntExact(size * 3L / 2));
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static class IntArray {
+
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, Math.toIntExact(size * 3L / 2));
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
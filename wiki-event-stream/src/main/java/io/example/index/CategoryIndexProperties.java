@@ -0,0 +1,38 @@
+package io.example.index;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configures the {@link CategoryIndex} that the categories of pages are looked up in before the MediaWiki API.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.categories.index")
+public class CategoryIndexProperties {
+
+    /**
+     * Whether pages are looked up in the category index, which has to be built with the importer first.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The path of the category index.
+     */
+    private String path = "cache/category-index";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+}
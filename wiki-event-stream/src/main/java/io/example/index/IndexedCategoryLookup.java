@@ -0,0 +1,62 @@
+package io.example.index;
+
+import io.example.categories.CategoryLookup;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CategoryLookup} that answers from a {@link CategoryIndex} built from a dump of the wiki, and only passes
+ * the pages that aren't in the index, which are mostly the pages created since the dump, on to another lookup.
+ *
+ * @author Kenny Bastani
+ */
+public class IndexedCategoryLookup implements CategoryLookup {
+
+    private final CategoryIndex index;
+    private final CategoryLookup delegate;
+    private final Counter hits;
+
+    /**
+     * @param index    is the index that pages are looked up in first
+     * @param delegate is the lookup that pages which aren't in the index are fetched with
+     * @param hits     counts the pages that were found in the index
+     */
+    public IndexedCategoryLookup(CategoryIndex index, CategoryLookup delegate, Counter hits) {
+        this.index = index;
+        this.delegate = delegate;
+        this.hits = hits;
+    }
+
+    @Override
+    public List<String> getCategories(String title) {
+        List<String> categories = index.getCategories(title);
+        if (categories == null)
+            return delegate.getCategories(title);
+
+        hits.increment();
+        return categories;
+    }
+
+    @Override
+    public Map<String, List<String>> getCategories(Collection<String> titles) {
+        Map<String, List<String>> categories = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String title : titles) {
+            List<String> indexed = index.getCategories(title);
+            if (indexed == null)
+                misses.add(title);
+            else
+                categories.put(title, indexed);
+        }
+
+        hits.increment(categories.size());
+        if (!misses.isEmpty())
+            categories.putAll(delegate.getCategories(misses));
+        return categories;
+    }
+}
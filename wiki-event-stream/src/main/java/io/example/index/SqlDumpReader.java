@@ -0,0 +1,176 @@
+package io.example.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the rows of a table from a MediaWiki SQL dump, such as {@code enwiki-latest-page.sql.gz}, without loading it
+ * into a database. A dump creates its table and then inserts the rows with one {@code INSERT} statement per line,
+ * each with many rows. The columns are found by name from the {@code CREATE TABLE} statement, so that the reader
+ * keeps working when columns are added to the table, and only the requested columns are turned into strings.
+ *
+ * @author Kenny Bastani
+ */
+public class SqlDumpReader {
+
+    private static final String CREATE_TABLE = "CREATE TABLE";
+    private static final String INSERT = "INSERT INTO";
+    private static final String VALUES = " VALUES ";
+
+    private final Path dump;
+
+    /**
+     * @param dump is the path to the dump, which is decompressed while it is read if its name ends with {@code .gz}
+     */
+    public SqlDumpReader(Path dump) {
+        this.dump = dump;
+    }
+
+    /**
+     * Reads the names of the columns from the {@code CREATE TABLE} statement at the start of the dump.
+     *
+     * @return the names of the columns of the table, in the order of the values of a row
+     * @throws IOException if the dump can't be read
+     */
+    public List<String> columns() throws IOException {
+        try (BufferedReader reader = open()) {
+            List<String> columns = new ArrayList<>();
+            boolean inTable = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(CREATE_TABLE)) {
+                    inTable = true;
+                } else if (inTable) {
+                    String column = line.trim();
+                    if (!column.startsWith("`"))
+                        break;
+                    columns.add(column.substring(1, column.indexOf('`', 1)));
+                } else if (line.startsWith(INSERT)) {
+                    break;
+                }
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * Reads every row of the table, passing the values of the requested columns to a consumer. The array that is
+     * passed is reused for every row, so the consumer must not keep it.
+     *
+     * @param columns are the names of the columns to read
+     * @param rows    is given the values of the requested columns for each row, in the order they were requested,
+     *                with {@code NULL} values as {@code null}
+     * @throws IOException if the dump can't be read
+     * @throws IllegalArgumentException if the table doesn't have one of the columns
+     */
+    public void read(List<String> columns, Consumer<String[]> rows) throws IOException {
+        List<String> tableColumns = columns();
+        int[] slots = new int[tableColumns.size()];
+        Arrays.fill(slots, -1);
+        for (int i = 0; i < columns.size(); i++) {
+            int position = tableColumns.indexOf(columns.get(i));
+            if (position < 0)
+                throw new IllegalArgumentException("The dump at " + dump + " doesn't have a column named " +
+                        columns.get(i) + ", its columns are " + tableColumns);
+            slots[position] = i;
+        }
+
+        String[] row = new String[columns.size()];
+        StringBuilder value = new StringBuilder();
+        try (BufferedReader reader = open()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(INSERT))
+                    readValues(line, line.indexOf(VALUES) + VALUES.length(), slots, row, value, rows);
+            }
+        }
+    }
+
+    private static void readValues(String line, int position, int[] slots, String[] row, StringBuilder value,
+                                   Consumer<String[]> rows) {
+        int length = line.length();
+        while (position < length) {
+            if (line.charAt(position++) != '(')
+                continue;
+
+            int column = 0;
+            while (true) {
+                int slot = column < slots.length ? slots[column] : -1;
+                if (line.charAt(position) == '\'') {
+                    position = readString(line, position + 1, value);
+                    if (slot >= 0)
+                        row[slot] = value.toString();
+                } else {
+                    int start = position;
+                    while (line.charAt(position) != ',' && line.charAt(position) != ')')
+                        position++;
+                    if (slot >= 0) {
+                        String literal = line.substring(start, position);
+                        row[slot] = "NULL".equals(literal) ? null : literal;
+                    }
+                }
+
+                column++;
+                if (line.charAt(position++) == ')')
+                    break;
+            }
+            rows.accept(row);
+        }
+    }
+
+    /**
+     * Reads a quoted string that starts after the opening quote, undoing the escapes of {@code mysqldump}.
+     *
+     * @return the position after the closing quote
+     */
+    private static int readString(String line, int position, StringBuilder value) {
+        value.setLength(0);
+        while (true) {
+            char c = line.charAt(position++);
+            if (c == '\'')
+                return position;
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+
+            char escaped = line.charAt(position++);
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case '0':
+                    value.append('\0');
+                    break;
+                case 'Z':
+                    value.append('\u001a');
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+    }
+
+    private BufferedReader open() throws IOException {
+        InputStream input = Files.newInputStream(dump);
+        if (dump.getFileName().toString().endsWith(".gz"))
+            input = new GZIPInputStream(input, 1 << 16);
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+    }
+}
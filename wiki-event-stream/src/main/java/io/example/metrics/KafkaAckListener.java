@@ -0,0 +1,38 @@
+package io.example.metrics;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.record.RecordBatch;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long the broker takes to acknowledge the records that the Kafka binder sends. The binder uses this
+ * listener in place of its default one, which only logged failures that are already logged by the
+ * {@link KafkaSendFailureListener}. Records are sent without a timestamp, so the producer stamps them when they are
+ * sent, and the time to the ack is measured from that stamp, which includes the time that a record waited to be
+ * batched. On a topic that uses log append time, the broker's stamp is returned instead, and only the time from the
+ * append to the ack is measured.
+ *
+ * @author Kenny Bastani
+ */
+@Component
+public class KafkaAckListener implements ProducerListener<Object, Object> {
+    private final PipelineMetrics metrics;
+
+    public KafkaAckListener(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onSuccess(ProducerRecord<Object, Object> producerRecord, RecordMetadata recordMetadata) {
+        // Brokers before 0.10 don't return a timestamp
+        if (recordMetadata.timestamp() == RecordBatch.NO_TIMESTAMP)
+            return;
+
+        long elapsed = System.currentTimeMillis() - recordMetadata.timestamp();
+        metrics.getKafkaAck().record(Math.max(elapsed, 0), TimeUnit.MILLISECONDS);
+    }
+}
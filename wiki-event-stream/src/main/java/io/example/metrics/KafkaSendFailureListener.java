@@ -0,0 +1,29 @@
+package io.example.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the records that the Kafka binder failed to send. Records are sent asynchronously, so a failure is not
+ * thrown back to the sender, and is instead published to the error channel of the output destination.
+ *
+ * @author Kenny Bastani
+ */
+@Component
+public class KafkaSendFailureListener {
+    private static Logger logger = LoggerFactory.getLogger(KafkaSendFailureListener.class);
+    private final PipelineMetrics metrics;
+
+    public KafkaSendFailureListener(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ServiceActivator(inputChannel = "${spring.cloud.stream.bindings.output.destination}.errors")
+    public void onSendFailure(ErrorMessage errorMessage) {
+        metrics.getKafkaSendFailures().increment();
+        logger.error("Failed to send a record to Kafka", errorMessage.getPayload());
+    }
+}
@@ -0,0 +1,245 @@
+package io.example.metrics;
+
+import io.example.buffer.BoundedBuffer;
+import io.example.categories.AdaptiveLimiter;
+import io.example.warmup.CategoryWarmUp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the meters that describe how events move through the recent change pipeline, from the server-sent events
+ * that are received from Wikimedia to the records that are sent to Kafka. The meters are published through the
+ * actuator metrics endpoint, so that ingestion can be capacity planned and alerted on when it falls behind.
+ *
+ * @author Kenny Bastani
+ */
+@Component
+public class PipelineMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter eventsReceived;
+    private final Counter eventsPreFiltered;
+    private final Counter eventsDecoded;
+    private final Counter eventsFiltered;
+    private final Counter eventsMalformed;
+    private final Counter reconnects;
+    private final AtomicInteger streamSubscriptions;
+    private final Timer categoryLookup;
+    private final Counter categoryLookupFailures;
+    private final Counter categoriesCoalesced;
+    private final Counter categoryIndexHits;
+    private final Counter membershipChanges;
+    private final Timer apiQueueWait;
+    private final Counter apiThrottled;
+    private final DistributionSummary categoriesPerChange;
+    private final Timer kafkaHandoff;
+    private final Timer kafkaAck;
+    private final Counter kafkaSendFailures;
+    private final Timer endToEndLag;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.eventsReceived = Counter.builder("wiki.events.received")
+                .description("Server-sent events that were received from the Wikimedia change stream")
+                .register(meterRegistry);
+        this.eventsPreFiltered = Counter.builder("wiki.events.prefiltered")
+                .description("Events that were dropped by the pre-filter without being decoded")
+                .register(meterRegistry);
+        this.eventsDecoded = Counter.builder("wiki.events.decoded")
+                .description("Events that passed the pre-filter and were fully decoded")
+                .register(meterRegistry);
+        this.eventsFiltered = Counter.builder("wiki.events.filtered")
+                .description("Decoded events that were dropped because they are not english edits")
+                .register(meterRegistry);
+        this.eventsMalformed = Counter.builder("wiki.events.malformed")
+                .description("Events that were dropped because they couldn't be decoded or had no event time")
+                .register(meterRegistry);
+        this.reconnects = Counter.builder("wiki.stream.reconnects")
+                .description("Times the connection to the Wikimedia change stream was re-established")
+                .register(meterRegistry);
+        this.streamSubscriptions = new AtomicInteger();
+        Gauge.builder("wiki.stream.subscriptions", streamSubscriptions, AtomicInteger::get)
+                .description("Subscriptions to the Wikimedia change stream that are currently open")
+                .register(meterRegistry);
+        this.categoryLookup = Timer.builder("wiki.categories.lookup")
+                .description("Latency of category lookups against the MediaWiki API")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.categoryLookupFailures = Counter.builder("wiki.categories.lookup.failures")
+                .description("Changes that were dropped because the lookup of their categories kept failing")
+                .register(meterRegistry);
+        this.categoriesCoalesced = Counter.builder("wiki.categories.coalesced")
+                .description("Titles that joined a category lookup that was already in flight instead of making one")
+                .register(meterRegistry);
+        this.categoryIndexHits = Counter.builder("wiki.categories.index.hits")
+                .description("Titles whose categories were found in the category index instead of the MediaWiki API")
+                .register(meterRegistry);
+        this.membershipChanges = Counter.builder("wiki.categories.membership.changes")
+                .description("Pages added to or removed from a category that were read from categorize events")
+                .register(meterRegistry);
+        this.apiQueueWait = Timer.builder("wiki.categories.api.queue.wait")
+                .description("Time that requests to the MediaWiki API waited for the rate and concurrency limiter")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.apiThrottled = Counter.builder("wiki.categories.api.throttled")
+                .description("Requests that the MediaWiki API rejected because of rate limits or replication lag")
+                .register(meterRegistry);
+        this.categoriesPerChange = DistributionSummary.builder("wiki.categories.per.change")
+                .description("Number of categories that each change was joined with")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        // Records are sent asynchronously, so this only times the hand-off to the binding, and the ack is timed below
+        this.kafkaHandoff = Timer.builder("wiki.kafka.handoff")
+                .description("Time taken to hand records to the Kafka output binding, before they are sent")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.kafkaAck = Timer.builder("wiki.kafka.ack")
+                .description("Time between the Kafka producer sending a record and the broker acknowledging it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.kafkaSendFailures = Counter.builder("wiki.kafka.send.failures")
+                .description("Records that could not be sent to Kafka")
+                .register(meterRegistry);
+        this.endToEndLag = Timer.builder("wiki.events.lag")
+                .description("Time between a change happening on Wikipedia and its records being sent to Kafka")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry);
+    }
+
+    public Counter getEventsReceived() {
+        return eventsReceived;
+    }
+
+    public Counter getEventsPreFiltered() {
+        return eventsPreFiltered;
+    }
+
+    public Counter getEventsDecoded() {
+        return eventsDecoded;
+    }
+
+    public Counter getEventsFiltered() {
+        return eventsFiltered;
+    }
+
+    public Counter getEventsMalformed() {
+        return eventsMalformed;
+    }
+
+    public Counter getReconnects() {
+        return reconnects;
+    }
+
+    /**
+     * @return the number of subscriptions to the Wikimedia change stream that are currently open, which should
+     * never be more than one, no matter how many times the stream was reconnected
+     */
+    public AtomicInteger getStreamSubscriptions() {
+        return streamSubscriptions;
+    }
+
+    public Timer getCategoryLookup() {
+        return categoryLookup;
+    }
+
+    public Counter getCategoryLookupFailures() {
+        return categoryLookupFailures;
+    }
+
+    public Counter getCategoriesCoalesced() {
+        return categoriesCoalesced;
+    }
+
+    public Counter getCategoryIndexHits() {
+        return categoryIndexHits;
+    }
+
+    public Counter getMembershipChanges() {
+        return membershipChanges;
+    }
+
+    public Timer getApiQueueWait() {
+        return apiQueueWait;
+    }
+
+    public Counter getApiThrottled() {
+        return apiThrottled;
+    }
+
+    public DistributionSummary getCategoriesPerChange() {
+        return categoriesPerChange;
+    }
+
+    public Timer getKafkaHandoff() {
+        return kafkaHandoff;
+    }
+
+    public Timer getKafkaAck() {
+        return kafkaAck;
+    }
+
+    public Counter getKafkaSendFailures() {
+        return kafkaSendFailures;
+    }
+
+    public Timer getEndToEndLag() {
+        return endToEndLag;
+    }
+
+    /**
+     * Publishes the depth of the hand-off buffer and the number of events it has dropped or spilled to disk.
+     *
+     * @param buffer is the {@link BoundedBuffer} between the enrichment stage and the Kafka sender
+     */
+    public void monitorBuffer(BoundedBuffer<?> buffer) {
+        Gauge.builder("wiki.buffer.depth", buffer, BoundedBuffer::size)
+                .description("Events waiting in the buffer to be sent to Kafka")
+                .register(meterRegistry);
+        FunctionCounter.builder("wiki.buffer.dropped", buffer, BoundedBuffer::getDroppedCount)
+                .description("Events that were dropped because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("wiki.buffer.spilled", buffer, BoundedBuffer::getSpilledCount)
+                .description("Events that were spilled to disk because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes the concurrency limit of the MediaWiki API limiter, with the requests that are in flight and queued.
+     *
+     * @param limiter is the {@link AdaptiveLimiter} in front of the MediaWiki API
+     */
+    public void monitorApiLimiter(AdaptiveLimiter limiter) {
+        Gauge.builder("wiki.categories.api.limit", limiter, AdaptiveLimiter::getLimit)
+                .description("The current limit on requests in flight to the MediaWiki API")
+                .register(meterRegistry);
+        Gauge.builder("wiki.categories.api.inflight", limiter, AdaptiveLimiter::getInFlight)
+                .description("Requests to the MediaWiki API that are in flight")
+                .register(meterRegistry);
+        Gauge.builder("wiki.categories.api.queued", limiter, AdaptiveLimiter::getQueued)
+                .description("Requests to the MediaWiki API that are waiting for the limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes the number of hot titles that the category cache is warmed up with, and how many were looked up.
+     *
+     * @param warmUp is the {@link CategoryWarmUp} that runs before the processor starts
+     */
+    public void monitorWarmUp(CategoryWarmUp warmUp) {
+        Gauge.builder("wiki.warmup.titles", warmUp, CategoryWarmUp::getTitles)
+                .description("Hot titles that the category cache is warmed up with before the processor starts")
+                .register(meterRegistry);
+        Gauge.builder("wiki.warmup.warmed", warmUp, CategoryWarmUp::getWarmed)
+                .description("Hot titles whose categories were looked up by the warm-up")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package io.example.output;
+
+import io.example.schema.category.CategoryChange;
+import io.example.schema.page.RecentChange;
+
+import java.util.List;
+
+/**
+ * Serializes the {@link CategoryChange} records of a change without going through the message converters of the
+ * {@code output} binding, which pass {@code byte[]} payloads through as they are. Every record of a change has the
+ * same fields apart from its category, so implementations serialize the shared fields once per change.
+ *
+ * @author Kenny Bastani
+ */
+public interface CategoryChangeSerializer {
+
+    /**
+     * Serializes one record for each category of a change.
+     *
+     * @param recentChange is the change that the records are for
+     * @param categories   are the categories to send a record for
+     * @param action       is the {@link io.example.schema.category.CategoryAction} value of the records, or
+     *                     {@code null}
+     * @return the payloads of the records, in the order of the categories
+     */
+    List<byte[]> serialize(RecentChange recentChange, List<String> categories, String action);
+
+    /**
+     * @return the content type of the payloads, which is sent in the {@code contentType} header of every record
+     */
+    String getContentType();
+}
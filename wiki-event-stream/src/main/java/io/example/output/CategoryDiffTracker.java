@@ -0,0 +1,111 @@
+package io.example.output;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.example.schema.category.CategorizedChange;
+import io.example.schema.category.CategoryAction;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the last known set of categories for each page, so that a change can be reduced to only the categories that
+ * were added to or removed from the page since its last edit. Most edits don't change a page's categories, so they
+ * are reduced to nothing at all. The first change that is seen for a page, and periodically after that if a
+ * snapshot interval is configured, carries the page's full list of categories as a snapshot.
+ * <p>
+ * A snapshot replaces everything that was sent for the page before it. A periodic snapshot also carries the
+ * categories that were removed since the last known edit, so that consumers which only apply the removals don't
+ * miss them. The diff depends on seeing the changes of a page in the order they were made, so it requires the
+ * enrichment to emit changes in order.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryDiffTracker {
+
+    private final Cache<String, PageCategories> pages;
+    private final Duration snapshotInterval;
+    private final Clock clock;
+
+    public CategoryDiffTracker(OutputProperties.Diff properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    CategoryDiffTracker(OutputProperties.Diff properties, Clock clock) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxPages())
+                .build();
+        this.snapshotInterval = properties.getSnapshotInterval();
+        this.clock = clock;
+    }
+
+    /**
+     * Compares the categories of a change with the last known categories of its page.
+     *
+     * @param change is a {@link CategorizedChange} carrying the page's current categories
+     * @return a {@link CategorizedChange} carrying only the added and removed categories, or a snapshot
+     */
+    public CategorizedChange diff(CategorizedChange change) {
+        String title = change.getRecentChange().getTitle();
+        Set<String> current = new LinkedHashSet<>(change.getCategories());
+        long now = clock.millis();
+        PageCategories previous = pages.getIfPresent(title);
+
+        if (previous == null) {
+            pages.put(title, new PageCategories(current, now));
+            return withPosition(change, new CategorizedChange(change.getRecentChange(), new ArrayList<>(current),
+                    List.of(), CategoryAction.SNAPSHOT));
+        }
+
+        List<String> removed = difference(previous.categories, current);
+        if (isSnapshotDue(previous, now)) {
+            pages.put(title, new PageCategories(current, now));
+            return withPosition(change, new CategorizedChange(change.getRecentChange(), new ArrayList<>(current),
+                    removed, CategoryAction.SNAPSHOT));
+        }
+
+        List<String> added = difference(current, previous.categories);
+        if (!added.isEmpty() || !removed.isEmpty())
+            pages.put(title, new PageCategories(current, previous.snapshotTime));
+
+        return withPosition(change, new CategorizedChange(change.getRecentChange(), added, removed,
+                CategoryAction.ADDED));
+    }
+
+    /**
+     * Carries the position in the change stream over to the diff, which is what the processor checkpoints.
+     */
+    private static CategorizedChange withPosition(CategorizedChange change, CategorizedChange diff) {
+        diff.setEventId(change.getEventId());
+        diff.setOffset(change.getOffset());
+        return diff;
+    }
+
+    private static List<String> difference(Set<String> categories, Set<String> excluded) {
+        List<String> difference = new ArrayList<>();
+        for (String category : categories) {
+            if (!excluded.contains(category))
+                difference.add(category);
+        }
+        return difference;
+    }
+
+    private boolean isSnapshotDue(PageCategories previous, long now) {
+        return snapshotInterval != null && !snapshotInterval.isZero() &&
+                now - previous.snapshotTime >= snapshotInterval.toMillis();
+    }
+
+    private static class PageCategories {
+        private final Set<String> categories;
+        private final long snapshotTime;
+
+        private PageCategories(Set<String> categories, long snapshotTime) {
+            this.categories = categories;
+            this.snapshotTime = snapshotTime;
+        }
+    }
+}
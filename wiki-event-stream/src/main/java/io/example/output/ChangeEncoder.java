@@ -0,0 +1,74 @@
+package io.example.output;
+
+import io.example.schema.category.CategorizedChange;
+import io.example.schema.category.CategoryAction;
+import io.example.schema.category.MultiValueCategoryChange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes a {@link CategorizedChange} into the payloads of the records that are sent to Kafka, according to the
+ * configured {@link OutputMode}. When the change only carries the categories that changed, each record is marked
+ * with its {@link CategoryAction}.
+ * <p>
+ * In the fan-out mode, the records are serialized here by a {@link CategoryChangeSerializer}, which writes the
+ * fields that every record of a change shares only once, and are sent as {@code byte[]} payloads with the content
+ * type of the serializer, which is either JSON or Avro. Multi-value records are left for the JSON converter of the
+ * {@code output} binding, since there is only one per change.
+ *
+ * @author Kenny Bastani
+ */
+public class ChangeEncoder {
+
+    private final OutputMode mode;
+    private final CategoryChangeSerializer serializer;
+
+    public ChangeEncoder(OutputMode mode) {
+        this(mode, new JsonCategoryChangeSerializer());
+    }
+
+    public ChangeEncoder(OutputMode mode, CategoryChangeSerializer serializer) {
+        this.mode = mode;
+        this.serializer = serializer;
+    }
+
+    /**
+     * @return the content type of the payloads, or {@code null} if they are converted by the {@code output} binding
+     */
+    public String getContentType() {
+        return mode == OutputMode.FAN_OUT ? serializer.getContentType() : null;
+    }
+
+    /**
+     * Encodes a change into the payloads that should be sent to Kafka.
+     *
+     * @param change is the {@link CategorizedChange} to encode
+     * @return the payloads of the records to send, which is empty if there are no categories to send
+     */
+    public List<Object> encode(CategorizedChange change) {
+        List<Object> payloads = new ArrayList<>();
+        encode(change, change.getCategories(), change.getAction(), payloads);
+        encode(change, change.getRemovedCategories(), CategoryAction.REMOVED, payloads);
+        return payloads;
+    }
+
+    private void encode(CategorizedChange change, List<String> categories, CategoryAction action,
+                        List<Object> payloads) {
+        if (categories == null || categories.isEmpty())
+            return;
+
+        String actionValue = action != null ? action.getValue() : null;
+        switch (mode) {
+            case MULTI_VALUE:
+                MultiValueCategoryChange multiValueChange = MultiValueCategoryChange.create(change.getRecentChange(),
+                        categories);
+                multiValueChange.setAction(actionValue);
+                payloads.add(multiValueChange);
+                break;
+            case FAN_OUT:
+            default:
+                payloads.addAll(serializer.serialize(change.getRecentChange(), categories, actionValue));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.example.output;
+
+import io.example.schema.category.CategoryChange;
+import io.example.schema.page.RecentChange;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serializes the {@link CategoryChange} records of a change to JSON. The fields that come before the category and
+ * the fields that come after it are serialized once per change, and each record is copied together from them and its
+ * category. The records are byte for byte what the JSON converter of the {@code output} binding writes for a
+ * {@link CategoryChange}, with the fields in the order they are declared and {@code null} values included, so that
+ * the Pinot table can't tell them apart.
+ *
+ * @author Kenny Bastani
+ */
+public class JsonCategoryChangeSerializer implements CategoryChangeSerializer {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    @Override
+    public List<byte[]> serialize(RecentChange recentChange, List<String> categories, String action) {
+        CategoryChange shared = CategoryChange.create(recentChange, null);
+        shared.setAction(action);
+
+        Buffer buffer = new Buffer();
+        buffer.writeAscii("{\"id\":").writeNumber(shared.getId());
+        buffer.writeAscii(",\"uri\":").writeString(shared.getUri());
+        buffer.writeAscii(",\"title\":").writeString(shared.getTitle());
+        buffer.writeAscii(",\"category\":");
+        byte[] prefix = buffer.toByteArray();
+
+        buffer.reset();
+        buffer.writeAscii(",\"comment\":").writeString(shared.getComment());
+        buffer.writeAscii(",\"parsedComment\":").writeString(shared.getParsedComment());
+        buffer.writeAscii(",\"user\":").writeString(shared.getUser());
+        buffer.writeAscii(",\"domain\":").writeString(shared.getDomain());
+        buffer.writeAscii(",\"wiki\":").writeString(shared.getWiki());
+        buffer.writeAscii(",\"type\":").writeString(shared.getType());
+        buffer.writeAscii(",\"dateTime\":").writeString(shared.getDateTime());
+        buffer.writeAscii(",\"changeLength\":").writeNumber(shared.getChangeLength());
+        buffer.writeAscii(",\"uuid\":").writeString(shared.getUuid());
+        buffer.writeAscii(",\"changedTime\":").writeNumber(shared.getChangedTime());
+        buffer.writeAscii(",\"action\":").writeString(shared.getAction());
+        buffer.writeAscii("}");
+        byte[] suffix = buffer.toByteArray();
+
+        List<byte[]> records = new ArrayList<>(categories.size());
+        for (String category : categories) {
+            buffer.reset();
+            buffer.writeString(category);
+
+            byte[] record = new byte[prefix.length + buffer.size + suffix.length];
+            System.arraycopy(prefix, 0, record, 0, prefix.length);
+            System.arraycopy(buffer.bytes, 0, record, prefix.length, buffer.size);
+            System.arraycopy(suffix, 0, record, prefix.length + buffer.size, suffix.length);
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Override
+    public String getContentType() {
+        return MimeTypeUtils.APPLICATION_JSON_VALUE;
+    }
+
+    /**
+     * A growable buffer that JSON is written to as UTF-8, escaping strings the same way as Jackson.
+     */
+    private static class Buffer {
+
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        Buffer writeAscii(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++)
+                bytes[size++] = (byte) value.charAt(i);
+            return this;
+        }
+
+        Buffer writeNumber(Number value) {
+            return writeAscii(String.valueOf(value));
+        }
+
+        Buffer writeString(String value) {
+            if (value == null)
+                return writeAscii("null");
+
+            // Every char takes at most six bytes, either escaped as a unicode escape or encoded as UTF-8
+            ensureCapacity(value.length() * 6 + 2);
+            bytes[size++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    writeEscaped(c);
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xc0 | c >> 6);
+                    bytes[size++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    // Jackson escapes both halves of a character outside of the BMP instead of encoding it
+                    writeUnicodeEscape(c);
+                } else {
+                    bytes[size++] = (byte) (0xe0 | c >> 12);
+                    bytes[size++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    bytes[size++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            bytes[size++] = '"';
+            return this;
+        }
+
+        private void writeEscaped(char c) {
+            switch (c) {
+                case '"':
+                case '\\':
+                    bytes[size++] = '\\';
+                    bytes[size++] = (byte) c;
+                    break;
+                case '\b':
+                    escape('b');
+                    break;
+                case '\t':
+                    escape('t');
+                    break;
+                case '\n':
+                    escape('n');
+                    break;
+                case '\f':
+                    escape('f');
+                    break;
+                case '\r':
+                    escape('r');
+                    break;
+                default:
+                    if (c >= 0x20) {
+                        bytes[size++] = (byte) c;
+                    } else {
+                        writeUnicodeEscape(c);
+                    }
+            }
+        }
+
+        private void writeUnicodeEscape(char c) {
+            escape('u');
+            bytes[size++] = (byte) HEX[c >> 12];
+            bytes[size++] = (byte) HEX[c >> 8 & 0xf];
+            bytes[size++] = (byte) HEX[c >> 4 & 0xf];
+            bytes[size++] = (byte) HEX[c & 0xf];
+        }
+
+        private void escape(char c) {
+            bytes[size++] = '\\';
+            bytes[size++] = (byte) c;
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+    }
+}
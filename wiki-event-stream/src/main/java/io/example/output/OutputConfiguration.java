@@ -0,0 +1,45 @@
+package io.example.output;
+
+import io.example.categories.CategoryEnrichmentProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the {@link ChangeEncoder} for the output mode and format that are selected with the
+ * {@code wiki.output.mode} and {@code wiki.output.format} properties, and the {@link CategoryDiffTracker} when only
+ * category changes should be sent.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@EnableConfigurationProperties(OutputProperties.class)
+public class OutputConfiguration {
+
+    @Bean
+    public ChangeEncoder changeEncoder(OutputProperties properties) {
+        if (properties.getFormat() != OutputFormat.AVRO)
+            return new ChangeEncoder(properties.getMode());
+
+        if (properties.getMode() != OutputMode.FAN_OUT)
+            throw new IllegalStateException("The avro output format is only supported by the fan-out output mode");
+
+        // The schema is registered before the first record is sent, so that Pinot can always look up its id
+        OutputProperties.Avro avro = properties.getAvro();
+        int schemaId = new SchemaRegistryClient(avro.getRegistryUrl(), avro.getTimeout())
+                .register(avro.getSubject(), AvroCategoryChangeSerializer.SCHEMA);
+        return new ChangeEncoder(properties.getMode(), new AvroCategoryChangeSerializer(schemaId));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.output.diff.enabled", havingValue = "true")
+    public CategoryDiffTracker categoryDiffTracker(OutputProperties properties,
+                                                   CategoryEnrichmentProperties enrichmentProperties) {
+        // A change that overtook an earlier change of the same page would be diffed against the wrong categories
+        if (!enrichmentProperties.isOrdered())
+            throw new IllegalStateException("The category diff requires wiki.categories.enrichment.ordered=true");
+
+        return new CategoryDiffTracker(properties.getDiff());
+    }
+}
@@ -0,0 +1,20 @@
+package io.example.output;
+
+/**
+ * Decides how the records that are sent to Kafka are serialized.
+ *
+ * @author Kenny Bastani
+ */
+public enum OutputFormat {
+
+    /**
+     * Sends the records as JSON, which Pinot reads with its {@code KafkaJSONMessageDecoder}.
+     */
+    JSON,
+
+    /**
+     * Sends the records in Avro's binary encoding, with the id of their schema in a schema registry, which Pinot
+     * reads with its {@code KafkaConfluentSchemaRegistryAvroMessageDecoder}. Only the fan-out mode supports Avro.
+     */
+    AVRO
+}
@@ -0,0 +1,20 @@
+package io.example.output;
+
+/**
+ * Decides how a change that has been joined with its categories is written to Kafka.
+ *
+ * @author Kenny Bastani
+ */
+public enum OutputMode {
+
+    /**
+     * Sends one {@link io.example.schema.category.CategoryChange} record for each category of the changed page.
+     */
+    FAN_OUT,
+
+    /**
+     * Sends a single {@link io.example.schema.category.MultiValueCategoryChange} record for each change, with all
+     * of the page's categories in a multi-value {@code category} column.
+     */
+    MULTI_VALUE
+}
@@ -0,0 +1,142 @@
+package io.example.output;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures the format of the records that are sent to the {@code wiki-recent-change} topic.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.output")
+public class OutputProperties {
+
+    /**
+     * The output mode, which is either {@code fan-out} for one record per category, or {@code multi-value} for one
+     * record per change. The Pinot schema must match the mode, see the pinot directory for both schema variants.
+     */
+    private OutputMode mode = OutputMode.FAN_OUT;
+
+    /**
+     * The format of the records, which is either {@code json} or {@code avro}. The decoder of the Pinot table must
+     * match the format, see the pinot directory for the table variant that reads Avro.
+     */
+    private OutputFormat format = OutputFormat.JSON;
+
+    private final Diff diff = new Diff();
+
+    private final Avro avro = new Avro();
+
+    public OutputMode getMode() {
+        return mode;
+    }
+
+    public void setMode(OutputMode mode) {
+        this.mode = mode;
+    }
+
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(OutputFormat format) {
+        this.format = format;
+    }
+
+    public Diff getDiff() {
+        return diff;
+    }
+
+    public Avro getAvro() {
+        return avro;
+    }
+
+    public static class Diff {
+
+        /**
+         * Whether only the categories that were added to or removed from a page are sent, instead of the full list
+         * of categories for every change. This requires {@code wiki.categories.enrichment.ordered}, since the
+         * changes of a page have to be compared in the order they were made.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum number of pages to remember the last known categories for.
+         */
+        private long maxPages = 500_000L;
+
+        /**
+         * How often the full list of categories is sent again for a page, or zero to only send it for the first
+         * change that is seen for the page.
+         */
+        private Duration snapshotInterval = Duration.ofHours(24);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxPages() {
+            return maxPages;
+        }
+
+        public void setMaxPages(long maxPages) {
+            this.maxPages = maxPages;
+        }
+
+        public Duration getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    public static class Avro {
+
+        /**
+         * The URL of the schema registry that the schema of the records is registered with when the application
+         * starts. The stand-ins serve a file-based registry at the same URL.
+         */
+        private String registryUrl = "http://localhost:8200";
+
+        /**
+         * The subject that the schema is registered under, which is the subject that Pinot looks the schema up by.
+         */
+        private String subject = "wiki-recent-change-value";
+
+        /**
+         * How long to wait for the schema registry to answer.
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+
+        public String getRegistryUrl() {
+            return registryUrl;
+        }
+
+        public void setRegistryUrl(String registryUrl) {
+            this.registryUrl = registryUrl;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public void setSubject(String subject) {
+            this.subject = subject;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
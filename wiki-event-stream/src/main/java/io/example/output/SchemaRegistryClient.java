@@ -0,0 +1,60 @@
+package io.example.output;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Registers schemas with a schema registry through the REST API of the Confluent schema registry, which is also
+ * served by the registry of the stand-ins. Registering a schema that is already registered under a subject returns
+ * the id that it was registered with before.
+ *
+ * @author Kenny Bastani
+ */
+public class SchemaRegistryClient {
+
+    private static final MediaType REGISTRY_JSON = MediaType.parseMediaType("application/vnd.schemaregistry.v1+json");
+
+    private final WebClient client;
+    private final Duration timeout;
+
+    /**
+     * @param url     is the URL of the schema registry
+     * @param timeout is how long to wait for the registry to answer
+     */
+    public SchemaRegistryClient(String url, Duration timeout) {
+        this.client = WebClient.builder().baseUrl(url).build();
+        this.timeout = timeout;
+    }
+
+    /**
+     * Registers a schema under a subject.
+     *
+     * @param subject is the subject to register the schema under, which is {@code <topic>-value} for the values of
+     *                the records of a topic
+     * @param schema  is the schema to register
+     * @return the id of the schema
+     */
+    public int register(String subject, String schema) {
+        String response = client.post()
+                .uri("/subjects/{subject}/versions", subject)
+                .contentType(REGISTRY_JSON)
+                .syncBody(Map.of("schema", schema))
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(timeout);
+
+        return parseId(response);
+    }
+
+    static int parseId(String response) {
+        JsonObject body = JsonParser.parseString(response).getAsJsonObject();
+        if (!body.has("id"))
+            throw new IllegalStateException("The schema registry did not return the id of the schema: " + response);
+        return body.get("id").getAsInt();
+    }
+}
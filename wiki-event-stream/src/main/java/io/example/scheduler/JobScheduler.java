@@ -1,27 +1,50 @@
 package io.example.scheduler;
 
 import io.example.clients.RecentChangeProcessor;
+import io.example.warmup.CategoryWarmUp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+
 @EnableScheduling
 @Service
 public class JobScheduler {
     private static Logger logger = LoggerFactory.getLogger(JobScheduler.class);
     private final RecentChangeProcessor recentChangeProcessor;
+    private final CategoryWarmUp categoryWarmUp;
 
-    public JobScheduler(RecentChangeProcessor recentChangeProcessor) {
+    public JobScheduler(RecentChangeProcessor recentChangeProcessor, CategoryWarmUp categoryWarmUp) {
         this.recentChangeProcessor = recentChangeProcessor;
+        this.categoryWarmUp = categoryWarmUp;
     }
 
     @Scheduled(initialDelay = 1000 * 5, fixedDelay=1000)
     public void start() {
         if(!recentChangeProcessor.isRunning()) {
+            // The cache is warmed up before the checkpointed backlog is replayed, and only on the first start
+            categoryWarmUp.run();
             logger.info("Starting the recent change wiki event processor...");
             recentChangeProcessor.start();
         }
     }
+
+    @Scheduled(initialDelayString = "${wiki.checkpoint.interval}", fixedDelayString = "${wiki.checkpoint.interval}")
+    public void checkpoint() {
+        try {
+            recentChangeProcessor.checkpoint();
+        } catch (Exception ex) {
+            logger.error("Unable to checkpoint the recent change wiki event processor", ex);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.info("Stopping the recent change wiki event processor...");
+        recentChangeProcessor.stop();
+        recentChangeProcessor.checkpoint();
+    }
 }
@@ -0,0 +1,124 @@
+package io.example.schema.category;
+
+import io.example.schema.page.RecentChange;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link RecentChange} that has been joined with the categories of the page that was changed. This is handed
+ * from the enrichment stage to the Kafka sender, which encodes it into one or more records depending on the
+ * configured output mode. When only category changes are sent, the categories are the ones that were added to the
+ * page, or the full list for a snapshot, and the removed categories are the ones that were taken off the page.
+ * <p>
+ * A change is created as soon as it is received, and carries its position in the change stream through every stage
+ * of the pipeline, so that the processor only checkpoints the position of changes that were handed to the binder.
+ *
+ * @author Kenny Bastani
+ */
+public class CategorizedChange {
+
+    private RecentChange recentChange;
+    private List<String> categories;
+    private List<String> removedCategories = Collections.emptyList();
+    private CategoryAction action;
+    private String eventId;
+    private Long offset;
+
+    public CategorizedChange() {
+    }
+
+    public CategorizedChange(RecentChange recentChange, String eventId, Long offset) {
+        this.recentChange = recentChange;
+        this.eventId = eventId;
+        this.offset = offset;
+    }
+
+    public CategorizedChange(RecentChange recentChange, List<String> categories) {
+        this.recentChange = recentChange;
+        this.categories = categories;
+    }
+
+    public CategorizedChange(RecentChange recentChange, List<String> categories, List<String> removedCategories,
+                             CategoryAction action) {
+        this.recentChange = recentChange;
+        this.categories = categories;
+        this.removedCategories = removedCategories;
+        this.action = action;
+    }
+
+    public RecentChange getRecentChange() {
+        return recentChange;
+    }
+
+    public void setRecentChange(RecentChange recentChange) {
+        this.recentChange = recentChange;
+    }
+
+    /**
+     * The categories of the page, which are {@code null} if they couldn't be looked up. Such a change is passed on
+     * to the sender without sending any records, so that the checkpoint moves past it.
+     */
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+    }
+
+    public List<String> getRemovedCategories() {
+        return removedCategories;
+    }
+
+    public void setRemovedCategories(List<String> removedCategories) {
+        this.removedCategories = removedCategories;
+    }
+
+    /**
+     * The {@link CategoryAction} that applies to the categories, which is null when the full list of categories is
+     * sent for every change.
+     */
+    public CategoryAction getAction() {
+        return action;
+    }
+
+    public void setAction(CategoryAction action) {
+        this.action = action;
+    }
+
+    /**
+     * The raw id of the server-sent event that the change was received in, which is {@code null} for streams that
+     * don't send event ids.
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * The epoch millis of the change, which the stream is resumed from when there is no event id.
+     */
+    public Long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    @Override
+    public String toString() {
+        return "CategorizedChange{" +
+                "recentChange=" + recentChange +
+                ", categories=" + categories +
+                ", removedCategories=" + removedCategories +
+                ", action=" + action +
+                ", eventId='" + eventId + '\'' +
+                ", offset=" + offset +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package io.example.schema.category;
+
+/**
+ * Describes how a category relates to a change when the output only contains the categories that changed.
+ *
+ * @author Kenny Bastani
+ */
+public enum CategoryAction {
+
+    /**
+     * The category was added to the page since its last known edit.
+     */
+    ADDED("added"),
+
+    /**
+     * The category was removed from the page since its last known edit.
+     */
+    REMOVED("removed"),
+
+    /**
+     * The category is one of the page's full list of categories, which is sent the first time a page is seen and
+     * periodically after that. The snapshot replaces every category that was sent for the page before it.
+     */
+    SNAPSHOT("snapshot");
+
+    private final String value;
+
+    CategoryAction(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -20,6 +20,7 @@ public class CategoryChange {
     private Integer changeLength;
     private String uuid;
     private Long changedTime;
+    private String action;
 
     public CategoryChange() {
     }
@@ -136,6 +137,14 @@ public class CategoryChange {
         this.changedTime = changedTime;
     }
 
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
     public static CategoryChange create(RecentChange recentChange, String category) {
         CategoryChange categoryChange = new CategoryChange();
         categoryChange.setId(recentChange.getId());
@@ -175,6 +184,7 @@ public class CategoryChange {
                 ", changeLength=" + changeLength +
                 ", uuid='" + uuid + '\'' +
                 ", changedTime=" + changedTime +
+                ", action='" + action + '\'' +
                 '}';
     }
 }
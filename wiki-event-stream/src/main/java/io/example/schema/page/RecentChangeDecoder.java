@@ -0,0 +1,143 @@
+package io.example.schema.page;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Decodes the JSON payload of a Wikimedia recent change event in a single pass using Gson's streaming
+ * {@link JsonReader}. Only the fields that are needed to filter a change and to join it with its categories are
+ * read into a {@link RecentChange}, every other property is skipped without being materialized. This avoids
+ * binding the full event tree, which matters at firehose rates where most events are discarded anyway.
+ *
+ * @author Kenny Bastani
+ */
+public class RecentChangeDecoder {
+
+    /**
+     * Decodes the recent change event contained in the data of a server-sent event.
+     *
+     * @param json is the JSON payload of the event
+     * @return a {@link RecentChange} populated with the fields used by the processor
+     */
+    public RecentChange decode(String json) {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return readRecentChange(reader);
+        } catch (IOException | IllegalStateException | NumberFormatException ex) {
+            throw new JsonParseException("Unable to decode recent change event", ex);
+        }
+    }
+
+    private RecentChange readRecentChange(JsonReader reader) throws IOException {
+        RecentChange recentChange = new RecentChange();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "meta":
+                    recentChange.setMeta(readMeta(reader));
+                    break;
+                case "id":
+                    recentChange.setId(reader.nextInt());
+                    break;
+                case "type":
+                    recentChange.setType(reader.nextString());
+                    break;
+                case "title":
+                    recentChange.setTitle(reader.nextString());
+                    break;
+                case "comment":
+                    recentChange.setComment(reader.nextString());
+                    break;
+                case "parsedcomment":
+                    recentChange.setParsedcomment(reader.nextString());
+                    break;
+                case "user":
+                    recentChange.setUser(reader.nextString());
+                    break;
+                case "wiki":
+                    recentChange.setWiki(reader.nextString());
+                    break;
+                case "length":
+                    recentChange.setLength(readLength(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return recentChange;
+    }
+
+    private Meta readMeta(JsonReader reader) throws IOException {
+        Meta meta = new Meta();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "uri":
+                    meta.setUri(reader.nextString());
+                    break;
+                case "id":
+                    meta.setId(reader.nextString());
+                    break;
+                case "dt":
+                    meta.setDt(parseDate(reader.nextString()));
+                    break;
+                case "domain":
+                    meta.setDomain(reader.nextString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return meta;
+    }
+
+    private Length readLength(JsonReader reader) throws IOException {
+        Length length = new Length();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "old":
+                    length.setOld(reader.nextInt());
+                    break;
+                case "new":
+                    length.setNew(reader.nextInt());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return length;
+    }
+
+    private Date parseDate(String value) {
+        try {
+            return Date.from(OffsetDateTime.parse(value).toInstant());
+        } catch (DateTimeParseException ex) {
+            throw new JsonParseException("Invalid event datetime: " + value, ex);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.example.segment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records of a {@link SegmentedLog} in the order they were appended, mapping one segment at a time.
+ *
+ * @author Kenny Bastani
+ */
+public class SegmentReader implements Iterator<byte[]>, Closeable {
+
+    private final Iterator<Path> segments;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private byte[] next;
+
+    SegmentReader(List<Path> segments) {
+        this.segments = segments.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null)
+            next = readNext();
+        return next != null;
+    }
+
+    @Override
+    public byte[] next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        byte[] record = next;
+        next = null;
+        return record;
+    }
+
+    private byte[] readNext() {
+        try {
+            while (true) {
+                int length = buffer != null ? SegmentedLog.frameLength(buffer) : -1;
+                if (length > 0) {
+                    byte[] record = new byte[length];
+                    buffer.position(buffer.position() + SegmentedLog.HEADER_SIZE);
+                    buffer.get(record);
+                    return record;
+                }
+
+                // The current segment has ended, either cleanly or at a torn frame, so move on to the next one
+                closeSegment();
+                if (!segments.hasNext())
+                    return null;
+
+                channel = FileChannel.open(segments.next(), StandardOpenOption.READ);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read the segmented log", ex);
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        buffer = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+}
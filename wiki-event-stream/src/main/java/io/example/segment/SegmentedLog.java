@@ -0,0 +1,183 @@
+package io.example.segment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of records that is split into fixed-size segment files, which are memory-mapped while they are
+ * being written. Each record is framed with its length and a CRC-32 of its bytes, and a segment ends at the first
+ * frame with a length of zero or a checksum that doesn't match, so a segment that was not closed cleanly is still
+ * readable up to the last record that was fully written. The length of a frame is written last, after the record and
+ * its checksum. When a record doesn't fit into the current segment, the log rolls over to a new one.
+ *
+ * @author Kenny Bastani
+ */
+public class SegmentedLog implements Closeable {
+
+    static final String SEGMENT_SUFFIX = ".segment";
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentIndex;
+
+    /**
+     * Opens the log in the given directory for appending. If the directory already contains segments, records are
+     * appended after the last record of the last segment.
+     *
+     * @param directory   is the directory that the segment files are kept in
+     * @param segmentSize is the size in bytes of each segment file
+     * @throws IOException if the directory or the last segment can't be opened
+     */
+    public SegmentedLog(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE)
+            throw new IllegalArgumentException("The segment size must be larger than a record header");
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            openSegment(0L);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            openSegment(indexOf(last));
+            seekToEnd();
+        }
+    }
+
+    /**
+     * Appends a record to the log, rolling over to a new segment if it doesn't fit into the current one.
+     *
+     * @param record is the non-empty record to append
+     * @throws IOException if a new segment can't be created
+     */
+    public synchronized void append(byte[] record) throws IOException {
+        if (record.length == 0)
+            throw new IllegalArgumentException("Empty records can't be appended to the log");
+        if (HEADER_SIZE + record.length > segmentSize)
+            throw new IllegalArgumentException("A record of " + record.length + " bytes doesn't fit into a segment");
+        if (buffer == null)
+            throw new IllegalStateException("The log is closed");
+
+        if (buffer.remaining() < HEADER_SIZE + record.length) {
+            closeSegment();
+            openSegment(segmentIndex + 1);
+        }
+
+        // The length is published last, so that a frame with a length always has its record and checksum behind it
+        CRC32 checksum = new CRC32();
+        checksum.update(record);
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.put(record);
+        buffer.putInt(start + Integer.BYTES, (int) checksum.getValue());
+        buffer.putInt(start, record.length);
+    }
+
+    /**
+     * Flushes the records that were appended to the current segment to disk.
+     */
+    public synchronized void flush() {
+        if (buffer != null)
+            buffer.force();
+    }
+
+    /**
+     * Flushes and closes the current segment, trimming it to the records that were written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            closeSegment();
+            buffer = null;
+        }
+    }
+
+    /**
+     * Opens a reader over every record in the log in the given directory, in the order they were appended.
+     *
+     * @param directory is the directory that the segment files are kept in
+     * @return a {@link SegmentReader} that must be closed after reading
+     * @throws IOException if the segments in the directory can't be listed
+     */
+    public static SegmentReader read(Path directory) throws IOException {
+        return new SegmentReader(segments(directory));
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory))
+            return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads the length of the frame at the position of the buffer, checking that its record was fully written.
+     *
+     * @param buffer is the segment, positioned at the start of a frame
+     * @return the length of the record in the frame, or {@code -1} if the segment ends at this frame
+     */
+    static int frameLength(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE)
+            return -1;
+
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - HEADER_SIZE)
+            return -1;
+
+        ByteBuffer record = buffer.duplicate();
+        record.position(start + HEADER_SIZE);
+        record.limit(start + HEADER_SIZE + length);
+        CRC32 checksum = new CRC32();
+        checksum.update(record);
+        return (int) checksum.getValue() == buffer.getInt(start + Integer.BYTES) ? length : -1;
+    }
+
+    private static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void openSegment(long index) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+        segmentIndex = index;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private void seekToEnd() {
+        // A torn frame at the end is overwritten by the next record that is appended
+        int length;
+        while ((length = frameLength(buffer)) > 0)
+            buffer.position(buffer.position() + HEADER_SIZE + length);
+    }
+
+    private void closeSegment() throws IOException {
+        try {
+            buffer.force();
+            channel.truncate(buffer.position());
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.example.stream;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects to the live Wikimedia event platform for the stream of recent changes, or to a stand-in for it that
+ * serves the same endpoint. A single client with its own connection pool is used for every connection, so that
+ * reconnecting reuses the pool instead of building a new client. A connection that receives nothing, not even a
+ * heartbeat, for longer than the read-idle timeout is closed with an error, so that a dead connection is detected
+ * without tearing down a healthy one during a quiet period. The body is decoded by a {@link ServerSentEventDecoder}.
+ *
+ * @author Kenny Bastani
+ */
+public class LiveWikiStreamClient implements WikiStreamClient {
+
+    private static final String STREAM_URI = "/v2/stream/recentchange";
+
+    private final WebClient client;
+    private final ServerSentEventDecoder decoder = new ServerSentEventDecoder();
+
+    public LiveWikiStreamClient(String host, WikiStreamProperties.Connection connection) {
+        long readIdleTimeout = connection.getReadIdleTimeout().toMillis();
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.fixed("wiki-stream",
+                connection.getMaxConnections(), connection.getConnectTimeout().toMillis()))
+                .compress(connection.isCompression())
+                .keepAlive(true)
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                                Math.toIntExact(connection.getConnectTimeout().toMillis()))
+                        .option(ChannelOption.SO_KEEPALIVE, true)
+                        .doOnConnected(conn -> conn.addHandlerLast(
+                                new ReadTimeoutHandler(readIdleTimeout, TimeUnit.MILLISECONDS))));
+
+        this.client = WebClient.builder()
+                .baseUrl(host)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> connect(Long offset, String lastEventId) {
+        // Fetches a reactive stream that processes server-sent events from the Wikimedia event platform
+        WebClient.RequestHeadersSpec<?> request;
+        if(lastEventId == null) {
+            request = client.get().uri(String.format(STREAM_URI + "?since=%s", offset));
+        } else {
+            request = client.get().uri(STREAM_URI).header("Last-Event-Id", lastEventId);
+        }
+
+        return decoder.decode(request.accept(MediaType.TEXT_EVENT_STREAM).retrieve().bodyToFlux(DataBuffer.class));
+    }
+}
@@ -0,0 +1,78 @@
+package io.example.stream;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides how long to wait before reconnecting to the change stream. The delay doubles with every failed attempt up
+ * to a maximum, and is randomly shortened by up to the jitter factor, so that many clients that lost their
+ * connection at the same time don't reconnect at the same time. Unlike {@code retryBackoff}, the attempts are reset
+ * once the connection is healthy again, so that a drop after hours of streaming doesn't inherit the delay of the
+ * failures that came before it.
+ *
+ * @author Kenny Bastani
+ */
+public class ReconnectBackoff {
+
+    private final Duration firstBackoff;
+    private final Duration maxBackoff;
+    private final double jitter;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    public ReconnectBackoff(Duration firstBackoff, Duration maxBackoff, double jitter) {
+        if (jitter < 0.0 || jitter > 1.0)
+            throw new IllegalArgumentException("The jitter factor must be between 0 and 1");
+        this.firstBackoff = firstBackoff;
+        this.maxBackoff = maxBackoff;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Retries a failed connection after the next delay, for use with {@link Flux#retryWhen}.
+     *
+     * @param errors is the companion flux of the errors that ended each connection
+     * @return a publisher that triggers a reconnect after each delay
+     */
+    public Publisher<Long> retries(Flux<Throwable> errors) {
+        return errors.concatMap(error -> Mono.delay(nextDelay()));
+    }
+
+    /**
+     * Reconnects a connection that was closed by the server after the first delay, for use with
+     * {@link Flux#repeatWhen}. The server closes the stream every so often, which isn't a failure.
+     *
+     * @param completions is the companion flux of the connections that completed
+     * @return a publisher that triggers a reconnect after each delay
+     */
+    public Publisher<Long> repeats(Flux<Long> completions) {
+        return completions.concatMap(completion -> Mono.delay(withJitter(firstBackoff.toMillis())));
+    }
+
+    /**
+     * Resets the attempts, which is called when the connection has proven to be healthy.
+     */
+    public void reset() {
+        // This is called for every event, so the shared counter is only written to when there is something to reset
+        if (attempts.get() != 0)
+            attempts.set(0);
+    }
+
+    /**
+     * @return the delay before the next attempt, which doubles with every attempt since the last reset
+     */
+    public Duration nextDelay() {
+        int attempt = Math.min(attempts.getAndIncrement(), 30);
+        long delay = Math.min(maxBackoff.toMillis(), firstBackoff.toMillis() << attempt);
+        return withJitter(Math.max(delay, 0L));
+    }
+
+    private Duration withJitter(long delay) {
+        long shortening = (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(delay - shortening);
+    }
+}
@@ -0,0 +1,111 @@
+package io.example.stream;
+
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A raw server-sent event from the Wikimedia change stream, as it was received, along with the time it arrived.
+ * Events are recorded in a compact binary form, so that recording keeps up with the live stream.
+ *
+ * @author Kenny Bastani
+ */
+public class RecordedEvent {
+
+    private final String id;
+    private final String event;
+    private final String data;
+    private final long arrivalTime;
+
+    public RecordedEvent(String id, String event, String data, long arrivalTime) {
+        this.id = id;
+        this.event = event;
+        this.data = data;
+        this.arrivalTime = arrivalTime;
+    }
+
+    public static RecordedEvent of(ServerSentEvent<String> event, long arrivalTime) {
+        return new RecordedEvent(event.id(), event.event(), event.data(), arrivalTime);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * @return the epoch milliseconds when the event was received from the change stream
+     */
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public ServerSentEvent<String> toServerSentEvent() {
+        ServerSentEvent.Builder<String> builder = ServerSentEvent.builder();
+        if (id != null)
+            builder.id(id);
+        if (event != null)
+            builder.event(event);
+        if (data != null)
+            builder.data(data);
+        return builder.build();
+    }
+
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (data == null ? 0 : data.length()));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(arrivalTime);
+            writeString(out, id);
+            writeString(out, event);
+            writeString(out, data);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static RecordedEvent fromBytes(byte[] bytes) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            long arrivalTime = in.readLong();
+            return new RecordedEvent(readString(in), readString(in), readString(in), arrivalTime);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read a recorded event", ex);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
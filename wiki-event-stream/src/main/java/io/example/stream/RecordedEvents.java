@@ -0,0 +1,68 @@
+package io.example.stream;
+
+import io.example.segment.SegmentReader;
+import io.example.segment.SegmentedLog;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads the events of a recording of the change stream from its {@link SegmentedLog}, in the order they arrived.
+ *
+ * @author Kenny Bastani
+ */
+public final class RecordedEvents {
+
+    private RecordedEvents() {
+    }
+
+    /**
+     * @param directory is the directory of the {@link SegmentedLog} that the events were recorded to
+     * @return the recorded events, which are read lazily, and the log is closed when the stream ends or is cancelled
+     */
+    public static Flux<RecordedEvent> read(Path directory) {
+        return Flux.using(() -> SegmentedLog.read(directory),
+                reader -> Flux.fromIterable(() -> reader).map(RecordedEvent::fromBytes),
+                RecordedEvents::closeQuietly);
+    }
+
+    /**
+     * Resumes a recording after the event with the given id, in a single pass that skips the events up to it. When
+     * there is no id, or the pass reaches the end of the recording without finding it, which happens when it is from
+     * a different recording, the recording is read from the given time instead, or from the start without one.
+     *
+     * @param directory   is the directory of the {@link SegmentedLog} that the events were recorded to
+     * @param lastEventId is the id of the last event that was received, or null
+     * @param since       is the epoch milliseconds of the earliest arrival to read when the id isn't found, or null
+     * @return the recorded events after the last event that was received
+     */
+    public static Flux<RecordedEvent> resume(Path directory, String lastEventId, Long since) {
+        if (lastEventId == null)
+            return readSince(directory, since);
+
+        return Flux.defer(() -> {
+            boolean[] found = {false};
+            return read(directory)
+                    .filter(event -> {
+                        if (found[0])
+                            return true;
+                        found[0] = lastEventId.equals(event.getId());
+                        return false;
+                    })
+                    .concatWith(Flux.defer(() -> found[0] ? Flux.empty() : readSince(directory, since)));
+        });
+    }
+
+    private static Flux<RecordedEvent> readSince(Path directory, Long since) {
+        Flux<RecordedEvent> events = read(directory);
+        return since == null ? events : events.skipUntil(event -> event.getArrivalTime() >= since);
+    }
+
+    private static void closeQuietly(SegmentReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.example.stream;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+/**
+ * Records every event that is received from another {@link WikiStreamClient} before passing it on.
+ *
+ * @author Kenny Bastani
+ */
+public class RecordingWikiStreamClient implements WikiStreamClient {
+
+    private final WikiStreamClient delegate;
+    private final SseRecorder recorder;
+
+    public RecordingWikiStreamClient(WikiStreamClient delegate, SseRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> connect(Long offset, String lastEventId) {
+        return delegate.connect(offset, lastEventId).doOnNext(recorder::record);
+    }
+}
@@ -0,0 +1,63 @@
+package io.example.stream;
+
+import io.example.segment.SegmentedLog;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Replays a recording of the change stream from a {@link SegmentedLog} instead of connecting to Wikimedia. The
+ * events are replayed with the same gaps between them as when they were recorded, divided by the replay speed, so
+ * that a speed of {@code 1} replays the stream as it happened and a speed of {@code 60} replays an hour in a minute.
+ * A speed of {@code 0} replays the events as fast as the pipeline can take them.
+ * <p>
+ * When the processor reconnects with the id of the last event it received, and that event is part of the
+ * recording, the replay resumes after it. Otherwise, the whole recording is replayed.
+ *
+ * @author Kenny Bastani
+ */
+public class ReplayWikiStreamClient implements WikiStreamClient {
+
+    private final Path directory;
+    private final double speed;
+
+    public ReplayWikiStreamClient(Path directory, double speed) {
+        if (speed < 0)
+            throw new IllegalArgumentException("The replay speed can't be negative");
+
+        this.directory = directory;
+        this.speed = speed;
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> connect(Long offset, String lastEventId) {
+        return pace(RecordedEvents.resume(directory, lastEventId, null))
+                .map(RecordedEvent::toServerSentEvent)
+                .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Delays each event until it is due, relative to when the first replayed event was emitted.
+     */
+    private Flux<RecordedEvent> pace(Flux<RecordedEvent> events) {
+        if (speed == 0)
+            return events;
+
+        return Flux.defer(() -> {
+            long start = System.currentTimeMillis();
+            long[] firstArrival = {-1L};
+            return events.concatMap(event -> {
+                if (firstArrival[0] < 0)
+                    firstArrival[0] = event.getArrivalTime();
+
+                long due = (long) ((event.getArrivalTime() - firstArrival[0]) / speed);
+                long wait = due - (System.currentTimeMillis() - start);
+                return wait > 0 ? Mono.just(event).delayElement(Duration.ofMillis(wait)) : Mono.just(event);
+            });
+        });
+    }
+}
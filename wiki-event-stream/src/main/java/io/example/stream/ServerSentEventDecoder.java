@@ -0,0 +1,134 @@
+package io.example.stream;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes a {@code text/event-stream} body into server-sent events. The decoder of the framework splits the body
+ * with {@code bufferUntil}, which in this version of Reactor fails the stream with an overflow when the pipeline
+ * behind it is busy, such as while catching up on a backlog, and forces a reconnect. Here lines are split with a
+ * {@code concatMapIterable} and events are assembled with a {@code handle}, which only ever emit what was requested.
+ * <p>
+ * Comments, which are what the server sends as heartbeats, and events without data are dropped, since they don't
+ * carry a change. They still reset the read-idle timeout of the connection, since that is based on bytes received.
+ *
+ * @author Kenny Bastani
+ */
+public class ServerSentEventDecoder {
+
+    /**
+     * @param body is the body of a {@code text/event-stream} response
+     * @return the events in the body, in order
+     */
+    public Flux<ServerSentEvent<String>> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            LineSplitter lines = new LineSplitter();
+            EventAssembler events = new EventAssembler();
+            return body.concatMapIterable(lines::split).handle(events::accept);
+        });
+    }
+
+    /**
+     * Splits buffers into lines, keeping a line that is split across buffers until its end arrives. Lines are only
+     * decoded as UTF-8 once they are complete, since a buffer can end in the middle of a character.
+     */
+    private static class LineSplitter {
+
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+
+        List<String> split(DataBuffer buffer) {
+            List<String> lines = new ArrayList<>();
+            try {
+                ByteBuffer bytes = buffer.asByteBuffer();
+                byte[] array = new byte[bytes.remaining()];
+                bytes.get(array);
+
+                int start = 0;
+                for (int i = 0; i < array.length; i++) {
+                    if (array[i] == '\n') {
+                        partial.write(array, start, i - start);
+                        lines.add(takeLine());
+                        start = i + 1;
+                    }
+                }
+                partial.write(array, start, array.length - start);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return lines;
+        }
+
+        private String takeLine() {
+            String line = new String(partial.toByteArray(), StandardCharsets.UTF_8);
+            partial.reset();
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+    }
+
+    /**
+     * Assembles the fields of an event until the blank line that ends it, as described by the
+     * <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">server-sent events</a> specification.
+     */
+    private static class EventAssembler {
+
+        private StringBuilder data;
+        private String id;
+        private String event;
+        private Duration retry;
+
+        void accept(String line, SynchronousSink<ServerSentEvent<String>> sink) {
+            if (line.isEmpty()) {
+                if (data != null) {
+                    sink.next(ServerSentEvent.builder(data.toString()).id(id).event(event).retry(retry).build());
+                }
+                data = null;
+                id = null;
+                event = null;
+                retry = null;
+                return;
+            }
+
+            if (line.charAt(0) == ':')
+                return;
+
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = "";
+            if (colon >= 0) {
+                int start = colon + 1 < line.length() && line.charAt(colon + 1) == ' ' ? colon + 2 : colon + 1;
+                value = line.substring(start);
+            }
+
+            switch (field) {
+                case "data":
+                    if (data == null) {
+                        data = new StringBuilder(value);
+                    } else {
+                        data.append('\n').append(value);
+                    }
+                    break;
+                case "id":
+                    id = value;
+                    break;
+                case "event":
+                    event = value;
+                    break;
+                case "retry":
+                    if (!value.isEmpty() && value.chars().allMatch(Character::isDigit))
+                        retry = Duration.ofMillis(Long.parseLong(value));
+                    break;
+                default:
+            }
+        }
+    }
+}
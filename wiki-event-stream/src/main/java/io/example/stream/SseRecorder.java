@@ -0,0 +1,41 @@
+package io.example.stream;
+
+import io.example.segment.SegmentedLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Appends the raw server-sent events of the change stream to a {@link SegmentedLog}, along with the time that each
+ * event arrived, so that the stream can be replayed later on. A failure to record an event is logged and doesn't
+ * interrupt the stream, since the recording is secondary to ingestion.
+ *
+ * @author Kenny Bastani
+ */
+public class SseRecorder implements Closeable {
+    private static Logger logger = LoggerFactory.getLogger(SseRecorder.class);
+    private final SegmentedLog log;
+    private long failures = 0L;
+
+    public SseRecorder(SegmentedLog log) {
+        this.log = log;
+    }
+
+    public void record(ServerSentEvent<String> event) {
+        try {
+            log.append(RecordedEvent.of(event, System.currentTimeMillis()).toBytes());
+        } catch (IOException | RuntimeException ex) {
+            // Logs the first failure and then every thousandth, so that a full disk doesn't flood the logs
+            if (failures++ % 1000 == 0)
+                logger.error("Unable to record event {} ({} failures)", event.id(), failures, ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
@@ -0,0 +1,22 @@
+package io.example.stream;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+/**
+ * A source of the server-sent events that describe recent changes on Wikipedia.
+ *
+ * @author Kenny Bastani
+ */
+public interface WikiStreamClient {
+
+    /**
+     * Connects to the change stream. If a last event id is given, the stream resumes after that event, otherwise
+     * it starts at the given offset.
+     *
+     * @param offset      is the epoch milliseconds to start the stream from when there is no last event id
+     * @param lastEventId is the id of the last event that was received, or null
+     * @return a Flux of the {@link ServerSentEvent} payloads of the change stream
+     */
+    Flux<ServerSentEvent<String>> connect(Long offset, String lastEventId);
+}
@@ -0,0 +1,48 @@
+package io.example.stream;
+
+import io.example.segment.SegmentedLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Configures the {@link WikiStreamClient} that is selected with the {@code wiki.stream.mode} property.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@EnableConfigurationProperties(WikiStreamProperties.class)
+public class WikiStreamConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.stream.mode", havingValue = "live", matchIfMissing = true)
+    public WikiStreamClient liveWikiStreamClient(WikiStreamProperties properties) {
+        return new LiveWikiStreamClient(properties.getHost(), properties.getConnection());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.stream.mode", havingValue = "record")
+    public SseRecorder sseRecorder(WikiStreamProperties properties) throws IOException {
+        WikiStreamProperties.Recording recording = properties.getRecording();
+        return new SseRecorder(new SegmentedLog(Paths.get(recording.getPath()),
+                Math.toIntExact(recording.getSegmentSize().toBytes())));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.stream.mode", havingValue = "record")
+    public WikiStreamClient recordingWikiStreamClient(WikiStreamProperties properties, SseRecorder recorder) {
+        return new RecordingWikiStreamClient(
+                new LiveWikiStreamClient(properties.getHost(), properties.getConnection()), recorder);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wiki.stream.mode", havingValue = "replay")
+    public WikiStreamClient replayWikiStreamClient(WikiStreamProperties properties) {
+        return new ReplayWikiStreamClient(Paths.get(properties.getRecording().getPath()),
+                properties.getReplay().getSpeed());
+    }
+}
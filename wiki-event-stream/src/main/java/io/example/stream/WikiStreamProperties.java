@@ -0,0 +1,210 @@
+package io.example.stream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configures where the recent change processor receives the Wikimedia change stream from.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.stream")
+public class WikiStreamProperties {
+
+    /**
+     * The source of the change stream, which is either {@code live}, {@code record} to also record the live stream
+     * to disk, or {@code replay} to replay a recording without connecting to Wikimedia.
+     */
+    private String mode = "live";
+
+    /**
+     * The host of the Wikimedia event platform, which can be pointed at a stand-in for benchmarks.
+     */
+    private String host = "https://stream.wikimedia.org";
+
+    private final Connection connection = new Connection();
+
+    private final Reconnect reconnect = new Reconnect();
+
+    private final Recording recording = new Recording();
+
+    private final Replay replay = new Replay();
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public Reconnect getReconnect() {
+        return reconnect;
+    }
+
+    public Recording getRecording() {
+        return recording;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public static class Connection {
+
+        /**
+         * The most connections that the pool of the stream client keeps open to the host.
+         */
+        private int maxConnections = 2;
+
+        /**
+         * How long to wait for a connection to be established.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /**
+         * How long the connection may go without receiving any bytes, whether events or heartbeat comments, before
+         * it is considered dead and reconnected.
+         */
+        private Duration readIdleTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Whether to ask for the stream to be gzip compressed.
+         */
+        private boolean compression = true;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadIdleTimeout() {
+            return readIdleTimeout;
+        }
+
+        public void setReadIdleTimeout(Duration readIdleTimeout) {
+            this.readIdleTimeout = readIdleTimeout;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+    }
+
+    public static class Reconnect {
+
+        /**
+         * The delay before the first reconnect, which doubles with every failed attempt after it.
+         */
+        private Duration firstBackoff = Duration.ofMillis(500);
+
+        /**
+         * The longest delay between reconnects.
+         */
+        private Duration maxBackoff = Duration.ofSeconds(30);
+
+        /**
+         * The share of each delay that is randomly taken off, so that clients don't reconnect in lockstep.
+         */
+        private double jitter = 0.5;
+
+        public Duration getFirstBackoff() {
+            return firstBackoff;
+        }
+
+        public void setFirstBackoff(Duration firstBackoff) {
+            this.firstBackoff = firstBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+    }
+
+    public static class Recording {
+
+        /**
+         * The directory that the recording's segment files are kept in.
+         */
+        private String path = "recordings/recentchange";
+
+        /**
+         * The size of each memory-mapped segment file.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+    }
+
+    public static class Replay {
+
+        /**
+         * The speed the recording is replayed at, as a multiple of the original speed, or {@code 0} to replay it
+         * as fast as possible.
+         */
+        private double speed = 1.0;
+
+        public double getSpeed() {
+            return speed;
+        }
+
+        public void setSpeed(double speed) {
+            this.speed = speed;
+        }
+    }
+}
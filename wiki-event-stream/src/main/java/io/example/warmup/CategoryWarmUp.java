@@ -0,0 +1,158 @@
+package io.example.warmup;
+
+import io.example.categories.CachingCategoryLookup;
+import io.example.categories.CategoryLookup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms up the category cache with the pages that are edited most often before the recent change processor starts.
+ * Without it, a cold start looks up every page of the checkpointed backlog with the MediaWiki API at once, right as
+ * the backlog is replayed. The hot titles are looked up in batches, with a bounded number of batches in flight, and
+ * the warm-up gives up once its timeout has passed, so that a slow API or an unreachable title source only delays
+ * the start of the processor instead of preventing it.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryWarmUp {
+    private static Logger logger = LoggerFactory.getLogger(CategoryWarmUp.class);
+
+    public enum State {
+        PENDING, RUNNING, COMPLETE, TIMED_OUT, FAILED, DISABLED
+    }
+
+    private final HotTitleSource source;
+    private final CategoryLookup categoryLookup;
+    private final Scheduler scheduler;
+    private final int limit;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration timeout;
+    private final AtomicInteger titles = new AtomicInteger();
+    private final AtomicInteger warmed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile State state;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    /**
+     * @param source         provides the titles to warm up, or {@code null} to start without warming up
+     * @param categoryLookup is the cached lookup that the titles are looked up with
+     * @param scheduler      runs the batched lookups, which block
+     * @param limit          is the largest number of titles to warm up
+     * @param batchSize      is the number of titles in each lookup
+     * @param concurrency    is the number of lookups in flight at the same time
+     * @param timeout        is how long the warm-up may take, including reading the titles
+     */
+    public CategoryWarmUp(HotTitleSource source, CategoryLookup categoryLookup, Scheduler scheduler, int limit,
+                          int batchSize, int concurrency, Duration timeout) {
+        this.source = source;
+        this.categoryLookup = categoryLookup;
+        this.scheduler = scheduler;
+        this.limit = limit;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+        this.state = source == null ? State.DISABLED : State.PENDING;
+    }
+
+    /**
+     * Warms up the cache, blocking until every title was looked up or the timeout has passed. Only the first call
+     * warms up the cache, and later calls return right away.
+     */
+    public synchronized void run() {
+        if (state != State.PENDING)
+            return;
+
+        state = State.RUNNING;
+        startedAt = System.currentTimeMillis();
+        long deadline = startedAt + timeout.toMillis();
+        try {
+            List<String> hotTitles = new ArrayList<>(new LinkedHashSet<>(source.getTitles(limit)));
+            titles.set(hotTitles.size());
+            logger.info("Warming up the category cache with {} hot titles...", hotTitles.size());
+
+            // Titles that were restored from the cache log don't need to be looked up again
+            awaitRestore(deadline);
+
+            List<List<String>> batches = new ArrayList<>();
+            for (int i = 0; i < hotTitles.size(); i += batchSize)
+                batches.add(hotTitles.subList(i, Math.min(i + batchSize, hotTitles.size())));
+
+            // Only running out of time is a time out, a failure of the title source or the lookups is a failure
+            Duration remaining = Duration.ofMillis(Math.max(0L, deadline - System.currentTimeMillis()));
+            boolean complete = Flux.fromIterable(batches)
+                    .flatMap(batch -> Mono.fromRunnable(() -> lookUp(batch)).subscribeOn(scheduler), concurrency)
+                    .then(Mono.just(true))
+                    .timeout(remaining, Mono.just(false))
+                    .block();
+            state = complete ? State.COMPLETE : State.TIMED_OUT;
+        } catch (Exception ex) {
+            logger.warn("Unable to warm up the category cache", ex);
+            state = State.FAILED;
+        } finally {
+            finishedAt = System.currentTimeMillis();
+        }
+
+        logger.info("Category cache warm-up is {} after {} ms, with {} of {} titles looked up and {} failed",
+                state, finishedAt - startedAt, warmed.get(), titles.get(), failed.get());
+    }
+
+    /**
+     * @return the state and progress of the warm-up, which is published by the {@code warmup} actuator endpoint
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("state", state);
+        progress.put("titles", titles.get());
+        progress.put("warmed", warmed.get());
+        progress.put("failed", failed.get());
+        if (startedAt > 0)
+            progress.put("elapsed", Duration.ofMillis((finishedAt > 0 ? finishedAt : System.currentTimeMillis())
+                    - startedAt).toString());
+        return progress;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getTitles() {
+        return titles.get();
+    }
+
+    public int getWarmed() {
+        return warmed.get();
+    }
+
+    private void lookUp(List<String> batch) {
+        try {
+            categoryLookup.getCategories(batch);
+            warmed.addAndGet(batch.size());
+        } catch (RuntimeException ex) {
+            // A failed batch is looked up again when the processor reaches one of its titles
+            failed.addAndGet(batch.size());
+            logger.debug("Unable to warm up the categories of {} titles", batch.size(), ex);
+        }
+    }
+
+    private void awaitRestore(long deadline) throws InterruptedException {
+        if (!(categoryLookup instanceof CachingCategoryLookup))
+            return;
+
+        CachingCategoryLookup cachingLookup = (CachingCategoryLookup) categoryLookup;
+        while (!cachingLookup.isRestored() && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+    }
+}
@@ -0,0 +1,39 @@
+package io.example.warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads hot titles from a file with one title on each line. Anything after a tab is ignored, so that a tab-separated
+ * export of titles and their edit counts can be used as-is, as are blank lines and lines that start with {@code #}.
+ *
+ * @author Kenny Bastani
+ */
+public class FileHotTitleSource implements HotTitleSource {
+
+    private final Path path;
+
+    public FileHotTitleSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public List<String> getTitles(int limit) throws IOException {
+        List<String> titles = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while (titles.size() < limit && (line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                String title = (tab < 0 ? line : line.substring(0, tab)).trim();
+                if (!title.isEmpty() && !title.startsWith("#"))
+                    titles.add(title);
+            }
+        }
+        return titles;
+    }
+}
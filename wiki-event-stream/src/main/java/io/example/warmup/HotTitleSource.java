@@ -0,0 +1,20 @@
+package io.example.warmup;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Provides the titles of the pages that are edited most often, which are the pages that the category cache is
+ * warmed up with before the recent change processor starts.
+ *
+ * @author Kenny Bastani
+ */
+public interface HotTitleSource {
+
+    /**
+     * @param limit is the largest number of titles to return
+     * @return the titles, starting with the most edited page
+     * @throws IOException if the titles can't be read
+     */
+    List<String> getTitles(int limit) throws IOException;
+}
@@ -0,0 +1,82 @@
+package io.example.warmup;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queries the titles that were edited most often over a recent window from the Pinot table that the application
+ * writes to, through the SQL endpoint of a Pinot broker. Edits are counted by their distinct change ids, so that the
+ * count is the same whether the table has one record per category or one record per change.
+ *
+ * @author Kenny Bastani
+ */
+public class PinotHotTitleSource implements HotTitleSource {
+
+    private static final String QUERY = "SELECT title, DISTINCTCOUNT(id) FROM %s WHERE changedTime > %d " +
+            "GROUP BY title ORDER BY DISTINCTCOUNT(id) DESC LIMIT %d";
+
+    private final WebClient client;
+    private final String table;
+    private final Duration lookback;
+    private final Duration timeout;
+
+    /**
+     * @param broker   is the URL of the Pinot broker
+     * @param table    is the name of the table of recent changes
+     * @param lookback is how far back edits are counted
+     * @param timeout  is how long to wait for the broker to answer
+     */
+    public PinotHotTitleSource(String broker, String table, Duration lookback, Duration timeout) {
+        this.client = WebClient.builder().baseUrl(broker).build();
+        this.table = table;
+        this.lookback = lookback;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public List<String> getTitles(int limit) throws IOException {
+        String sql = String.format(QUERY, table, System.currentTimeMillis() - lookback.toMillis(), limit);
+        String response = client.post()
+                .uri("/query/sql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(Map.of("sql", sql))
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(timeout);
+
+        return parseTitles(response);
+    }
+
+    /**
+     * Reads the titles from the first column of the rows of a broker response.
+     *
+     * @param response is the JSON body of the broker's response
+     * @return the titles, in the order of the rows
+     * @throws IOException if the broker answered with exceptions instead of rows
+     */
+    static List<String> parseTitles(String response) throws IOException {
+        JsonObject body = JsonParser.parseString(response).getAsJsonObject();
+        JsonArray exceptions = body.getAsJsonArray("exceptions");
+        if (exceptions != null && exceptions.size() > 0)
+            throw new IOException("The Pinot broker was unable to query the hot titles: " + exceptions);
+
+        List<String> titles = new ArrayList<>();
+        JsonObject resultTable = body.getAsJsonObject("resultTable");
+        if (resultTable == null)
+            return titles;
+
+        for (JsonElement row : resultTable.getAsJsonArray("rows"))
+            titles.add(row.getAsJsonArray().get(0).getAsString());
+        return titles;
+    }
+}
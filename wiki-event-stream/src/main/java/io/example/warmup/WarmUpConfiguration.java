@@ -0,0 +1,59 @@
+package io.example.warmup;
+
+import io.example.categories.CategoryBatchProperties;
+import io.example.categories.CategoryLookup;
+import io.example.metrics.PipelineMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Paths;
+
+/**
+ * Configures the {@link CategoryWarmUp} with the {@link HotTitleSource} that is selected with the
+ * {@code wiki.warm-up.source} property.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUpConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler categoryWarmUpScheduler() {
+        return Schedulers.newElastic("category-warm-up");
+    }
+
+    @Bean
+    public CategoryWarmUp categoryWarmUp(WarmUpProperties properties, CategoryLookup categoryLookup,
+                                         @Qualifier("categoryWarmUpScheduler") Scheduler warmUpScheduler,
+                                         CategoryBatchProperties batchProperties, PipelineMetrics metrics) {
+        // Hot titles are looked up in batches of the same size as the processor's, which is what the API allows
+        CategoryWarmUp warmUp = new CategoryWarmUp(source(properties), categoryLookup, warmUpScheduler,
+                properties.getLimit(), batchProperties.getMaxSize(), properties.getConcurrency(),
+                properties.getTimeout());
+        metrics.monitorWarmUp(warmUp);
+        return warmUp;
+    }
+
+    @Bean
+    public WarmUpEndpoint warmUpEndpoint(CategoryWarmUp categoryWarmUp) {
+        return new WarmUpEndpoint(categoryWarmUp);
+    }
+
+    private static HotTitleSource source(WarmUpProperties properties) {
+        switch (properties.getSource()) {
+            case FILE:
+                return new FileHotTitleSource(Paths.get(properties.getFile().getPath()));
+            case PINOT:
+                WarmUpProperties.Pinot pinot = properties.getPinot();
+                return new PinotHotTitleSource(pinot.getBroker(), pinot.getTable(), pinot.getLookback(),
+                        properties.getTimeout());
+            default:
+                return null;
+        }
+    }
+}
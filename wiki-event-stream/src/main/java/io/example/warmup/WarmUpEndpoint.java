@@ -0,0 +1,26 @@
+package io.example.warmup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * Publishes the progress of the {@link CategoryWarmUp} at {@code /actuator/warmup}.
+ *
+ * @author Kenny Bastani
+ */
+@Endpoint(id = "warmup")
+public class WarmUpEndpoint {
+
+    private final CategoryWarmUp warmUp;
+
+    public WarmUpEndpoint(CategoryWarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return warmUp.getProgress();
+    }
+}
@@ -0,0 +1,136 @@
+package io.example.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures the warm-up of the category cache that runs before the recent change processor starts.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "wiki.warm-up")
+public class WarmUpProperties {
+
+    /**
+     * Where the hot titles are read from, which is either {@code none}, {@code file}, or {@code pinot}.
+     */
+    private WarmUpSource source = WarmUpSource.NONE;
+
+    /**
+     * The largest number of titles to warm up, which should be well within the size of the cache.
+     */
+    private int limit = 20_000;
+
+    /**
+     * The number of batched lookups of hot titles that are in flight at the same time.
+     */
+    private int concurrency = 2;
+
+    /**
+     * How long the warm-up may hold up the start of the processor.
+     */
+    private Duration timeout = Duration.ofMinutes(5);
+
+    private final File file = new File();
+
+    private final Pinot pinot = new Pinot();
+
+    public WarmUpSource getSource() {
+        return source;
+    }
+
+    public void setSource(WarmUpSource source) {
+        this.source = source;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Pinot getPinot() {
+        return pinot;
+    }
+
+    public static class File {
+
+        /**
+         * The path of the file of hot titles, with one title on each line.
+         */
+        private String path = "hot-titles.txt";
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+
+    public static class Pinot {
+
+        /**
+         * The URL of the Pinot broker that the hot titles are queried from.
+         */
+        private String broker = "http://localhost:8099";
+
+        /**
+         * The table of recent changes that the hot titles are queried from.
+         */
+        private String table = "wikiRecentChangeTable";
+
+        /**
+         * How far back edits are counted to find the hot titles.
+         */
+        private Duration lookback = Duration.ofHours(24);
+
+        public String getBroker() {
+            return broker;
+        }
+
+        public void setBroker(String broker) {
+            this.broker = broker;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public void setTable(String table) {
+            this.table = table;
+        }
+
+        public Duration getLookback() {
+            return lookback;
+        }
+
+        public void setLookback(Duration lookback) {
+            this.lookback = lookback;
+        }
+    }
+}
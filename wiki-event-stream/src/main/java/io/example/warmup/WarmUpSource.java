@@ -0,0 +1,24 @@
+package io.example.warmup;
+
+/**
+ * Decides where the titles that the category cache is warmed up with are read from.
+ *
+ * @author Kenny Bastani
+ */
+public enum WarmUpSource {
+
+    /**
+     * The cache isn't warmed up, and the processor starts right away.
+     */
+    NONE,
+
+    /**
+     * The titles are read from a local file, with one title on each line.
+     */
+    FILE,
+
+    /**
+     * The most edited titles are queried from the Pinot table of recent changes.
+     */
+    PINOT
+}
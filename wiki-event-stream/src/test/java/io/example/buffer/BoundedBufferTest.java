@@ -0,0 +1,42 @@
+package io.example.buffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+public class BoundedBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void dropOldestKeepsTheNewestItems() throws Exception {
+        BoundedBuffer<String> buffer = new BoundedBuffer<>(2, OverflowPolicy.DROP_OLDEST);
+        buffer.offer("a");
+        buffer.offer("b");
+        buffer.offer("c");
+
+        assertEquals(1L, buffer.getDroppedCount());
+        assertEquals("b", buffer.take());
+        assertEquals("c", buffer.take());
+    }
+
+    @Test
+    public void spillPreservesOrderWithoutLosingItems() throws Exception {
+        BoundedBuffer<String> buffer = new BoundedBuffer<>(2, OverflowPolicy.SPILL,
+                folder.getRoot().toPath().resolve("buffer.spill"), String.class);
+        for (int i = 0; i < 5; i++)
+            buffer.offer("item-" + i);
+
+        assertEquals(3L, buffer.getSpilledCount());
+        assertEquals(5L, buffer.size());
+
+        buffer.offer("item-5");
+        for (int i = 0; i < 6; i++)
+            assertEquals("item-" + i, buffer.take());
+        assertEquals(0L, buffer.size());
+        buffer.close();
+    }
+}
@@ -0,0 +1,107 @@
+package io.example.categories;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void limitGrowsWhileFastRequestsUseIt() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 2, 1, 8, Duration.ofSeconds(1));
+
+        for (int round = 0; round < 50; round++) {
+            List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < (int) limiter.getLimit(); i++)
+                permits.add(limiter.acquire());
+            permits.forEach(permit -> limiter.onSuccess(permit, FAST));
+        }
+
+        assertEquals(8.0, limiter.getLimit(), 0.0);
+
+        // A single request at a time doesn't use enough of the limit to grow it
+        AdaptiveLimiter idle = new AdaptiveLimiter(0, 1, 4, 1, 8, Duration.ofSeconds(1));
+        for (int i = 0; i < 50; i++)
+            idle.onSuccess(idle.acquire(), FAST);
+        assertEquals(4.0, idle.getLimit(), 0.0);
+    }
+
+    @Test
+    public void burstOfThrottledRequestsHalvesTheLimitOnce() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 8, 1, 16, Duration.ofSeconds(1));
+
+        List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            permits.add(limiter.acquire());
+        permits.forEach(permit -> limiter.onThrottled(permit, null));
+        assertEquals(4.0, limiter.getLimit(), 0.0);
+
+        // Requests that were issued after the decrease halve it again
+        limiter.onThrottled(limiter.acquire(), null);
+        assertEquals(2.0, limiter.getLimit(), 0.0);
+
+        // Slow requests shrink the limit, but never below the minimum
+        for (int i = 0; i < 20; i++)
+            limiter.onSuccess(limiter.acquire(), TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1.0, limiter.getLimit(), 0.0);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void retryAfterPausesEveryRequest() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 4, 1, 16, Duration.ofSeconds(1));
+
+        limiter.onThrottled(limiter.acquire(), Duration.ofMillis(300));
+        AdaptiveLimiter.Permit permit = limiter.acquire();
+
+        assertTrue(permit.getWaited() >= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    public void rateIsCappedByTheTokenBucket() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(50, 1, 4, 1, 16, Duration.ofSeconds(1));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 11; i++)
+            limiter.onSuccess(limiter.acquire(), FAST);
+        long elapsed = System.nanoTime() - start;
+
+        // The first request uses the burst, and the other ten are spaced 20ms apart
+        assertTrue("Elapsed " + elapsed, elapsed >= TimeUnit.MILLISECONDS.toNanos(180));
+    }
+
+    @Test
+    public void requestsAboveTheLimitAreQueued() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 1, 1, 1, Duration.ofSeconds(1));
+        AdaptiveLimiter.Permit first = limiter.acquire();
+
+        CompletableFuture<AdaptiveLimiter.Permit> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (limiter.getQueued() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(1, limiter.getQueued());
+        assertFalse(second.isDone());
+
+        limiter.onFailure(first);
+        limiter.onSuccess(second.get(5, TimeUnit.SECONDS), FAST);
+        assertEquals(0, limiter.getQueued());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
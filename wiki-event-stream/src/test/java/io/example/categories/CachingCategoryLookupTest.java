@@ -0,0 +1,139 @@
+package io.example.categories;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class CachingCategoryLookupTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void repeatedLookupsAreServedFromTheCache() {
+        AtomicInteger apiCalls = new AtomicInteger();
+        CachingCategoryLookup lookup = new CachingCategoryLookup(title -> {
+            apiCalls.incrementAndGet();
+            return Collections.singletonList("Category:" + title);
+        }, new CategoryCacheProperties());
+
+        List<String> first = lookup.getCategories("Main Page");
+        List<String> second = lookup.getCategories("Main Page");
+
+        assertEquals(first, second);
+        assertEquals(1, apiCalls.get());
+        assertEquals(1L, lookup.stats().hitCount());
+        assertEquals(1L, lookup.stats().missCount());
+    }
+
+    @Test
+    public void batchedLookupsOnlyFetchTheTitlesThatMissed() {
+        List<Collection<String>> batches = new ArrayList<>();
+        CachingCategoryLookup lookup = new CachingCategoryLookup(new CategoryLookup() {
+            @Override
+            public List<String> getCategories(String title) {
+                return Collections.singletonList("Category:" + title);
+            }
+
+            @Override
+            public Map<String, List<String>> getCategories(Collection<String> titles) {
+                batches.add(new ArrayList<>(titles));
+                Map<String, List<String>> categories = new HashMap<>();
+                titles.forEach(title -> categories.put(title, getCategories(title)));
+                return categories;
+            }
+        }, new CategoryCacheProperties());
+
+        lookup.getCategories("Main Page");
+        Map<String, List<String>> categories = lookup.getCategories(Arrays.asList("Main Page", "Apache Kafka"));
+
+        assertEquals(2, categories.size());
+        assertEquals(Collections.singletonList("Category:Apache Kafka"), categories.get("Apache Kafka"));
+        assertEquals(Collections.singletonList(Collections.singletonList("Apache Kafka")), batches);
+    }
+
+    @Test
+    public void membershipChangesUpdateCachedPages() {
+        AtomicInteger apiCalls = new AtomicInteger();
+        CachingCategoryLookup lookup = new CachingCategoryLookup(title -> {
+            apiCalls.incrementAndGet();
+            return Collections.singletonList("Category:Stubs");
+        }, new CategoryCacheProperties());
+
+        lookup.getCategories("Main Page");
+        lookup.apply(new CategoryMembershipChange("Main Page", "Category:Living people", true));
+        lookup.apply(new CategoryMembershipChange("Main Page", "Category:Stubs", false));
+        lookup.apply(new CategoryMembershipChange("Apache Kafka", "Category:Stubs", true));
+
+        assertEquals(Collections.singletonList("Category:Living people"), lookup.getCategories("Main Page"));
+        assertEquals(1, apiCalls.get());
+
+        // Pages that weren't cached are loaded from the API when they are first looked up
+        assertEquals(Collections.singletonList("Category:Stubs"), lookup.getCategories("Apache Kafka"));
+        assertEquals(2, apiCalls.get());
+    }
+
+    @Test
+    public void restartIsWarmedFromTheCacheLog() throws Exception {
+        AtomicInteger apiCalls = new AtomicInteger();
+        CategoryLookup api = title -> {
+            apiCalls.incrementAndGet();
+            return Collections.singletonList("Category:" + title);
+        };
+
+        try (CategoryCacheLog log = new CategoryCacheLog(folder.getRoot().toPath(), 4096)) {
+            CachingCategoryLookup lookup = new CachingCategoryLookup(api, new CategoryCacheProperties(), log,
+                    Runnable::run);
+            lookup.getCategories(Arrays.asList("Main Page", "Apache Kafka"));
+            lookup.apply(new CategoryMembershipChange("Main Page", "Category:Living people", true));
+        }
+
+        // The restore runs on the executor, which is the calling thread here, so the cache is warm right away
+        try (CategoryCacheLog log = new CategoryCacheLog(folder.getRoot().toPath(), 4096)) {
+            CachingCategoryLookup lookup = new CachingCategoryLookup(api, new CategoryCacheProperties(), log,
+                    Runnable::run);
+            assertEquals(Arrays.asList("Category:Main Page", "Category:Living people"),
+                    lookup.getCategories("Main Page"));
+            assertEquals(Collections.singletonList("Category:Apache Kafka"), lookup.getCategories("Apache Kafka"));
+            assertEquals(2, apiCalls.get());
+        }
+
+        // The restored pages were written to the new generation, so they survive another restart
+        try (CategoryCacheLog log = new CategoryCacheLog(folder.getRoot().toPath(), 4096)) {
+            assertEquals(2, log.readPrevious(new CategoryDictionary()).size());
+        }
+    }
+
+    @Test
+    public void stalePagesAreAnsweredFromTheCacheAndRefreshedInTheBackground() throws Exception {
+        AtomicInteger apiCalls = new AtomicInteger();
+        CategoryCacheProperties properties = new CategoryCacheProperties();
+        properties.setRefreshAfter(Duration.ofMillis(50));
+        List<Runnable> refreshes = new ArrayList<>();
+        CachingCategoryLookup lookup = new CachingCategoryLookup(title -> Collections.singletonList(
+                "Category:" + apiCalls.incrementAndGet()), properties, null, refreshes::add);
+
+        assertEquals(Collections.singletonList("Category:1"), lookup.getCategories("Main Page"));
+        Thread.sleep(100);
+
+        // The stale categories are answered, and only one refresh is started no matter how often they are looked up
+        assertEquals(Collections.singletonList("Category:1"), lookup.getCategories("Main Page"));
+        assertEquals(Collections.singletonList("Category:1"), lookup.getCategories("Main Page"));
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+        assertEquals(Collections.singletonList("Category:2"), lookup.getCategories("Main Page"));
+    }
+}
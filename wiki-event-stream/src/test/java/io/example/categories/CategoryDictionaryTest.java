@@ -0,0 +1,41 @@
+package io.example.categories;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CategoryDictionaryTest {
+
+    @Test
+    public void namesAreInternedOnce() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        List<String> categories = Arrays.asList("Category:Living people", "Category:Stubs");
+
+        int[] first = dictionary.encode(categories);
+        int[] second = dictionary.encode(Arrays.asList(new String("Category:Stubs"), "Category:Living people"));
+
+        assertArrayEquals(new int[]{0, 1}, first);
+        assertArrayEquals(new int[]{1, 0}, second);
+        assertEquals(2, dictionary.size());
+        assertEquals(-1, dictionary.find("Category:Message brokers"));
+
+        // Every page that has a category shares the one copy of its name
+        assertEquals(categories, dictionary.decode(first));
+        assertSame(dictionary.decode(first).get(1), dictionary.decode(second).get(0));
+    }
+
+    @Test
+    public void dictionaryGrowsPastItsInitialCapacity() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        for (int i = 0; i < 5000; i++)
+            assertEquals(i, dictionary.id("Category:" + i));
+
+        assertEquals("Category:4999", dictionary.name(4999));
+        assertEquals(4999, dictionary.id("Category:4999"));
+    }
+}
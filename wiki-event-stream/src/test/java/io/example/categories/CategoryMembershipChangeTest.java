@@ -0,0 +1,47 @@
+package io.example.categories;
+
+import io.example.schema.page.RecentChange;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CategoryMembershipChangeTest {
+
+    @Test
+    public void pageIsReadFromTheComment() {
+        CategoryMembershipChange added = CategoryMembershipChange.from(categorize("Category:Living people",
+                "[[:Ada Lovelace]] added to category")).orElseThrow();
+        assertEquals("Ada Lovelace", added.getPage());
+        assertEquals("Category:Living people", added.getCategory());
+        assertTrue(added.isAdded());
+
+        // Changes that came from a template also link to the pages that include it
+        CategoryMembershipChange removed = CategoryMembershipChange.from(categorize("Category:Stubs",
+                "[[:File:Kafka.png]] removed from category, [[Special:WhatLinksHere/File:Kafka.png|this page is " +
+                        "included within other pages]]")).orElseThrow();
+        assertEquals("File:Kafka.png", removed.getPage());
+        assertFalse(removed.isAdded());
+    }
+
+    @Test
+    public void otherChangesAreIgnored() {
+        assertEquals(Optional.empty(), CategoryMembershipChange.from(categorize("Category:Stubs",
+                "Moved the category")));
+
+        RecentChange edit = categorize("Apache Kafka", "[[:Apache Kafka]] added to category");
+        edit.setType("edit");
+        assertEquals(Optional.empty(), CategoryMembershipChange.from(edit));
+    }
+
+    private static RecentChange categorize(String title, String comment) {
+        RecentChange recentChange = new RecentChange();
+        recentChange.setType(CategoryMembershipChange.CHANGE_TYPE);
+        recentChange.setTitle(title);
+        recentChange.setComment(comment);
+        return recentChange;
+    }
+}
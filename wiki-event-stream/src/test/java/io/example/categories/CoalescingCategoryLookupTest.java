@@ -0,0 +1,115 @@
+package io.example.categories;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingCategoryLookupTest {
+
+    @Test
+    public void concurrentLookupsOfTheSameTitleShareOneLookup() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Collection<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        Counter coalesced = new SimpleMeterRegistry().counter("coalesced");
+
+        CoalescingCategoryLookup lookup = new CoalescingCategoryLookup(new BatchLookup() {
+            @Override
+            public Map<String, List<String>> getCategories(Collection<String> titles) {
+                batches.add(new ArrayList<>(titles));
+                started.countDown();
+                await(release);
+                return super.getCategories(titles);
+            }
+        }, coalesced);
+
+        CompletableFuture<Map<String, List<String>>> first = CompletableFuture.supplyAsync(() ->
+                lookup.getCategories(Arrays.asList("Main Page", "Apache Kafka")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // The second batch only fetches the title that isn't in flight, then waits for the first batch
+        CompletableFuture<Map<String, List<String>>> second = CompletableFuture.supplyAsync(() ->
+                lookup.getCategories(Arrays.asList("Main Page", "Apache Pinot")));
+        while (batches.size() < 2)
+            Thread.sleep(10);
+        release.countDown();
+
+        assertEquals(Collections.singletonList("Category:Main Page"), first.get(5, TimeUnit.SECONDS).get("Main Page"));
+        assertEquals(Collections.singletonList("Category:Main Page"), second.get(5, TimeUnit.SECONDS).get("Main Page"));
+        assertEquals(Collections.singletonList("Category:Apache Pinot"), second.get().get("Apache Pinot"));
+        assertEquals(Collections.singletonList(Collections.singletonList("Apache Pinot")), batches.subList(1, 2));
+        assertEquals(1.0, coalesced.count(), 0.0);
+
+        // Once the lookup completed, the title is looked up again
+        lookup.getCategories("Main Page");
+        assertEquals(3, batches.size());
+    }
+
+    @Test
+    public void failedLookupsFailEveryWaitingCaller() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CoalescingCategoryLookup lookup = new CoalescingCategoryLookup(new BatchLookup() {
+            @Override
+            public Map<String, List<String>> getCategories(Collection<String> titles) {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("The MediaWiki API is unavailable");
+            }
+        }, new SimpleMeterRegistry().counter("coalesced"));
+
+        CompletableFuture<List<String>> first = CompletableFuture.supplyAsync(() -> lookup.getCategories("Main Page"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<String>> second = CompletableFuture.supplyAsync(() -> lookup.getCategories("Main Page"));
+        Thread.sleep(100);
+        release.countDown();
+
+        for (CompletableFuture<List<String>> result : Arrays.asList(first, second)) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IllegalStateException);
+                continue;
+            }
+            throw new AssertionError("The lookup should have failed");
+        }
+    }
+
+    private static class BatchLookup implements CategoryLookup {
+
+        @Override
+        public List<String> getCategories(String title) {
+            return Collections.singletonList("Category:" + title);
+        }
+
+        @Override
+        public Map<String, List<String>> getCategories(Collection<String> titles) {
+            Map<String, List<String>> categories = new HashMap<>();
+            titles.forEach(title -> categories.put(title, getCategories(title)));
+            return categories;
+        }
+
+        static void await(CountDownLatch latch) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package io.example.categories;
+
+import com.google.gson.JsonObject;
+import io.example.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.HttpUrl;
+import org.fastily.jwiki.core.Wiki;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MediaWikiApiTest {
+
+    private static final String SITE_INFO = "{\"batchcomplete\": \"\", \"query\": {\"namespaces\": {" +
+            "\"0\": {\"id\": 0, \"case\": \"first-letter\", \"*\": \"\"}," +
+            "\"14\": {\"id\": 14, \"case\": \"first-letter\", \"*\": \"Category\"}}, \"namespacealiases\": []}}";
+    private static final String PAGES = "{\"batchcomplete\": \"\", \"query\": {\"pages\": {}}}";
+    private static final String THROTTLED = "{\"error\": {\"code\": \"ratelimited\", \"info\": \"Slow down\"}}";
+
+    private final Queue<CannedResponse> responses = new ConcurrentLinkedQueue<>();
+    private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    private final PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+    private DisposableServer server;
+    private Wiki wiki;
+
+    @Before
+    public void startServer() {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle(this::handle)
+                .bindNow();
+
+        wiki = new Wiki.Builder()
+                .withApiEndpoint(HttpUrl.parse("http://localhost:" + server.port() + "/w/api.php"))
+                .build();
+    }
+
+    @After
+    public void stopServer() {
+        server.disposeNow();
+    }
+
+    @Test
+    public void tooManyRequestsIsRetriedAfterTheRetryAfter() {
+        responses.add(new CannedResponse(429, "1", THROTTLED));
+        responses.add(new CannedResponse(200, null, PAGES));
+        MediaWikiApi api = new MediaWikiApi(wiki, limiter(), metrics, properties(3));
+
+        JsonObject body = api.query(Map.of("prop", "categories", "titles", "Apache Kafka"));
+
+        assertTrue(body.getAsJsonObject("query").has("pages"));
+        assertEquals(2, requestTimes.size());
+        assertEquals(1.0, metrics.getApiThrottled().count(), 0.0);
+
+        // The limiter held back the retry for as long as the API asked
+        long waited = requestTimes.get(1) - requestTimes.get(0);
+        assertTrue("Retried after " + waited + "ns", waited >= TimeUnit.MILLISECONDS.toNanos(900));
+
+        // Every request asks the API to reject it when the replicas lag, rather than answer slowly
+        assertTrue(queries.get(0).contains("maxlag=5"));
+        assertTrue(queries.get(0).contains("titles=Apache%20Kafka"));
+    }
+
+    @Test
+    public void maxLagErrorIsRetried() {
+        responses.add(new CannedResponse(200, "0", "{\"error\": {\"code\": \"maxlag\", \"info\": \"Lagged\"}}"));
+        responses.add(new CannedResponse(200, null, PAGES));
+        MediaWikiApi api = new MediaWikiApi(wiki, limiter(), metrics, properties(3));
+
+        api.query(Map.of("prop", "categories", "titles", "Apache Pinot"));
+
+        assertEquals(2, requestTimes.size());
+        assertEquals(1.0, metrics.getApiThrottled().count(), 0.0);
+    }
+
+    @Test
+    public void givesUpAfterTheMaxAttempts() {
+        for (int i = 0; i < 5; i++)
+            responses.add(new CannedResponse(429, null, THROTTLED));
+        MediaWikiApi api = new MediaWikiApi(wiki, limiter(), metrics, properties(3));
+
+        try {
+            api.query(Map.of("prop", "categories", "titles", "Apache Kafka"));
+            fail("Expected the query to give up");
+        } catch (IllegalStateException ex) {
+            assertEquals("The MediaWiki API throttled a request 3 times", ex.getMessage());
+        }
+
+        assertEquals(3, requestTimes.size());
+        assertEquals(3.0, metrics.getApiThrottled().count(), 0.0);
+    }
+
+    @Test
+    public void otherErrorsAreNotRetried() {
+        responses.add(new CannedResponse(200, null, "{\"error\": {\"code\": \"badvalue\", \"info\": \"No\"}}"));
+        responses.add(new CannedResponse(200, null, PAGES));
+        MediaWikiApi api = new MediaWikiApi(wiki, limiter(), metrics, properties(3));
+
+        try {
+            api.query(Map.of("prop", "categories", "titles", "Apache Kafka"));
+            fail("Expected the query to fail");
+        } catch (IllegalStateException ex) {
+            assertEquals("The MediaWiki API responded with the error badvalue", ex.getMessage());
+        }
+
+        assertEquals(1, requestTimes.size());
+        assertEquals(0.0, metrics.getApiThrottled().count(), 0.0);
+    }
+
+    @Test
+    public void parsesRetryAfterInSeconds() {
+        assertEquals(Duration.ofSeconds(120), MediaWikiApi.parseRetryAfter("120"));
+        assertEquals(null, MediaWikiApi.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(null, MediaWikiApi.parseRetryAfter(""));
+        assertEquals(null, MediaWikiApi.parseRetryAfter(null));
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        String query = request.uri();
+
+        // jwiki reads the namespaces of the site when it is created, which isn't one of the requests under test
+        CannedResponse canned;
+        if (query.contains("meta=siteinfo")) {
+            canned = new CannedResponse(200, null, SITE_INFO);
+        } else {
+            requestTimes.add(System.nanoTime());
+            queries.add(query);
+            canned = responses.poll();
+            if (canned == null)
+                canned = new CannedResponse(500, null, "{}");
+        }
+
+        response.status(canned.status).header("Content-Type", "application/json");
+        if (canned.retryAfter != null)
+            response.header("Retry-After", canned.retryAfter);
+        return response.sendString(Mono.just(canned.body)).then();
+    }
+
+    private static AdaptiveLimiter limiter() {
+        return new AdaptiveLimiter(0, 1, 1, 1, 1, Duration.ofSeconds(1));
+    }
+
+    private static CategoryApiProperties properties(int maxAttempts) {
+        CategoryApiProperties properties = new CategoryApiProperties();
+        properties.setMaxAttempts(maxAttempts);
+        return properties;
+    }
+
+    private static class CannedResponse {
+
+        private final int status;
+        private final String retryAfter;
+        private final String body;
+
+        CannedResponse(int status, String retryAfter, String body) {
+            this.status = status;
+            this.retryAfter = retryAfter;
+            this.body = body;
+        }
+    }
+}
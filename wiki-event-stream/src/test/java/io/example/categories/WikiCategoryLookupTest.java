@@ -0,0 +1,101 @@
+package io.example.categories;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.example.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class WikiCategoryLookupTest {
+
+    @Test
+    public void continuationsAreFollowedUntilThePagesAreComplete() {
+        CannedApi api = new CannedApi(
+                "{'continue': {'clcontinue': '736|Streaming', 'continue': '||'}, 'query': {'pages': {" +
+                        "'736': {'pageid': 736, 'ns': 0, 'title': 'Apache Kafka', 'categories': [" +
+                        "{'ns': 14, 'title': 'Category:Apache Software Foundation'}]}}}}",
+                "{'batchcomplete': '', 'query': {'pages': {" +
+                        "'736': {'pageid': 736, 'ns': 0, 'title': 'Apache Kafka', 'categories': [" +
+                        "{'ns': 14, 'title': 'Category:Streaming'}]}}}}");
+
+        Map<String, List<String>> categories = new WikiCategoryLookup(api)
+                .getCategories(Collections.singletonList("Apache Kafka"));
+
+        assertEquals(Arrays.asList("Category:Apache Software Foundation", "Category:Streaming"),
+                categories.get("Apache Kafka"));
+
+        // The second request repeats the titles with the continuation of the first
+        assertEquals(2, api.requests.size());
+        assertFalse(api.requests.get(0).containsKey("clcontinue"));
+        assertEquals("Apache Kafka", api.requests.get(1).get("titles"));
+        assertEquals("736|Streaming", api.requests.get(1).get("clcontinue"));
+        assertEquals("||", api.requests.get(1).get("continue"));
+    }
+
+    @Test
+    public void normalizedTitlesAreMappedBackToTheRequestedTitles() {
+        CannedApi api = new CannedApi(
+                "{'batchcomplete': '', 'query': {" +
+                        "'normalized': [{'from': 'apache Pinot', 'to': 'Apache Pinot'}], 'pages': {" +
+                        "'101': {'pageid': 101, 'ns': 0, 'title': 'Apache Pinot', 'categories': [" +
+                        "{'ns': 14, 'title': 'Category:Databases'}]}," +
+                        "'-1': {'ns': 0, 'title': 'Missing page', 'missing': ''}}}}");
+
+        Map<String, List<String>> categories = new WikiCategoryLookup(api)
+                .getCategories(Arrays.asList("apache Pinot", "Missing page", "Not returned"));
+
+        assertEquals(Collections.singletonList("Category:Databases"), categories.get("apache Pinot"));
+        assertFalse(categories.containsKey("Apache Pinot"));
+        assertEquals(Collections.emptyList(), categories.get("Missing page"));
+        assertEquals(Collections.emptyList(), categories.get("Not returned"));
+    }
+
+    @Test
+    public void titlesAreLookedUpFiftyAtATime() {
+        CannedApi api = new CannedApi("{'batchcomplete': ''}", "{'batchcomplete': ''}", "{'batchcomplete': ''}");
+        List<String> titles = IntStream.range(0, 120).mapToObj(i -> "Page " + i).collect(Collectors.toList());
+
+        Map<String, List<String>> categories = new WikiCategoryLookup(api).getCategories(titles);
+
+        assertEquals(120, categories.size());
+        assertEquals(Arrays.asList(50, 50, 20), api.requests.stream()
+                .map(params -> params.get("titles").split("\\|").length)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Answers queries with canned responses, in order, and keeps the parameters of every query.
+     */
+    private static class CannedApi extends MediaWikiApi {
+
+        private final Queue<String> responses;
+        private final List<Map<String, String>> requests = new ArrayList<>();
+
+        CannedApi(String... responses) {
+            super(null, new AdaptiveLimiter(0, 1, 1, 1, 1, Duration.ofSeconds(1)),
+                    new PipelineMetrics(new SimpleMeterRegistry()), new CategoryApiProperties());
+            this.responses = new LinkedList<>(Arrays.asList(responses));
+        }
+
+        @Override
+        public JsonObject query(Map<String, String> params) {
+            requests.add(new HashMap<>(params));
+            return JsonParser.parseString(responses.remove()).getAsJsonObject();
+        }
+    }
+}
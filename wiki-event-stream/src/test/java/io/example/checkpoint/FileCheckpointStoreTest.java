@@ -0,0 +1,30 @@
+package io.example.checkpoint;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FileCheckpointStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void savedCheckpointsAreLoadedAfterARestart() throws Exception {
+        String lastEventId = "[{\"topic\":\"eqiad.mediawiki.recentchange\",\"partition\":0,\"timestamp\":1596477823001}]";
+        FileCheckpointStore store = new FileCheckpointStore(folder.getRoot().toPath().resolve("checkpoint.json"));
+
+        assertFalse(store.load().isPresent());
+
+        store.save(new Checkpoint("[]", 1L));
+        store.save(new Checkpoint(lastEventId, 1596477823000L));
+
+        FileCheckpointStore restarted = new FileCheckpointStore(folder.getRoot().toPath().resolve("checkpoint.json"));
+        assertEquals(Optional.of(new Checkpoint(lastEventId, 1596477823000L)), restarted.load());
+    }
+}
@@ -0,0 +1,46 @@
+package io.example.clients;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class MicroBatchesTest {
+
+    @Test
+    public void batchesBySizeAndFlushesTheRestWhenTheSourceCompletes() {
+        List<List<Integer>> batches = MicroBatches.of(Flux.range(0, 7), 3, Duration.ofMinutes(1))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6)), batches);
+    }
+
+    @Test
+    public void flushesAPartialBatchAfterTheMaximumWait() {
+        Flux<Integer> source = Flux.just(1, 2).concatWith(Mono.delay(Duration.ofMillis(500)).thenMany(Flux.just(3)));
+
+        List<List<Integer>> batches = MicroBatches.of(source, 10, Duration.ofMillis(100))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(List.of(1, 2), List.of(3)), batches);
+    }
+
+    @Test
+    public void onlyEmitsBatchesOnDemand() {
+        // A consumer that asks for one batch at a time and is slower than the timer, which overflows bufferTimeout
+        List<Integer> items = MicroBatches.of(Flux.range(0, 1000), 10, Duration.ofMillis(1))
+                .concatMap(batch -> Mono.delay(Duration.ofMillis(2)).thenReturn(batch), 1)
+                .flatMapIterable(batch -> batch)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(Flux.range(0, 1000).collect(Collectors.toList()).block(), items);
+    }
+}
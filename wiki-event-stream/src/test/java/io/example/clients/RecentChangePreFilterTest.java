@@ -0,0 +1,35 @@
+package io.example.clients;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecentChangePreFilterTest {
+
+    private final RecentChangePreFilter preFilter = new RecentChangePreFilter("enwiki", "edit");
+
+    @Test
+    public void keepsEnglishEdits() throws Exception {
+        try (InputStream sample = getClass().getResourceAsStream("/recentchange-edit.json")) {
+            assertTrue(preFilter.test(new String(sample.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        assertTrue(preFilter.test("{\"type\" : \"edit\", \"wiki\" : \"enwiki\"}"));
+    }
+
+    @Test
+    public void dropsOtherWikisAndChangeTypes() {
+        assertFalse(preFilter.test("{\"type\":\"edit\",\"wiki\":\"dewiki\"}"));
+        assertFalse(preFilter.test("{\"type\":\"edit\",\"wiki\":\"enwikinews\"}"));
+        assertFalse(preFilter.test("{\"type\":\"log\",\"wiki\":\"enwiki\"}"));
+        assertFalse(preFilter.test("{\"type\":\"log\",\"wiki\":\"enwiki\",\"comment\":\"\\\"type\\\":\\\"edit\\\"\"}"));
+    }
+
+    @Test
+    public void keepsEventsWhenAnyOccurrenceMatches() {
+        assertTrue(preFilter.test("{\"log_params\":{\"type\":\"move\"},\"type\":\"edit\",\"wiki\":\"enwiki\"}"));
+    }
+}
@@ -0,0 +1,166 @@
+package io.example.clients;
+
+import io.example.buffer.BoundedBuffer;
+import io.example.buffer.BufferProperties;
+import io.example.buffer.OverflowPolicy;
+import io.example.categories.CategoryBatchProperties;
+import io.example.categories.CategoryEnrichmentProperties;
+import io.example.checkpoint.Checkpoint;
+import io.example.checkpoint.CheckpointStore;
+import io.example.metrics.PipelineMetrics;
+import io.example.output.ChangeEncoder;
+import io.example.output.OutputMode;
+import io.example.schema.category.CategorizedChange;
+import io.example.stream.WikiStreamClient;
+import io.example.stream.WikiStreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class RecentChangeProcessorTest {
+
+    private final PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+    private final List<Message<?>> sent = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<Checkpoint> saved = new AtomicReference<>();
+    private RecentChangeProcessor processor;
+
+    @After
+    public void stopProcessor() {
+        if (processor != null)
+            processor.stop();
+    }
+
+    @Test
+    public void malformedEventsAreDroppedWithoutFailingTheStream() throws Exception {
+        String edit;
+        try (InputStream sample = getClass().getResourceAsStream("/recentchange-edit.json")) {
+            edit = new String(sample.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<ServerSentEvent<String>> events = List.of(
+                event("1", edit),
+                event("2", "{\"type\":\"edit\",\"wiki\":\"enwiki\",\"title\":"),
+                event("3", edit.replace("\"dt\":\"2020-08-03T18:03:43Z\",", "")),
+                event("4", edit));
+
+        // Only the first connection has events, so a reconnect would replay nothing and leave the records short
+        AtomicInteger connections = new AtomicInteger();
+        processor = processor((offset, lastEventId) -> connections.getAndIncrement() == 0
+                ? Flux.fromIterable(events).concatWith(Flux.never()) : Flux.never());
+        processor.start();
+
+        awaitSent(2);
+        assertEquals(2, sent.size());
+        assertEquals(2.0, metrics.getEventsMalformed().count(), 0.0);
+        assertEquals(1, connections.get());
+
+        // The checkpoint moves past the malformed events, so they aren't received again after a restart
+        processor.checkpoint();
+        assertEquals("4", saved.get().getLastEventId());
+    }
+
+    @Test
+    public void stoppedProcessorCanBeStartedAgain() throws Exception {
+        String edit;
+        try (InputStream sample = getClass().getResourceAsStream("/recentchange-edit.json")) {
+            edit = new String(sample.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // Each connection receives one edit, which is only sent if the lookup has threads to run on
+        AtomicInteger connections = new AtomicInteger();
+        processor = processor((offset, lastEventId) -> Flux.just(
+                event(String.valueOf(connections.incrementAndGet()), edit)).concatWith(Flux.never()));
+        processor.start();
+        awaitSent(1);
+        processor.stop();
+
+        processor.start();
+        awaitSent(2);
+        assertEquals(2, sent.size());
+        assertEquals(0.0, metrics.getCategoryLookupFailures().count(), 0.0);
+    }
+
+    @Test
+    public void stopReleasesTheSchedulerThreads() throws Exception {
+        String edit;
+        try (InputStream sample = getClass().getResourceAsStream("/recentchange-edit.json")) {
+            edit = new String(sample.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        processor = processor((offset, lastEventId) -> Flux.just(event("1", edit)).concatWith(Flux.never()));
+        processor.start();
+        awaitSent(1);
+        processor.stop();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!schedulerThreads().isEmpty() && System.currentTimeMillis() < deadline)
+            TimeUnit.MILLISECONDS.sleep(20);
+
+        assertEquals(List.of(), schedulerThreads());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unorderedEnrichmentIsRejected() {
+        CategoryEnrichmentProperties enrichmentProperties = new CategoryEnrichmentProperties();
+        enrichmentProperties.setOrdered(false);
+
+        processor((offset, lastEventId) -> Flux.never(), enrichmentProperties);
+    }
+
+    private RecentChangeProcessor processor(WikiStreamClient streamClient) {
+        return processor(streamClient, new CategoryEnrichmentProperties());
+    }
+
+    private RecentChangeProcessor processor(WikiStreamClient streamClient,
+                                            CategoryEnrichmentProperties enrichmentProperties) {
+        CheckpointStore checkpointStore = new CheckpointStore() {
+            @Override
+            public Optional<Checkpoint> load() {
+                return Optional.empty();
+            }
+
+            @Override
+            public void save(Checkpoint checkpoint) {
+                saved.set(checkpoint);
+            }
+        };
+
+        return new RecentChangeProcessor(() -> (message, timeout) -> sent.add(message), streamClient,
+                new WikiStreamProperties(), title -> List.of("Category:Streaming"), new CategoryBatchProperties(),
+                enrichmentProperties, metrics, checkpointStore,
+                new BoundedBuffer<CategorizedChange>(100, OverflowPolicy.BLOCK), new BufferProperties(),
+                new ChangeEncoder(OutputMode.FAN_OUT), Optional.empty());
+    }
+
+    private void awaitSent(int records) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (sent.size() < records && System.currentTimeMillis() < deadline)
+            TimeUnit.MILLISECONDS.sleep(20);
+    }
+
+    private static List<String> schedulerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .map(Thread::getName)
+                .filter(name -> name.startsWith("category-lookup") || name.startsWith("kafka-sender"))
+                .collect(Collectors.toList());
+    }
+
+    private static ServerSentEvent<String> event(String id, String data) {
+        return ServerSentEvent.<String>builder().id(id).data(data).build();
+    }
+}
@@ -0,0 +1,154 @@
+package io.example.index;
+
+import io.example.categories.CategoryLookup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CategoryIndexTest {
+
+    private static final String PAGE_DUMP = String.join("\n",
+            "-- MySQL dump 10.19",
+            "DROP TABLE IF EXISTS `page`;",
+            "CREATE TABLE `page` (",
+            "  `page_id` int(8) unsigned NOT NULL AUTO_INCREMENT,",
+            "  `page_namespace` int(11) NOT NULL DEFAULT 0,",
+            "  `page_title` varbinary(255) NOT NULL DEFAULT '',",
+            "  `page_is_redirect` tinyint(1) unsigned NOT NULL DEFAULT 0,",
+            "  PRIMARY KEY (`page_id`)",
+            ") ENGINE=InnoDB DEFAULT CHARSET=binary;",
+            "INSERT INTO `page` VALUES (12,0,'Anarchism',0),(25,0,'Autism',0),(39,1,'Albedo',0)," +
+                    "(40,0,'Rock_\\'n\\'_roll,_(music)',0);",
+            "INSERT INTO `page` VALUES (41,0,'No_categories',0),(42,2,'Example',0);",
+            "");
+
+    private static final String CATEGORYLINKS_DUMP = String.join("\n",
+            "CREATE TABLE `categorylinks` (",
+            "  `cl_from` int(8) unsigned NOT NULL DEFAULT 0,",
+            "  `cl_to` varbinary(255) NOT NULL DEFAULT '',",
+            "  `cl_sortkey` varbinary(230) NOT NULL DEFAULT '',",
+            "  PRIMARY KEY (`cl_from`,`cl_to`)",
+            ") ENGINE=InnoDB DEFAULT CHARSET=binary;",
+            "INSERT INTO `categorylinks` VALUES (12,'Political_ideologies','ANARCHISM')," +
+                    "(12,'Anti-capitalism','ANARCHISM'),(25,'Autism','AUTISM'),(39,'Talk_pages',NULL);",
+            "INSERT INTO `categorylinks` VALUES (40,'Rock_music','ROCK'),(99,'Deleted_pages','X');",
+            "");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sqlDumpsAreImportedIntoAnIndex() throws Exception {
+        CategoryIndexImporter importer = new CategoryIndexImporter();
+        importer.readPages(write("page.sql", PAGE_DUMP));
+        importer.readCategoryLinks(write("categorylinks.sql", CATEGORYLINKS_DUMP), null);
+        Path output = folder.getRoot().toPath().resolve("category-index");
+        assertEquals(6, importer.write(output, 1000L));
+
+        try (CategoryIndex index = CategoryIndex.open(output)) {
+            assertEquals(1000L, index.getCreatedAt());
+            assertEquals(List.of("Category:Political ideologies", "Category:Anti-capitalism"),
+                    index.getCategories("Anarchism"));
+            assertEquals(List.of("Category:Autism"), index.getCategories("Autism"));
+            assertEquals(List.of("Category:Talk pages"), index.getCategories("Talk:Albedo"));
+            assertEquals(List.of("Category:Rock music"), index.getCategories("Rock 'n' roll, (music)"));
+            assertEquals(List.of(), index.getCategories("No categories"));
+            assertEquals(List.of(), index.getCategories("User:Example"));
+            assertNull(index.getCategories("Albedo"));
+        }
+    }
+
+    @Test
+    public void categoryTargetsAreResolvedWithTheLinkTargetDump() throws Exception {
+        String categoryLinks = String.join("\n",
+                "CREATE TABLE `categorylinks` (",
+                "  `cl_from` int(8) unsigned NOT NULL DEFAULT 0,",
+                "  `cl_sortkey` varbinary(230) NOT NULL DEFAULT '',",
+                "  `cl_target_id` bigint(20) unsigned NOT NULL,",
+                "  PRIMARY KEY (`cl_from`,`cl_target_id`)",
+                ") ENGINE=InnoDB DEFAULT CHARSET=binary;",
+                "INSERT INTO `categorylinks` VALUES (12,'ANARCHISM',7),(25,'AUTISM',8),(25,'AUTISM',9);",
+                "");
+        String linkTarget = String.join("\n",
+                "CREATE TABLE `linktarget` (",
+                "  `lt_id` bigint(20) unsigned NOT NULL AUTO_INCREMENT,",
+                "  `lt_namespace` int(11) NOT NULL,",
+                "  `lt_title` varbinary(255) NOT NULL,",
+                "  PRIMARY KEY (`lt_id`)",
+                ") ENGINE=InnoDB DEFAULT CHARSET=binary;",
+                "INSERT INTO `linktarget` VALUES (7,14,'Political_ideologies'),(8,14,'Autism'),(9,10,'Infobox');",
+                "");
+
+        CategoryIndexImporter importer = new CategoryIndexImporter();
+        importer.readPages(write("page.sql", PAGE_DUMP));
+        importer.readCategoryLinks(write("categorylinks.sql", categoryLinks), write("linktarget.sql", linkTarget));
+        Path output = folder.getRoot().toPath().resolve("category-index");
+        importer.write(output, 0L);
+
+        try (CategoryIndex index = CategoryIndex.open(output)) {
+            assertEquals(List.of("Category:Political ideologies"), index.getCategories("Anarchism"));
+            assertEquals(List.of("Category:Autism"), index.getCategories("Autism"));
+        }
+    }
+
+    @Test
+    public void pagesThatAreNotInTheIndexAreLookedUpWithTheDelegate() throws Exception {
+        CategoryIndexImporter importer = new CategoryIndexImporter();
+        importer.readTsv(write("categories.tsv", "Anarchism\tPolitical_ideologies\nAutism\tCategory:Autism\n" +
+                "No categories\n"));
+        Path output = folder.getRoot().toPath().resolve("category-index");
+        importer.write(output, 0L);
+
+        Map<String, List<String>> api = new HashMap<>();
+        api.put("Newer page", List.of("Category:New pages"));
+        List<Collection<String>> requests = new ArrayList<>();
+        CategoryLookup delegate = new CategoryLookup() {
+            @Override
+            public List<String> getCategories(String title) {
+                return getCategories(List.of(title)).get(title);
+            }
+
+            @Override
+            public Map<String, List<String>> getCategories(Collection<String> titles) {
+                requests.add(titles);
+                Map<String, List<String>> categories = new HashMap<>();
+                titles.forEach(title -> categories.put(title, api.getOrDefault(title, List.of())));
+                return categories;
+            }
+        };
+
+        Counter hits = new SimpleMeterRegistry().counter("hits");
+        try (CategoryIndex index = CategoryIndex.open(output)) {
+            IndexedCategoryLookup lookup = new IndexedCategoryLookup(index, delegate, hits);
+            Map<String, List<String>> categories = lookup.getCategories(
+                    List.of("Anarchism", "Autism", "No categories", "Newer page"));
+
+            assertEquals(List.of("Category:Political ideologies"), categories.get("Anarchism"));
+            assertEquals(List.of("Category:Autism"), categories.get("Autism"));
+            assertEquals(List.of(), categories.get("No categories"));
+            assertEquals(List.of("Category:New pages"), categories.get("Newer page"));
+            assertEquals(List.of(List.of("Newer page")), requests);
+            assertEquals(3.0, hits.count(), 0.0);
+        }
+    }
+
+    private Path write(String name, String contents) throws Exception {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
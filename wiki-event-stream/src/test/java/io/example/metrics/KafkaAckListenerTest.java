@@ -0,0 +1,42 @@
+package io.example.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.RecordBatch;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KafkaAckListenerTest {
+
+    private final PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+    private final KafkaAckListener listener = new KafkaAckListener(metrics);
+
+    @Test
+    public void ackIsTimedFromTheProducersTimestamp() {
+        listener.onSuccess(record(), metadata(System.currentTimeMillis() - 250));
+
+        assertEquals(1, metrics.getKafkaAck().count());
+        assertTrue(metrics.getKafkaAck().totalTime(TimeUnit.MILLISECONDS) >= 250);
+    }
+
+    @Test
+    public void ackWithoutATimestampIsNotTimed() {
+        listener.onSuccess(record(), metadata(RecordBatch.NO_TIMESTAMP));
+
+        assertEquals(0, metrics.getKafkaAck().count());
+    }
+
+    private static ProducerRecord<Object, Object> record() {
+        return new ProducerRecord<>("wiki-recent-change", "{}");
+    }
+
+    private static RecordMetadata metadata(long timestamp) {
+        return new RecordMetadata(new TopicPartition("wiki-recent-change", 0), 0, 0, timestamp, null, 0, 2);
+    }
+}
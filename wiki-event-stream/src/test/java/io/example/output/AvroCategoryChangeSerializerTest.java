@@ -0,0 +1,94 @@
+package io.example.output;
+
+import io.example.schema.category.CategoryChange;
+import io.example.schema.page.Length;
+import io.example.schema.page.Meta;
+import io.example.schema.page.RecentChange;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AvroCategoryChangeSerializerTest {
+
+    private final Schema schema = new Schema.Parser().parse(AvroCategoryChangeSerializer.SCHEMA);
+
+    @Test
+    public void recordsAreReadableWithTheSchema() throws Exception {
+        RecentChange recentChange = new RecentChange();
+        recentChange.setId(1292736110);
+        recentChange.setTitle("Zürich \"Hauptbahnhof\" 東京 😀");
+        recentChange.setComment("/* History */ line\nbreak");
+        recentChange.setType("edit");
+        recentChange.setWiki("enwiki");
+        Meta meta = new Meta();
+        meta.setDt(new Date(1596477823000L));
+        meta.setDomain("en.wikipedia.org");
+        meta.setId("9e0f1a2b-6c3d-4e5f-8a9b-0c1d2e3f4a5b");
+        recentChange.setMeta(meta);
+        Length length = new Length();
+        length.setOld(175);
+        length.setNew(120);
+        recentChange.setLength(length);
+
+        List<String> categories = Arrays.asList("Category:Railway stations in Zürich", "");
+        List<byte[]> records = new AvroCategoryChangeSerializer(258).serialize(recentChange, categories, "added");
+
+        assertEquals(categories.size(), records.size());
+        for (int i = 0; i < categories.size(); i++) {
+            CategoryChange expected = CategoryChange.create(recentChange, categories.get(i));
+            GenericRecord record = read(records.get(i), 258);
+            assertEquals(expected.getId(), record.get("id"));
+            assertEquals(expected.getTitle(), string(record.get("title")));
+            assertEquals(expected.getComment(), string(record.get("comment")));
+            assertNull(record.get("parsedComment"));
+            assertNull(record.get("uri"));
+            assertEquals(expected.getDomain(), string(record.get("domain")));
+            assertEquals(expected.getDateTime(), string(record.get("dateTime")));
+            assertEquals(expected.getChangeLength(), record.get("changeLength"));
+            assertEquals(expected.getUuid(), string(record.get("uuid")));
+            assertEquals(expected.getChangedTime(), record.get("changedTime"));
+            assertEquals("added", string(record.get("action")));
+            assertEquals(categories.get(i), string(record.get("category")));
+        }
+    }
+
+    @Test
+    public void missingFieldsAreReadAsNull() throws Exception {
+        RecentChange recentChange = new RecentChange();
+        Meta meta = new Meta();
+        meta.setDt(new Date(0L));
+        recentChange.setMeta(meta);
+
+        GenericRecord record = read(new AvroCategoryChangeSerializer(1)
+                .serialize(recentChange, List.of("Category:Stubs"), null).get(0), 1);
+
+        assertNull(record.get("id"));
+        assertNull(record.get("title"));
+        assertNull(record.get("action"));
+        assertEquals("Category:Stubs", string(record.get("category")));
+    }
+
+    private GenericRecord read(byte[] payload, int schemaId) throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        assertEquals(0, buffer.get());
+        assertEquals(schemaId, buffer.getInt());
+
+        GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(schema);
+        return reader.read(null, DecoderFactory.get()
+                .binaryDecoder(payload, buffer.position(), buffer.remaining(), null));
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,101 @@
+package io.example.output;
+
+import io.example.schema.category.CategorizedChange;
+import io.example.schema.category.CategoryAction;
+import io.example.schema.page.RecentChange;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CategoryDiffTrackerTest {
+
+    private final RecentChange recentChange = new RecentChange();
+
+    public CategoryDiffTrackerTest() {
+        recentChange.setTitle("Apache Kafka");
+    }
+
+    @Test
+    public void onlyEmitsCategoriesThatChanged() {
+        CategoryDiffTracker tracker = new CategoryDiffTracker(new OutputProperties.Diff());
+
+        CategorizedChange first = tracker.diff(change("Category:Streaming", "Category:Apache Software Foundation"));
+        assertEquals(CategoryAction.SNAPSHOT, first.getAction());
+        assertEquals(2, first.getCategories().size());
+
+        CategorizedChange unchanged = tracker.diff(change("Category:Streaming", "Category:Apache Software Foundation"));
+        assertTrue(unchanged.getCategories().isEmpty());
+        assertTrue(unchanged.getRemovedCategories().isEmpty());
+
+        CategorizedChange changed = tracker.diff(change("Category:Streaming", "Category:Message brokers"));
+        assertEquals(CategoryAction.ADDED, changed.getAction());
+        assertEquals(Collections.singletonList("Category:Message brokers"), changed.getCategories());
+        assertEquals(Collections.singletonList("Category:Apache Software Foundation"),
+                changed.getRemovedCategories());
+    }
+
+    @Test
+    public void diffsKeepThePositionOfTheChange() {
+        CategoryDiffTracker tracker = new CategoryDiffTracker(new OutputProperties.Diff());
+        CategorizedChange change = change("Category:Streaming");
+        change.setEventId("[{\"topic\":\"eqiad.mediawiki.recentchange\",\"offset\":42}]");
+        change.setOffset(1596477823000L);
+
+        CategorizedChange diff = tracker.diff(change);
+
+        assertEquals(change.getEventId(), diff.getEventId());
+        assertEquals(change.getOffset(), diff.getOffset());
+    }
+
+    @Test
+    public void sendsPeriodicSnapshots() {
+        OutputProperties.Diff properties = new OutputProperties.Diff();
+        properties.setSnapshotInterval(Duration.ofHours(1));
+        Instant[] now = {Instant.parse("2020-08-03T18:00:00Z")};
+        CategoryDiffTracker tracker = new CategoryDiffTracker(properties, new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now[0];
+            }
+        });
+
+        tracker.diff(change("Category:Streaming"));
+        now[0] = now[0].plus(Duration.ofMinutes(30));
+        assertEquals(CategoryAction.ADDED, tracker.diff(change("Category:Streaming")).getAction());
+        now[0] = now[0].plus(Duration.ofMinutes(30));
+        assertEquals(CategoryAction.SNAPSHOT, tracker.diff(change("Category:Streaming")).getAction());
+
+        // A periodic snapshot carries the categories that were removed since the last edit along with the full list
+        tracker.diff(change("Category:Streaming", "Category:Message brokers"));
+        now[0] = now[0].plus(Duration.ofHours(1));
+        CategorizedChange snapshot = tracker.diff(change("Category:Message brokers"));
+        assertEquals(CategoryAction.SNAPSHOT, snapshot.getAction());
+        assertEquals(Collections.singletonList("Category:Message brokers"), snapshot.getCategories());
+        assertEquals(Collections.singletonList("Category:Streaming"), snapshot.getRemovedCategories());
+    }
+
+    private CategorizedChange change(String... categories) {
+        List<String> list = Arrays.asList(categories);
+        return new CategorizedChange(recentChange, list);
+    }
+}
@@ -0,0 +1,99 @@
+package io.example.output;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.schema.category.CategorizedChange;
+import io.example.schema.category.CategoryAction;
+import io.example.schema.category.MultiValueCategoryChange;
+import io.example.schema.page.Meta;
+import io.example.schema.page.RecentChange;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecentChange recentChange = new RecentChange();
+
+    public ChangeEncoderTest() {
+        recentChange.setId(1292736110);
+        recentChange.setTitle("Apache Kafka");
+        Meta meta = new Meta();
+        meta.setDt(new Date(1596477823000L));
+        meta.setDomain("en.wikipedia.org");
+        recentChange.setMeta(meta);
+    }
+
+    @Test
+    public void fanOutSendsOneRecordPerCategory() throws Exception {
+        ChangeEncoder encoder = new ChangeEncoder(OutputMode.FAN_OUT);
+        CategorizedChange change = new CategorizedChange(recentChange,
+                Arrays.asList("Category:Streaming", "Category:Message brokers"));
+
+        List<Object> payloads = encoder.encode(change);
+
+        assertEquals("application/json", encoder.getContentType());
+        assertEquals(2, payloads.size());
+        JsonNode first = objectMapper.readTree((byte[]) payloads.get(0));
+        assertEquals("Apache Kafka", first.get("title").asText());
+        assertEquals("Category:Streaming", first.get("category").asText());
+        assertTrue(first.get("action").isNull());
+        assertEquals("Category:Message brokers", objectMapper.readTree((byte[]) payloads.get(1)).get("category")
+                .asText());
+    }
+
+    @Test
+    public void multiValueSendsOneRecordPerChange() {
+        ChangeEncoder encoder = new ChangeEncoder(OutputMode.MULTI_VALUE);
+        List<String> categories = Arrays.asList("Category:Streaming", "Category:Message brokers");
+
+        List<Object> payloads = encoder.encode(new CategorizedChange(recentChange, categories));
+
+        // The record is converted by the output binding, so no content type is set
+        assertNull(encoder.getContentType());
+        assertEquals(1, payloads.size());
+        MultiValueCategoryChange record = (MultiValueCategoryChange) payloads.get(0);
+        assertEquals("Apache Kafka", record.getTitle());
+        assertEquals(categories, record.getCategory());
+        assertNull(record.getAction());
+    }
+
+    @Test
+    public void removedCategoriesAreSentAsTheirOwnRecords() throws Exception {
+        CategorizedChange diff = new CategorizedChange(recentChange, Collections.singletonList("Category:Streaming"),
+                Arrays.asList("Category:Databases", "Category:Stubs"), CategoryAction.ADDED);
+
+        List<Object> fanOut = new ChangeEncoder(OutputMode.FAN_OUT).encode(diff);
+        assertEquals(3, fanOut.size());
+        assertEquals("added", objectMapper.readTree((byte[]) fanOut.get(0)).get("action").asText());
+        JsonNode removed = objectMapper.readTree((byte[]) fanOut.get(2));
+        assertEquals("Category:Stubs", removed.get("category").asText());
+        assertEquals("removed", removed.get("action").asText());
+
+        List<Object> multiValue = new ChangeEncoder(OutputMode.MULTI_VALUE).encode(diff);
+        assertEquals(2, multiValue.size());
+        MultiValueCategoryChange added = (MultiValueCategoryChange) multiValue.get(0);
+        assertEquals(Collections.singletonList("Category:Streaming"), added.getCategory());
+        assertEquals("added", added.getAction());
+        MultiValueCategoryChange removedRecord = (MultiValueCategoryChange) multiValue.get(1);
+        assertEquals(Arrays.asList("Category:Databases", "Category:Stubs"), removedRecord.getCategory());
+        assertEquals("removed", removedRecord.getAction());
+    }
+
+    @Test
+    public void changesWithoutCategoriesAreNotSent() {
+        CategorizedChange unchanged = new CategorizedChange(recentChange, Collections.emptyList(),
+                Collections.emptyList(), CategoryAction.ADDED);
+
+        assertTrue(new ChangeEncoder(OutputMode.FAN_OUT).encode(unchanged).isEmpty());
+        assertTrue(new ChangeEncoder(OutputMode.MULTI_VALUE).encode(unchanged).isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package io.example.output;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.schema.category.CategoryChange;
+import io.example.schema.page.Length;
+import io.example.schema.page.Meta;
+import io.example.schema.page.RecentChange;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonCategoryChangeSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void recordsMatchWhatTheJsonConverterWrites() throws Exception {
+        RecentChange recentChange = new RecentChange();
+        recentChange.setId(1292736110);
+        recentChange.setTitle("Zürich \"Hauptbahnhof\" \\ 東京 😀");
+        recentChange.setComment("/* History */ line\nbreak\ttab\r\b\f \u0001 \u001f \u007f  ");
+        recentChange.setParsedcomment("<span dir=\"auto\">copyedit &quot;stream&quot;</span>");
+        recentChange.setType("edit");
+        recentChange.setWiki("enwiki");
+        Meta meta = new Meta();
+        meta.setDt(new Date(1596477823000L));
+        meta.setDomain("en.wikipedia.org");
+        meta.setUri("https://en.wikipedia.org/wiki/Z%C3%BCrich");
+        meta.setId("9e0f1a2b-6c3d-4e5f-8a9b-0c1d2e3f4a5b");
+        recentChange.setMeta(meta);
+        Length length = new Length();
+        length.setOld(120);
+        length.setNew(175);
+        recentChange.setLength(length);
+
+        List<String> categories = Arrays.asList("Category:Railway stations in Zürich", "Category:\"Quoted\"",
+                "Category:Ünïcödé 😀", "");
+        List<byte[]> records = new JsonCategoryChangeSerializer().serialize(recentChange, categories, "added");
+
+        assertEquals(categories.size(), records.size());
+        for (int i = 0; i < categories.size(); i++) {
+            CategoryChange expected = CategoryChange.create(recentChange, categories.get(i));
+            expected.setAction("added");
+            assertEquals(new String(objectMapper.writeValueAsBytes(expected), StandardCharsets.UTF_8),
+                    new String(records.get(i), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void missingFieldsAreWrittenAsNull() throws Exception {
+        RecentChange recentChange = new RecentChange();
+        Meta meta = new Meta();
+        meta.setDt(new Date(0L));
+        recentChange.setMeta(meta);
+
+        byte[] record = new JsonCategoryChangeSerializer()
+                .serialize(recentChange, List.of("Category:Stubs"), null).get(0);
+
+        assertEquals(new String(objectMapper.writeValueAsBytes(CategoryChange.create(recentChange, "Category:Stubs")),
+                StandardCharsets.UTF_8), new String(record, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,33 @@
+package io.example.output;
+
+import io.example.categories.CategoryEnrichmentProperties;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+
+public class OutputConfigurationTest {
+
+    private final OutputConfiguration configuration = new OutputConfiguration();
+
+    @Test
+    public void diffIsCreatedWhenChangesAreOrdered() {
+        assertNotNull(configuration.categoryDiffTracker(new OutputProperties(), new CategoryEnrichmentProperties()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void diffIsRejectedWhenChangesAreUnordered() {
+        CategoryEnrichmentProperties enrichmentProperties = new CategoryEnrichmentProperties();
+        enrichmentProperties.setOrdered(false);
+
+        configuration.categoryDiffTracker(new OutputProperties(), enrichmentProperties);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void avroIsRejectedForMultiValueRecords() {
+        OutputProperties properties = new OutputProperties();
+        properties.setMode(OutputMode.MULTI_VALUE);
+        properties.setFormat(OutputFormat.AVRO);
+
+        configuration.changeEncoder(properties);
+    }
+}
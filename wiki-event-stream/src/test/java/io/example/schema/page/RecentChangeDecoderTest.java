@@ -0,0 +1,53 @@
+package io.example.schema.page;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RecentChangeDecoderTest {
+
+    private final RecentChangeDecoder decoder = new RecentChangeDecoder();
+
+    @Test
+    public void decodesTheFieldsUsedByTheProcessor() throws Exception {
+        String json = readSample();
+        RecentChange expected = new Gson().fromJson(json, RecentChange.class);
+        RecentChange actual = decoder.decode(json);
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getComment(), actual.getComment());
+        assertEquals(expected.getParsedcomment(), actual.getParsedcomment());
+        assertEquals(expected.getUser(), actual.getUser());
+        assertEquals(expected.getWiki(), actual.getWiki());
+        assertEquals(expected.getMeta().getUri(), actual.getMeta().getUri());
+        assertEquals(expected.getMeta().getId(), actual.getMeta().getId());
+        assertEquals(expected.getMeta().getDomain(), actual.getMeta().getDomain());
+        assertEquals(expected.getMeta().getDt(), actual.getMeta().getDt());
+        assertEquals(expected.getLength().getOld(), actual.getLength().getOld());
+        assertEquals(Integer.valueOf(41290), actual.getLength().getNew());
+    }
+
+    @Test
+    public void skipsPropertiesThatAreNotUsed() throws Exception {
+        RecentChange recentChange = decoder.decode(readSample());
+
+        assertNull(recentChange.getRevision());
+        assertNull(recentChange.getServerUrl());
+        assertEquals(0, recentChange.getAdditionalProperties().size());
+        assertEquals(0, recentChange.getMeta().getAdditionalProperties().size());
+    }
+
+    private String readSample() throws IOException {
+        try (InputStream sample = getClass().getResourceAsStream("/recentchange-edit.json")) {
+            return new String(sample.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.example.segment;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SegmentedLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsRollOverIntoNewSegmentsAndAreReadInOrder() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (SegmentedLog log = new SegmentedLog(directory, 32)) {
+            for (int i = 0; i < 10; i++)
+                log.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(5, SegmentedLog.segments(directory).size());
+        assertEquals(records(0, 10), readAll(directory));
+    }
+
+    @Test
+    public void reopenedLogAppendsAfterTheLastRecord() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (SegmentedLog log = new SegmentedLog(directory, 1024)) {
+            for (int i = 0; i < 3; i++)
+                log.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // The segment isn't closed, so the rest of it is still padded with zeros
+        SegmentedLog unclosed = new SegmentedLog(directory, 1024);
+        unclosed.append("record-3".getBytes(StandardCharsets.UTF_8));
+        unclosed.flush();
+
+        try (SegmentedLog log = new SegmentedLog(directory, 1024)) {
+            log.append("record-4".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(records(0, 5), readAll(directory));
+    }
+
+    @Test
+    public void tornLastRecordIsNotReadAndIsOverwritten() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SegmentedLog unclosed = new SegmentedLog(directory, 1024);
+        for (int i = 0; i < 3; i++)
+            unclosed.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+        unclosed.flush();
+
+        // A crash left the length of the next frame on disk, but not its checksum or the record behind it
+        int end = 3 * (SegmentedLog.HEADER_SIZE + "record-0".length());
+        try (FileChannel channel = FileChannel.open(SegmentedLog.segments(directory).get(0),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 8), end);
+        }
+
+        assertEquals(records(0, 3), readAll(directory));
+
+        try (SegmentedLog log = new SegmentedLog(directory, 1024)) {
+            log.append("record-3".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(records(0, 4), readAll(directory));
+    }
+
+    @Test
+    public void recordWithABadChecksumEndsTheSegment() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (SegmentedLog log = new SegmentedLog(directory, 1024)) {
+            for (int i = 0; i < 3; i++)
+                log.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Flips a byte of the second record
+        int second = SegmentedLog.HEADER_SIZE + "record-0".length() + SegmentedLog.HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(SegmentedLog.segments(directory).get(0),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), second);
+        }
+
+        assertEquals(records(0, 1), readAll(directory));
+    }
+
+    private static List<String> records(int from, int to) {
+        List<String> records = new ArrayList<>();
+        for (int i = from; i < to; i++)
+            records.add("record-" + i);
+        return records;
+    }
+
+    private static List<String> readAll(Path directory) throws Exception {
+        List<String> records = new ArrayList<>();
+        try (SegmentReader reader = SegmentedLog.read(directory)) {
+            reader.forEachRemaining(record -> records.add(new String(record, StandardCharsets.UTF_8)));
+        }
+        return records;
+    }
+}
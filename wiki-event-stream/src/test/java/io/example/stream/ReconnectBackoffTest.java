@@ -0,0 +1,40 @@
+package io.example.stream;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReconnectBackoffTest {
+
+    @Test
+    public void delayDoublesUpToTheMaximum() {
+        ReconnectBackoff backoff = new ReconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(1), 0.0);
+
+        assertEquals(Duration.ofMillis(100), backoff.nextDelay());
+        assertEquals(Duration.ofMillis(200), backoff.nextDelay());
+        assertEquals(Duration.ofMillis(400), backoff.nextDelay());
+        assertEquals(Duration.ofMillis(800), backoff.nextDelay());
+        assertEquals(Duration.ofSeconds(1), backoff.nextDelay());
+
+        // The delay never overflows, no matter how many attempts failed
+        for (int i = 0; i < 100; i++)
+            assertEquals(Duration.ofSeconds(1), backoff.nextDelay());
+    }
+
+    @Test
+    public void resetStartsOverAndJitterOnlyShortensTheDelay() {
+        ReconnectBackoff backoff = new ReconnectBackoff(Duration.ofMillis(1000), Duration.ofSeconds(30), 0.5);
+        backoff.nextDelay();
+        backoff.nextDelay();
+        backoff.reset();
+
+        for (int i = 0; i < 100; i++) {
+            long delay = backoff.nextDelay().toMillis();
+            backoff.reset();
+            assertTrue("Delay was " + delay, delay >= 500 && delay <= 1000);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.example.stream;
+
+import io.example.segment.SegmentedLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayWikiStreamClientTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysTheRecordingAndResumesAfterTheLastEvent() throws Exception {
+        Path directory = record(0L, 0L, 0L);
+        ReplayWikiStreamClient client = new ReplayWikiStreamClient(directory, 0);
+
+        assertEquals(List.of("0", "1", "2"), ids(client.connect(0L, null).collectList().block()));
+        assertEquals(List.of("2"), ids(client.connect(0L, "1").collectList().block()));
+        assertEquals(List.of(), ids(client.connect(0L, "2").collectList().block()));
+        assertEquals(List.of("0", "1", "2"), ids(client.connect(0L, "unknown").collectList().block()));
+    }
+
+    @Test
+    public void replaySpeedDividesTheRecordedGaps() throws Exception {
+        Path directory = record(0L, 1000L, 2000L);
+
+        long start = System.currentTimeMillis();
+        new ReplayWikiStreamClient(directory, 10).connect(0L, null).blockLast(Duration.ofSeconds(5));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("Replay took " + elapsed + "ms", elapsed >= 190 && elapsed < 1000);
+    }
+
+    private Path record(long... arrivalTimes) throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (SegmentedLog log = new SegmentedLog(directory, 4096)) {
+            for (int i = 0; i < arrivalTimes.length; i++) {
+                log.append(new RecordedEvent(String.valueOf(i), "message", "{\"id\":" + i + "}",
+                        1596477823000L + arrivalTimes[i]).toBytes());
+            }
+        }
+        return directory;
+    }
+
+    private static List<String> ids(List<ServerSentEvent<String>> events) {
+        return events.stream().map(ServerSentEvent::id).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,63 @@
+package io.example.stream;
+
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ServerSentEventDecoderTest {
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    public void decodesEventsAndDropsComments() {
+        List<ServerSentEvent<String>> events = decode(
+                ":ok\n\nevent: message\nid: [1]\ndata: {\"a\":1}\n\n" +
+                        "event: message\r\nid:[2]\r\ndata: line one\r\ndata: line two\r\nretry: 500\r\n\r\n" +
+                        "id: [3]\n\n" +
+                        "data: incomplete");
+
+        assertEquals(2, events.size());
+        assertEquals("message", events.get(0).event());
+        assertEquals("[1]", events.get(0).id());
+        assertEquals("{\"a\":1}", events.get(0).data());
+        assertEquals("[2]", events.get(1).id());
+        assertEquals("line one\nline two", events.get(1).data());
+        assertEquals(Duration.ofMillis(500), events.get(1).retry());
+    }
+
+    @Test
+    public void joinsLinesAndCharactersThatAreSplitAcrossBuffers() {
+        byte[] bytes = "id: [1]\ndata: Café\n\n".getBytes(StandardCharsets.UTF_8);
+
+        // Split every byte into its own buffer, which also splits the two bytes of the accented character
+        DataBuffer[] buffers = new DataBuffer[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            buffers[i] = bufferFactory.wrap(new byte[]{bytes[i]});
+
+        List<ServerSentEvent<String>> events = new ServerSentEventDecoder()
+                .decode(Flux.fromArray(buffers))
+                .collectList()
+                .block();
+
+        assertEquals(1, events.size());
+        assertEquals("[1]", events.get(0).id());
+        assertEquals("Café", events.get(0).data());
+    }
+
+    private List<ServerSentEvent<String>> decode(String... chunks) {
+        return new ServerSentEventDecoder()
+                .decode(Flux.fromIterable(Arrays.asList(chunks))
+                        .map(chunk -> bufferFactory.wrap(chunk.getBytes(StandardCharsets.UTF_8))))
+                .collectList()
+                .block();
+    }
+}
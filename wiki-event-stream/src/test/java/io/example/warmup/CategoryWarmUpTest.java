@@ -0,0 +1,122 @@
+package io.example.warmup;
+
+import io.example.categories.CategoryLookup;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CategoryWarmUpTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void hotTitlesAreLookedUpInBatchesWithinTheConcurrencyBudget() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("hot-titles.txt");
+        StringBuilder contents = new StringBuilder("# title\tedits\n");
+        for (int i = 0; i < 25; i++)
+            contents.append("Page ").append(i).append('\t').append(100 - i).append('\n');
+        contents.append("Page 0\t1\n\n");
+        Files.write(file, contents.toString().getBytes(StandardCharsets.UTF_8));
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Collection<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        CategoryLookup lookup = new CategoryLookup() {
+            @Override
+            public List<String> getCategories(String title) {
+                return List.of("Category:Hot");
+            }
+
+            @Override
+            public Map<String, List<String>> getCategories(Collection<String> titles) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                batches.add(titles);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                Map<String, List<String>> categories = new HashMap<>();
+                titles.forEach(title -> categories.put(title, getCategories(title)));
+                return categories;
+            }
+        };
+
+        CategoryWarmUp warmUp = new CategoryWarmUp(new FileHotTitleSource(file), lookup,
+                Schedulers.newElastic("warm-up-test"), 100, 10, 2, Duration.ofSeconds(10));
+        warmUp.run();
+
+        assertEquals(CategoryWarmUp.State.COMPLETE, warmUp.getState());
+        assertEquals(25, warmUp.getTitles());
+        assertEquals(25, warmUp.getWarmed());
+        assertEquals(3, batches.size());
+        assertTrue(maxInFlight.get() <= 2);
+
+        // Later starts of the processor don't warm up the cache again
+        warmUp.run();
+        assertEquals(3, batches.size());
+    }
+
+    @Test
+    public void slowLookupsTimeOut() {
+        CategoryLookup lookup = new CategoryLookup() {
+            @Override
+            public List<String> getCategories(String title) {
+                return List.of("Category:Hot");
+            }
+
+            @Override
+            public Map<String, List<String>> getCategories(Collection<String> titles) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyMap();
+            }
+        };
+
+        CategoryWarmUp warmUp = new CategoryWarmUp(limit -> List.of("Main Page"), lookup,
+                Schedulers.newElastic("warm-up-test"), 100, 10, 1, Duration.ofMillis(200));
+        warmUp.run();
+
+        assertEquals(CategoryWarmUp.State.TIMED_OUT, warmUp.getState());
+    }
+
+    @Test
+    public void failingTitleSourceIsAFailureAndNotATimeOut() {
+        CategoryWarmUp warmUp = new CategoryWarmUp(limit -> {
+            throw new IllegalStateException("The broker responded with status 503");
+        }, title -> List.of(), Schedulers.newElastic("warm-up-test"), 100, 10, 1, Duration.ofSeconds(10));
+        warmUp.run();
+
+        assertEquals(CategoryWarmUp.State.FAILED, warmUp.getState());
+    }
+
+    @Test
+    public void hotTitlesAreReadFromTheRowsOfAPinotResponse() throws Exception {
+        String response = "{\"resultTable\":{\"dataSchema\":{\"columnNames\":[\"title\",\"distinctcount(id)\"]," +
+                "\"columnDataTypes\":[\"STRING\",\"INT\"]},\"rows\":[[\"Main Page\",120],[\"Deaths in 2020\",87]]}," +
+                "\"exceptions\":[],\"numDocsScanned\":1000}";
+
+        assertEquals(List.of("Main Page", "Deaths in 2020"), PinotHotTitleSource.parseTitles(response));
+    }
+}
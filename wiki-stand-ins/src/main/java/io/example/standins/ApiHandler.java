@@ -0,0 +1,130 @@
+package io.example.standins;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the parts of the MediaWiki {@code api.php} endpoint that jwiki uses to look up the categories of pages:
+ * the namespaces of the site, which jwiki reads when it is created, and the {@code categories} of a set of titles.
+ * Every response is delayed by a latency drawn from a log-normal distribution, and a share of the requests fail.
+ * Requests above a limit on the number that are served at once are rejected with a {@code 429}, like a rate limit.
+ *
+ * @author Kenny Bastani
+ */
+public class ApiHandler {
+
+    private static final double Z_99 = 2.326;
+
+    private final CategoryGenerator categoryGenerator;
+    private final double errorRate;
+    private final double mu;
+    private final double sigma;
+    private final int maxConcurrentRequests;
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+
+    public ApiHandler(CategoryGenerator categoryGenerator, StandInProperties.Api properties) {
+        this.categoryGenerator = categoryGenerator;
+        this.errorRate = properties.getErrorRate();
+        this.mu = Math.log(Math.max(1L, properties.getLatencyMedian().toNanos()));
+        this.sigma = Math.max(0.0, (Math.log(Math.max(1L, properties.getLatencyP99().toNanos())) - mu) / Z_99);
+        this.maxConcurrentRequests = properties.getMaxConcurrentRequests();
+    }
+
+    public Mono<ServerResponse> api(ServerRequest request) {
+        // A request counts against the limit for as long as it is delayed, like a request that is being processed
+        int concurrent = concurrentRequests.incrementAndGet();
+        if (maxConcurrentRequests > 0 && concurrent > maxConcurrentRequests) {
+            concurrentRequests.decrementAndGet();
+            return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromObject(Map.of("error",
+                            Map.of("code", "ratelimited", "info", "The stand-in is serving too many requests"))));
+        }
+
+        Mono<MultiValueMap<String, String>> parameters = request.formData().map(form -> {
+            MultiValueMap<String, String> merged = new LinkedMultiValueMap<>(request.queryParams());
+            merged.addAll(form);
+            return merged;
+        });
+
+        return parameters.delayElement(nextLatency()).flatMap(params -> {
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromObject(Map.of("error",
+                                Map.of("code", "unavailable", "info", "The stand-in failed this request"))));
+            }
+
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromObject(query(params)));
+        }).doFinally(signal -> concurrentRequests.decrementAndGet());
+    }
+
+    private Duration nextLatency() {
+        Random random = ThreadLocalRandom.current();
+        return Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+    }
+
+    private Map<String, Object> query(MultiValueMap<String, String> params) {
+        Map<String, Object> query = new LinkedHashMap<>();
+        String meta = params.getFirst("meta");
+        String prop = params.getFirst("prop");
+        String titles = params.getFirst("titles");
+
+        if (meta != null && meta.contains("siteinfo"))
+            addNamespaces(query);
+        if (prop != null && prop.contains("categories") && titles != null)
+            query.put("pages", pages(List.of(titles.split("\\|"))));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("batchcomplete", "");
+        response.put("query", query);
+        return response;
+    }
+
+    private Map<String, Object> pages(List<String> titles) {
+        Map<String, Object> pages = new LinkedHashMap<>();
+        for (String title : titles) {
+            Map<String, Object> page = new LinkedHashMap<>();
+            int pageId = Math.abs(title.hashCode() % 100000000) + 1;
+            page.put("pageid", pageId);
+            page.put("ns", 0);
+            page.put("title", title);
+            page.put("categories", categoryGenerator.categoriesOf(title).stream()
+                    .map(category -> Map.of("ns", 14, "title", category))
+                    .collect(Collectors.toList()));
+            pages.put(String.valueOf(pageId), page);
+        }
+        return pages;
+    }
+
+    private static void addNamespaces(Map<String, Object> query) {
+        Map<String, Object> namespaces = new LinkedHashMap<>();
+        String[][] names = {{"-2", "Media"}, {"-1", "Special"}, {"0", ""}, {"1", "Talk"}, {"2", "User"},
+                {"3", "User talk"}, {"4", "Wikipedia"}, {"5", "Wikipedia talk"}, {"6", "File"}, {"7", "File talk"},
+                {"10", "Template"}, {"11", "Template talk"}, {"14", "Category"}, {"15", "Category talk"}};
+        for (String[] name : names)
+            namespaces.put(name[0], Map.of("id", Integer.parseInt(name[0]), "case", "first-letter", "*", name[1]));
+
+        query.put("namespaces", namespaces);
+        query.put("namespacealiases", List.of(Map.of("id", 4, "*", "WP"), Map.of("id", 6, "*", "Image")));
+    }
+}
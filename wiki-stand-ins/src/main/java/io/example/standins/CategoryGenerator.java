@@ -0,0 +1,41 @@
+package io.example.standins;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates the categories of a page. The number of categories on a page and the categories themselves are both
+ * drawn from Zipf distributions, which is close to how categories are spread over the pages of Wikipedia. The
+ * categories of a page only depend on its title, so the same page always has the same categories.
+ *
+ * @author Kenny Bastani
+ */
+public class CategoryGenerator {
+
+    private final ZipfDistribution counts;
+    private final ZipfDistribution categories;
+    private final int categoryPoolSize;
+    private final long seed;
+
+    public CategoryGenerator(StandInProperties.Api properties, long seed) {
+        this.counts = new ZipfDistribution(properties.getMaxCategories(), properties.getCategoryCountExponent());
+        this.categories = new ZipfDistribution(properties.getCategoryPoolSize(), 1.0);
+        this.categoryPoolSize = properties.getCategoryPoolSize();
+        this.seed = seed;
+    }
+
+    public List<String> categoriesOf(String title) {
+        Random random = new Random(seed * 31 + title.hashCode());
+        int count = Math.min(counts.sample(random), categoryPoolSize);
+
+        // Popular categories are drawn more than once, so keep drawing until there are enough distinct ones
+        Set<String> pageCategories = new LinkedHashSet<>();
+        for (int attempt = 0; pageCategories.size() < count && attempt < count * 10; attempt++)
+            pageCategories.add("Category:Stand-in category " + categories.sample(random));
+
+        return new ArrayList<>(pageCategories);
+    }
+}
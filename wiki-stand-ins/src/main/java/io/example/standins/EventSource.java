@@ -0,0 +1,21 @@
+package io.example.standins;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+/**
+ * A source of the events that the stand-in change stream sends to each connection.
+ *
+ * @author Kenny Bastani
+ */
+public interface EventSource {
+
+    /**
+     * Starts a stream of events for a new connection.
+     *
+     * @param since       is the epoch milliseconds the client asked to start from, or null
+     * @param lastEventId is the id of the last event the client received, or null
+     * @return the events for the connection
+     */
+    Flux<ServerSentEvent<String>> events(Long since, String lastEventId);
+}
@@ -0,0 +1,141 @@
+package io.example.standins;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A schema registry that keeps its schemas in a directory, so that they survive restarts of the stand-ins and can be
+ * read and edited by hand. Every schema is a file named after its id in {@code ids}, and every subject is a file in
+ * {@code subjects} with the id of each of its versions on a line, in the order they were registered in.
+ *
+ * @author Kenny Bastani
+ */
+public class FileSchemaRegistry {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path ids;
+    private final Path subjects;
+    private final TreeMap<Integer, String> schemas = new TreeMap<>();
+    private final Map<String, List<Integer>> versions = new TreeMap<>();
+
+    /**
+     * Opens a registry, reading the schemas and subjects that were registered before.
+     *
+     * @param directory is the directory that the registry is kept in, which is created if it doesn't exist
+     */
+    public FileSchemaRegistry(Path directory) {
+        this.ids = directory.resolve("ids");
+        this.subjects = directory.resolve("subjects");
+        try {
+            Files.createDirectories(ids);
+            Files.createDirectories(subjects);
+            try (Stream<Path> files = Files.list(ids).filter(FileSchemaRegistry::isRegistered)) {
+                for (Path file : files.collect(Collectors.toList()))
+                    schemas.put(Integer.parseInt(file.getFileName().toString()), Files.readString(file));
+            }
+            try (Stream<Path> files = Files.list(subjects).filter(FileSchemaRegistry::isRegistered)) {
+                for (Path file : files.collect(Collectors.toList())) {
+                    versions.put(file.getFileName().toString(), Files.readAllLines(file).stream()
+                            .filter(line -> !line.isBlank())
+                            .map(Integer::parseInt)
+                            .collect(Collectors.toList()));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open the schema registry in " + directory, ex);
+        }
+    }
+
+    /**
+     * Registers a schema under a subject, as a new version of the subject unless it is already its latest version.
+     * A schema that is the same as one that is registered under any subject gets the id of that schema.
+     *
+     * @param subject is the subject to register the schema under
+     * @param schema  is the JSON of the schema
+     * @return the id of the schema
+     * @throws IOException if the schema isn't JSON, or if it couldn't be written
+     */
+    public synchronized int register(String subject, String schema) throws IOException {
+        if (subject.isEmpty() || subject.contains("/") || subject.contains("\\") || subject.startsWith("."))
+            throw new IllegalArgumentException("The subject is not a valid file name: " + subject);
+
+        JsonNode parsed = objectMapper.readTree(schema);
+        Integer id = schemas.entrySet().stream()
+                .filter(entry -> parsed.equals(readTree(entry.getValue())))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(null);
+        if (id == null) {
+            id = schemas.isEmpty() ? 1 : schemas.lastKey() + 1;
+            write(ids.resolve(String.valueOf(id)), schema);
+            schemas.put(id, schema);
+        }
+
+        List<Integer> subjectVersions = versions.computeIfAbsent(subject, key -> new ArrayList<>());
+        if (subjectVersions.isEmpty() || !subjectVersions.get(subjectVersions.size() - 1).equals(id)) {
+            List<Integer> updated = new ArrayList<>(subjectVersions);
+            updated.add(id);
+            write(subjects.resolve(subject), updated.stream().map(String::valueOf)
+                    .collect(Collectors.joining("\n", "", "\n")));
+            subjectVersions.add(id);
+        }
+        return id;
+    }
+
+    /**
+     * @param id is the id of a schema
+     * @return the schema, or {@code null} if there is no schema with the id
+     */
+    public synchronized String getSchema(int id) {
+        return schemas.get(id);
+    }
+
+    public synchronized List<String> getSubjects() {
+        return new ArrayList<>(versions.keySet());
+    }
+
+    /**
+     * @param subject is the subject to get the versions of
+     * @return the ids of the schemas of the subject's versions, the first of which is version 1, or {@code null} if
+     * the subject doesn't exist
+     */
+    public synchronized List<Integer> getVersions(String subject) {
+        List<Integer> subjectVersions = versions.get(subject);
+        return subjectVersions != null ? new ArrayList<>(subjectVersions) : null;
+    }
+
+    private static boolean isRegistered(Path file) {
+        return !file.getFileName().toString().endsWith(".tmp");
+    }
+
+    private static JsonNode readTree(String schema) {
+        try {
+            return objectMapper.readTree(schema);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a file through a temporary file, so that a crash never leaves a file half written.
+     */
+    private static void write(Path file, String content) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,22 @@
+package io.example.standins;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * Delays the items of a stream until the wall clock reaches the time that each item is due.
+ *
+ * @author Kenny Bastani
+ */
+class Pacer {
+
+    static <T> Flux<T> pace(Flux<T> items, ToLongFunction<T> dueTime) {
+        return items.concatMap(item -> {
+            long wait = dueTime.applyAsLong(item) - System.currentTimeMillis();
+            return wait > 0 ? Mono.just(item).delayElement(Duration.ofMillis(wait)) : Mono.just(item);
+        });
+    }
+}
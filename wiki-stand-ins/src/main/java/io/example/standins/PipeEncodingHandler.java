@@ -0,0 +1,27 @@
+package io.example.standins;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpRequest;
+
+/**
+ * Encodes the unescaped {@code |} characters that jwiki puts into the query strings of its requests. The MediaWiki
+ * API accepts them, but they aren't valid in a URI, so the request would otherwise be rejected before it reaches
+ * the stand-in.
+ *
+ * @author Kenny Bastani
+ */
+@ChannelHandler.Sharable
+class PipeEncodingHandler extends ChannelInboundHandlerAdapter {
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            if (request.uri().indexOf('|') >= 0)
+                request.setUri(request.uri().replace("|", "%7C"));
+        }
+        ctx.fireChannelRead(msg);
+    }
+}
@@ -0,0 +1,112 @@
+package io.example.standins;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates synthetic recent change events that look like the events on the Wikimedia change stream. Each event is
+ * generated from its offset in the stream, so the same offset always produces the same event.
+ *
+ * @author Kenny Bastani
+ */
+public class RecentChangeGenerator {
+
+    private static final String[] OTHER_WIKIS = {"wikidatawiki", "commonswiki", "dewiki", "frwiki", "eswiki",
+            "jawiki", "ruwiki", "itwiki", "zhwiki", "enwiktionary"};
+    private static final String[] OTHER_TYPES = {"new", "categorize", "log"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StandInProperties.Stream properties;
+    private final ZipfDistribution pages;
+    private final long seed;
+
+    public RecentChangeGenerator(StandInProperties.Stream properties, long seed) {
+        this.properties = properties;
+        this.pages = new ZipfDistribution(properties.getPageCount(), 1.0);
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the event at an offset of the stream.
+     *
+     * @param offset is the position of the event in the stream
+     * @param time   is the epoch milliseconds that the change happened at
+     * @return the JSON payload of the event
+     */
+    public String generate(long offset, long time) {
+        Random random = new Random(seed * 31 + offset);
+        boolean enwiki = random.nextDouble() < properties.getEnwikiRatio();
+        String wiki = enwiki ? "enwiki" : OTHER_WIKIS[random.nextInt(OTHER_WIKIS.length)];
+        String domain = domainOf(wiki);
+        String type = random.nextDouble() < properties.getEditRatio() ? "edit" :
+                OTHER_TYPES[random.nextInt(OTHER_TYPES.length)];
+        String title = "Stand-in page " + pages.sample(random);
+        String uri = "https://" + domain + "/wiki/" + title.replace(' ', '_');
+
+        ObjectNode event = objectMapper.createObjectNode();
+        event.put("$schema", "/mediawiki/recentchange/1.0.0");
+        ObjectNode meta = event.putObject("meta");
+        meta.put("uri", uri);
+        meta.put("request_id", Long.toHexString(random.nextLong()));
+        meta.put("id", new UUID(random.nextLong(), random.nextLong()).toString());
+        meta.put("dt", Instant.ofEpochMilli(time).toString());
+        meta.put("domain", domain);
+        meta.put("stream", "mediawiki.recentchange");
+        meta.put("topic", StandInEvents.TOPIC);
+        meta.put("partition", 0);
+        meta.put("offset", offset);
+        event.put("id", offset);
+        event.put("type", type);
+        if ("categorize".equals(type)) {
+            // Categorize events are about the category, and name the page that was added or removed in the comment
+            String action = random.nextBoolean() ? "added to" : "removed from";
+            event.put("namespace", 14);
+            event.put("title", "Category:Stand-in category " + (1 + random.nextInt(1000)));
+            event.put("comment", "[[:" + title + "]] " + action + " category");
+        } else {
+            event.put("namespace", 0);
+            event.put("title", title);
+            event.put("comment", "Stand-in change " + offset);
+        }
+        event.put("timestamp", time / 1000);
+        event.put("user", "Stand-in user " + random.nextInt(1000));
+        event.put("bot", random.nextInt(10) == 0);
+        if ("edit".equals(type) || "new".equals(type)) {
+            int oldLength = 1000 + random.nextInt(100000);
+            event.put("minor", random.nextBoolean());
+            ObjectNode length = event.putObject("length");
+            if ("edit".equals(type))
+                length.put("old", oldLength);
+            length.put("new", oldLength + random.nextInt(2000) - 1000);
+        }
+        event.put("server_url", "https://" + domain);
+        event.put("server_name", domain);
+        event.put("server_script_path", "/w");
+        event.put("wiki", wiki);
+        event.put("parsedcomment", event.get("comment").asText());
+
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String domainOf(String wiki) {
+        switch (wiki) {
+            case "wikidatawiki":
+                return "www.wikidata.org";
+            case "commonswiki":
+                return "commons.wikimedia.org";
+            case "enwiktionary":
+                return "en.wiktionary.org";
+            default:
+                return wiki.substring(0, wiki.length() - "wiki".length()) + ".wikipedia.org";
+        }
+    }
+}
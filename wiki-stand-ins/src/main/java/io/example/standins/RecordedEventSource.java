@@ -0,0 +1,42 @@
+package io.example.standins;
+
+import io.example.stream.RecordedEvent;
+import io.example.stream.RecordedEvents;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+
+/**
+ * Sends the events of a recording that was made by the ingest service, at a fixed rate. A client that reconnects
+ * with the id of an event in the recording resumes after that event. Otherwise, a client that asks for a
+ * {@code since} skips the events that arrived before it, and any other client receives the whole recording.
+ *
+ * @author Kenny Bastani
+ */
+public class RecordedEventSource implements EventSource {
+
+    private final Path directory;
+    private final double rate;
+
+    public RecordedEventSource(Path directory, StandInProperties.Stream properties) {
+        this.directory = directory;
+        this.rate = properties.getRate();
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> events(Long since, String lastEventId) {
+        return Flux.defer(() -> {
+            Flux<ServerSentEvent<String>> serverSentEvents = RecordedEvents.resume(directory, lastEventId, since)
+                    .map(RecordedEvent::toServerSentEvent);
+            if (rate <= 0)
+                return serverSentEvents;
+
+            long start = System.currentTimeMillis();
+            return Pacer.pace(serverSentEvents.index(),
+                    indexed -> start + (long) (indexed.getT1() * 1000.0 / rate))
+                    .map(indexed -> indexed.getT2());
+        }).subscribeOn(Schedulers.elastic());
+    }
+}
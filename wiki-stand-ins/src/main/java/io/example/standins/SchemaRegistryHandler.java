@@ -0,0 +1,134 @@
+package io.example.standins;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Serves the parts of the REST API of the Confluent schema registry that producers and Pinot's
+ * {@code KafkaConfluentSchemaRegistryAvroMessageDecoder} use: registering a schema under a subject, and looking up a
+ * schema by its id. The schemas are kept by a {@link FileSchemaRegistry}. Errors are answered with the error codes
+ * of the schema registry, which its clients map to their exceptions.
+ *
+ * @author Kenny Bastani
+ */
+public class SchemaRegistryHandler {
+
+    private static final int SUBJECT_NOT_FOUND = 40401;
+    private static final int VERSION_NOT_FOUND = 40402;
+    private static final int SCHEMA_NOT_FOUND = 40403;
+    private static final int INVALID_SCHEMA = 42201;
+
+    private final FileSchemaRegistry registry;
+
+    public SchemaRegistryHandler(FileSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Mono<ServerResponse> schema(ServerRequest request) {
+        String schema = registry.getSchema(parseInt(request.pathVariable("id")));
+        if (schema == null)
+            return error(HttpStatus.NOT_FOUND, SCHEMA_NOT_FOUND, "Schema not found");
+        return ok(Map.of("schema", schema));
+    }
+
+    public Mono<ServerResponse> subjects(ServerRequest request) {
+        return ok(registry.getSubjects());
+    }
+
+    public Mono<ServerResponse> versions(ServerRequest request) {
+        List<Integer> versions = registry.getVersions(request.pathVariable("subject"));
+        if (versions == null)
+            return error(HttpStatus.NOT_FOUND, SUBJECT_NOT_FOUND, "Subject not found");
+        return ok(IntStream.rangeClosed(1, versions.size()).boxed().collect(Collectors.toList()));
+    }
+
+    public Mono<ServerResponse> version(ServerRequest request) {
+        String subject = request.pathVariable("subject");
+        List<Integer> versions = registry.getVersions(subject);
+        if (versions == null)
+            return error(HttpStatus.NOT_FOUND, SUBJECT_NOT_FOUND, "Subject not found");
+
+        String value = request.pathVariable("version");
+        int version = value.equals("latest") ? versions.size() : parseInt(value);
+        if (version < 1 || version > versions.size())
+            return error(HttpStatus.NOT_FOUND, VERSION_NOT_FOUND, "Version not found");
+
+        int id = versions.get(version - 1);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("subject", subject);
+        body.put("version", version);
+        body.put("id", id);
+        body.put("schema", registry.getSchema(id));
+        return ok(body);
+    }
+
+    public Mono<ServerResponse> register(ServerRequest request) {
+        String subject = request.pathVariable("subject");
+        // Registering writes to files, so it is moved off of the event loop
+        return request.bodyToMono(SchemaRequest.class)
+                .publishOn(Schedulers.elastic())
+                .flatMap(body -> {
+                    try {
+                        if (body.getSchema() == null)
+                            return error(HttpStatus.UNPROCESSABLE_ENTITY, INVALID_SCHEMA, "Schema is missing");
+                        return ok(Map.of("id", registry.register(subject, body.getSchema())));
+                    } catch (IOException | IllegalArgumentException ex) {
+                        return error(HttpStatus.UNPROCESSABLE_ENTITY, INVALID_SCHEMA,
+                                "Invalid schema: " + ex.getMessage());
+                    }
+                });
+    }
+
+    private static Mono<ServerResponse> ok(Object body) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromObject(body));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, int code, String message) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromObject(Map.of("error_code", code, "message", message)));
+    }
+
+    /**
+     * Parses an id or a version, where anything that isn't a number is answered as not found.
+     */
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * The body of a request to register a schema.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class SchemaRequest {
+
+        private String schema;
+
+        public String getSchema() {
+            return schema;
+        }
+
+        public void setSchema(String schema) {
+            this.schema = schema;
+        }
+    }
+}
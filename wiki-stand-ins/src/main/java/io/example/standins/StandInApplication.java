@@ -0,0 +1,26 @@
+package io.example.standins;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Runs local stand-ins for the Wikimedia event platform and the MediaWiki API, so that the ingest service can be
+ * benchmarked end to end without a network.
+ *
+ * @author Kenny Bastani
+ */
+@SpringBootApplication
+public class StandInApplication {
+
+    /**
+     * The stand-ins read their own configuration file, so they don't pick up the service's configuration when both
+     * are on the same classpath.
+     */
+    static final String CONFIG_NAME = "spring.config.name=stand-ins";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(StandInApplication.class)
+                .properties(CONFIG_NAME)
+                .run(args);
+    }
+}
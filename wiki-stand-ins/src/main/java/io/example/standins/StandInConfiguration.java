@@ -0,0 +1,56 @@
+package io.example.standins;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.nio.file.Paths;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+
+/**
+ * Routes the endpoints of the stand-ins. The routes are only created when the stand-ins are enabled, so they are
+ * never served by the ingest service, which scans the same base package.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnProperty(name = "standin.enabled", havingValue = "true")
+@EnableConfigurationProperties(StandInProperties.class)
+public class StandInConfiguration {
+
+    @Bean
+    public RouterFunction<ServerResponse> standInRoutes(StandInProperties properties) {
+        StandInProperties.Stream stream = properties.getStream();
+        EventSource eventSource = stream.getRecordingPath() != null ?
+                new RecordedEventSource(Paths.get(stream.getRecordingPath()), stream) :
+                new SyntheticEventSource(new RecentChangeGenerator(stream, properties.getSeed()), stream);
+        StreamHandler streamHandler = new StreamHandler(eventSource, stream);
+        ApiHandler apiHandler = new ApiHandler(new CategoryGenerator(properties.getApi(), properties.getSeed()),
+                properties.getApi());
+        SchemaRegistryHandler registryHandler = new SchemaRegistryHandler(
+                new FileSchemaRegistry(Paths.get(properties.getRegistry().getPath())));
+
+        return RouterFunctions.route(GET("/v2/stream/recentchange"), streamHandler::recentChanges)
+                .andRoute(GET("/w/api.php").or(POST("/w/api.php")), apiHandler::api)
+                .andRoute(GET("/schemas/ids/{id}"), registryHandler::schema)
+                .andRoute(GET("/subjects"), registryHandler::subjects)
+                .andRoute(GET("/subjects/{subject}/versions"), registryHandler::versions)
+                .andRoute(GET("/subjects/{subject}/versions/{version}"), registryHandler::version)
+                .andRoute(POST("/subjects/{subject}/versions"), registryHandler::register);
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> pipeEncodingCustomizer() {
+        PipeEncodingHandler handler = new PipeEncodingHandler();
+        return factory -> factory.addServerCustomizers(server -> server.tcpConfiguration(tcp ->
+                tcp.doOnConnection(connection -> connection.addHandlerFirst("pipeEncoding", handler))));
+    }
+}
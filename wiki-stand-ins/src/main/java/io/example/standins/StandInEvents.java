@@ -0,0 +1,28 @@
+package io.example.standins;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates and parses the ids of stand-in events, which have the same shape as the ids that the Wikimedia event
+ * platform sends and that clients send back in the {@code Last-Event-Id} header.
+ *
+ * @author Kenny Bastani
+ */
+class StandInEvents {
+
+    static final String TOPIC = "eqiad.mediawiki.recentchange";
+    private static final Pattern OFFSET = Pattern.compile("\"offset\"\\s*:\\s*(\\d+)");
+
+    static String idOf(long offset) {
+        return "[{\"topic\":\"" + TOPIC + "\",\"partition\":0,\"offset\":" + offset + "}]";
+    }
+
+    static Long offsetOf(String eventId) {
+        if (eventId == null)
+            return null;
+
+        Matcher matcher = OFFSET.matcher(eventId);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+    }
+}
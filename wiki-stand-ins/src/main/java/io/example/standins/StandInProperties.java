@@ -0,0 +1,282 @@
+package io.example.standins;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures the rate, shape and failures of the traffic that the stand-ins serve.
+ *
+ * @author Kenny Bastani
+ */
+@ConfigurationProperties(prefix = "standin")
+public class StandInProperties {
+
+    /**
+     * Whether the stand-in endpoints are served. This keeps the stand-ins from being started inside of another
+     * application that scans the same packages.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The seed that the synthetic events and categories are generated from, so that runs are repeatable.
+     */
+    private long seed = 42L;
+
+    private final Stream stream = new Stream();
+
+    private final Api api = new Api();
+
+    private final Registry registry = new Registry();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public Api getApi() {
+        return api;
+    }
+
+    public Registry getRegistry() {
+        return registry;
+    }
+
+    public static class Stream {
+
+        /**
+         * The number of events sent per second on each connection, or {@code 0} to send them as fast as the
+         * client reads them.
+         */
+        private double rate = 100.0;
+
+        /**
+         * How far back the synthetic stream goes, so that clients can start from an earlier {@code since}.
+         */
+        private Duration history = Duration.ofHours(1);
+
+        /**
+         * The share of events that are for the english Wikipedia.
+         */
+        private double enwikiRatio = 0.2;
+
+        /**
+         * The share of events that are edits, the rest being new pages, categorizations and log events.
+         */
+        private double editRatio = 0.7;
+
+        /**
+         * The number of distinct pages that synthetic changes are made to. Pages are picked with a Zipf
+         * distribution, so that a few pages are edited much more often than the rest.
+         */
+        private int pageCount = 100000;
+
+        /**
+         * The number of events after which a connection is dropped, or {@code 0} to never drop connections.
+         */
+        private long disconnectEvery = 0L;
+
+        /**
+         * The number of synthetic events in the stream, after which the stream ends, or {@code 0} for an endless
+         * stream. This lets benchmarks push a fixed volume of events.
+         */
+        private long limit = 0L;
+
+        /**
+         * The directory of a recording made by the ingest service, which is served instead of synthetic events.
+         */
+        private String recordingPath;
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public Duration getHistory() {
+            return history;
+        }
+
+        public void setHistory(Duration history) {
+            this.history = history;
+        }
+
+        public double getEnwikiRatio() {
+            return enwikiRatio;
+        }
+
+        public void setEnwikiRatio(double enwikiRatio) {
+            this.enwikiRatio = enwikiRatio;
+        }
+
+        public double getEditRatio() {
+            return editRatio;
+        }
+
+        public void setEditRatio(double editRatio) {
+            this.editRatio = editRatio;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        public void setPageCount(int pageCount) {
+            this.pageCount = pageCount;
+        }
+
+        public long getDisconnectEvery() {
+            return disconnectEvery;
+        }
+
+        public void setDisconnectEvery(long disconnectEvery) {
+            this.disconnectEvery = disconnectEvery;
+        }
+
+        public long getLimit() {
+            return limit;
+        }
+
+        public void setLimit(long limit) {
+            this.limit = limit;
+        }
+
+        public String getRecordingPath() {
+            return recordingPath;
+        }
+
+        public void setRecordingPath(String recordingPath) {
+            this.recordingPath = recordingPath;
+        }
+    }
+
+    public static class Api {
+
+        /**
+         * The median latency of a request. Latencies follow a log-normal distribution, which is the usual shape
+         * of remote API latencies.
+         */
+        private Duration latencyMedian = Duration.ofMillis(50);
+
+        /**
+         * The 99th percentile latency of a request.
+         */
+        private Duration latencyP99 = Duration.ofMillis(400);
+
+        /**
+         * The share of requests that fail with a 503 response.
+         */
+        private double errorRate = 0.0;
+
+        /**
+         * The most requests that are served at once, above which requests are rejected with a 429 response, the
+         * way the MediaWiki API rate limits clients. {@code 0} serves every request.
+         */
+        private int maxConcurrentRequests = 0;
+
+        /**
+         * The exponent of the Zipf distribution that the number of categories on a page is drawn from.
+         */
+        private double categoryCountExponent = 1.0;
+
+        /**
+         * The largest number of categories on a page.
+         */
+        private int maxCategories = 200;
+
+        /**
+         * The number of distinct categories. Categories are picked with a Zipf distribution, so that a few
+         * categories are on many pages.
+         */
+        private int categoryPoolSize = 50000;
+
+        public Duration getLatencyMedian() {
+            return latencyMedian;
+        }
+
+        public void setLatencyMedian(Duration latencyMedian) {
+            this.latencyMedian = latencyMedian;
+        }
+
+        public Duration getLatencyP99() {
+            return latencyP99;
+        }
+
+        public void setLatencyP99(Duration latencyP99) {
+            this.latencyP99 = latencyP99;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public double getCategoryCountExponent() {
+            return categoryCountExponent;
+        }
+
+        public void setCategoryCountExponent(double categoryCountExponent) {
+            this.categoryCountExponent = categoryCountExponent;
+        }
+
+        public int getMaxCategories() {
+            return maxCategories;
+        }
+
+        public void setMaxCategories(int maxCategories) {
+            this.maxCategories = maxCategories;
+        }
+
+        public int getCategoryPoolSize() {
+            return categoryPoolSize;
+        }
+
+        public void setCategoryPoolSize(int categoryPoolSize) {
+            this.categoryPoolSize = categoryPoolSize;
+        }
+    }
+
+    public static class Registry {
+
+        /**
+         * The directory that the schema registry keeps its schemas in.
+         */
+        private String path = "schemas";
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+}
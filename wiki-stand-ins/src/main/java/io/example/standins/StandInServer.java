@@ -0,0 +1,70 @@
+package io.example.standins;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the stand-ins inside of another process, such as a benchmark, on a random free port.
+ *
+ * @author Kenny Bastani
+ */
+public class StandInServer implements Closeable {
+
+    private final ConfigurableApplicationContext context;
+
+    private StandInServer(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Starts the stand-ins.
+     *
+     * @param properties are the {@code standin.*} properties that override the defaults
+     * @return the running stand-ins
+     */
+    public static StandInServer start(Map<String, ?> properties) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+
+        return new StandInServer(new SpringApplicationBuilder(StandInApplication.class)
+                .properties(StandInApplication.CONFIG_NAME)
+                .run(args.toArray(new String[0])));
+    }
+
+    public int getPort() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * @return the value for the service's {@code wiki.stream.host} property
+     */
+    public String getStreamHost() {
+        return "http://localhost:" + getPort();
+    }
+
+    /**
+     * @return the value for the service's {@code wiki.categories.api.endpoint} property
+     */
+    public String getApiEndpoint() {
+        return getStreamHost() + "/w/api.php";
+    }
+
+    /**
+     * @return the value for the service's {@code wiki.output.avro.registry-url} property
+     */
+    public String getRegistryUrl() {
+        return getStreamHost();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,53 @@
+package io.example.standins;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Serves the recent change stream at {@code /v2/stream/recentchange}, honoring the {@code since} parameter and the
+ * {@code Last-Event-Id} header like the Wikimedia event platform does. Connections can be dropped after a number of
+ * events, to exercise the reconnects of the client.
+ *
+ * @author Kenny Bastani
+ */
+public class StreamHandler {
+
+    private final EventSource eventSource;
+    private final long disconnectEvery;
+
+    public StreamHandler(EventSource eventSource, StandInProperties.Stream properties) {
+        this.eventSource = eventSource;
+        this.disconnectEvery = properties.getDisconnectEvery();
+    }
+
+    public Mono<ServerResponse> recentChanges(ServerRequest request) {
+        Long since = request.queryParam("since").map(StreamHandler::parseSince).orElse(null);
+        String lastEventId = request.headers().header("Last-Event-Id").stream().findFirst().orElse(null);
+
+        Flux<ServerSentEvent<String>> events = eventSource.events(since, lastEventId);
+        if (disconnectEvery > 0) {
+            events = events.take(disconnectEvery)
+                    .concatWith(Flux.error(new IllegalStateException("The stand-in dropped the connection")));
+        }
+
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromServerSentEvents(events));
+    }
+
+    /**
+     * Parses the {@code since} parameter, which is either epoch milliseconds or an ISO-8601 timestamp.
+     */
+    private static Long parseSince(String since) {
+        if (since.chars().allMatch(Character::isDigit))
+            return Long.parseLong(since);
+        return Instant.parse(since).toEpochMilli();
+    }
+}
@@ -0,0 +1,62 @@
+package io.example.standins;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+/**
+ * Sends synthetic events at a fixed rate. The synthetic stream has a history, where the event at each offset
+ * happened at a fixed time, so that a client that starts from an earlier {@code since} or reconnects with its last
+ * event id first catches up on the events it missed, and is then paced at the rate of the stream.
+ *
+ * @author Kenny Bastani
+ */
+public class SyntheticEventSource implements EventSource {
+
+    private final RecentChangeGenerator generator;
+    private final double rate;
+    private final long limit;
+    private final long origin;
+
+    public SyntheticEventSource(RecentChangeGenerator generator, StandInProperties.Stream properties) {
+        this.generator = generator;
+        this.rate = properties.getRate();
+        this.limit = properties.getLimit() > 0 ? properties.getLimit() : Long.MAX_VALUE;
+        this.origin = System.currentTimeMillis() - properties.getHistory().toMillis();
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> events(Long since, String lastEventId) {
+        long start = startOffset(since, StandInEvents.offsetOf(lastEventId));
+        Flux<Long> offsets = Flux.generate(() -> start, (offset, sink) -> {
+            if (offset < limit) {
+                sink.next(offset);
+            } else {
+                sink.complete();
+            }
+            return offset + 1;
+        });
+
+        if (rate > 0)
+            offsets = Pacer.pace(offsets, this::timeOf);
+
+        return offsets.map(offset -> ServerSentEvent.<String>builder()
+                .id(StandInEvents.idOf(offset))
+                .event("message")
+                .data(generator.generate(offset, rate > 0 ? timeOf(offset) : System.currentTimeMillis()))
+                .build());
+    }
+
+    private long startOffset(Long since, Long lastOffset) {
+        if (lastOffset != null)
+            return lastOffset + 1;
+        if (rate <= 0)
+            return 0L;
+
+        long from = since != null ? since : System.currentTimeMillis();
+        return Math.max(0L, (long) Math.ceil((from - origin) * rate / 1000.0));
+    }
+
+    private long timeOf(long offset) {
+        return origin + (long) (offset * 1000.0 / rate);
+    }
+}
@@ -0,0 +1,36 @@
+package io.example.standins;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks from {@code 1} to {@code n} with a Zipf distribution, where the probability of a rank is inversely
+ * proportional to the rank raised to the exponent.
+ *
+ * @author Kenny Bastani
+ */
+public class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int n, double exponent) {
+        if (n < 1)
+            throw new IllegalArgumentException("A Zipf distribution needs at least one rank");
+
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++)
+            cumulative[i] /= sum;
+    }
+
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (index < 0)
+            index = -index - 1;
+        return Math.min(index, cumulative.length - 1) + 1;
+    }
+}
@@ -0,0 +1,60 @@
+package io.example.standins;
+
+import io.example.segment.SegmentedLog;
+import io.example.stream.RecordedEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class RecordedEventSourceTest {
+
+    private static final long RECORDED_AT = 1596477823000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reconnectResumesAfterTheLastEvent() throws Exception {
+        RecordedEventSource source = source(record(0L, 1000L, 2000L));
+
+        assertEquals(List.of("2"), ids(source, RECORDED_AT, "1"));
+    }
+
+    @Test
+    public void unknownLastEventFallsBackToSince() throws Exception {
+        RecordedEventSource source = source(record(0L, 1000L, 2000L));
+
+        assertEquals(List.of("1", "2"), ids(source, RECORDED_AT + 1000L, "unknown"));
+        assertEquals(List.of("0", "1", "2"), ids(source, null, "unknown"));
+    }
+
+    private RecordedEventSource source(Path directory) {
+        StandInProperties.Stream properties = new StandInProperties.Stream();
+        properties.setRate(0);
+        return new RecordedEventSource(directory, properties);
+    }
+
+    private Path record(long... arrivalTimes) throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (SegmentedLog log = new SegmentedLog(directory, 4096)) {
+            for (int i = 0; i < arrivalTimes.length; i++) {
+                log.append(new RecordedEvent(String.valueOf(i), "message", "{\"id\":" + i + "}",
+                        RECORDED_AT + arrivalTimes[i]).toBytes());
+            }
+        }
+        return directory;
+    }
+
+    private static List<String> ids(RecordedEventSource source, Long since, String lastEventId) {
+        return source.events(since, lastEventId).collectList().block().stream()
+                .map(ServerSentEvent::id)
+                .collect(Collectors.toList());
+    }
+}
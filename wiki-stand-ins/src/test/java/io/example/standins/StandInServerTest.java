@@ -0,0 +1,91 @@
+package io.example.standins;
+
+import io.example.output.SchemaRegistryClient;
+import okhttp3.HttpUrl;
+import org.fastily.jwiki.core.MQuery;
+import org.fastily.jwiki.core.Wiki;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class StandInServerTest {
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static StandInServer server;
+
+    @BeforeClass
+    public static void start() throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("standin.registry.path", folder.newFolder("schemas"));
+        properties.put("standin.stream.rate", 0);
+        properties.put("standin.api.latency-median", "1ms");
+        properties.put("standin.api.latency-p99", "5ms");
+        server = StandInServer.start(properties);
+    }
+
+    @AfterClass
+    public static void stop() {
+        server.close();
+    }
+
+    @Test
+    public void jwikiReadsTheCategoriesOfPages() {
+        Wiki wiki = new Wiki.Builder().withApiEndpoint(HttpUrl.parse(server.getApiEndpoint())).build();
+
+        HashMap<String, ArrayList<String>> categories = MQuery.getCategoriesOnPage(wiki,
+                List.of("Stand-in page 1", "Stand-in page 2"));
+
+        assertEquals(2, categories.size());
+        assertFalse(categories.get("Stand-in page 1").isEmpty());
+        assertEquals(categories.get("Stand-in page 1"), wiki.getCategoriesOnPage("Stand-in page 1"));
+    }
+
+    @Test
+    public void streamResumesAfterTheLastEventId() {
+        WebClient client = WebClient.create(server.getStreamHost());
+        ParameterizedTypeReference<ServerSentEvent<String>> type = new ParameterizedTypeReference<>() {
+        };
+
+        List<ServerSentEvent<String>> first = client.get().uri("/v2/stream/recentchange").retrieve()
+                .bodyToFlux(type).take(3).collectList().block(Duration.ofSeconds(10));
+        List<ServerSentEvent<String>> resumed = client.get().uri("/v2/stream/recentchange")
+                .header("Last-Event-Id", first.get(1).id()).retrieve()
+                .bodyToFlux(type).take(1).collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(first.get(2).id(), resumed.get(0).id());
+    }
+
+    @Test
+    public void registeredSchemasAreServedByTheirId() {
+        SchemaRegistryClient registryClient = new SchemaRegistryClient(server.getRegistryUrl(), Duration.ofSeconds(10));
+        String schema = "{\"type\": \"record\", \"name\": \"Change\", \"fields\": []}";
+
+        int id = registryClient.register("wiki-recent-change-value", schema);
+
+        assertEquals(id, registryClient.register("wiki-recent-change-value", schema.replace(" ", "")));
+        WebClient client = WebClient.create(server.getRegistryUrl());
+        Map<?, ?> body = client.get().uri("/schemas/ids/{id}", id).retrieve()
+                .bodyToMono(Map.class).block(Duration.ofSeconds(10));
+        assertEquals(schema, body.get("schema"));
+        List<?> versions = client.get().uri("/subjects/wiki-recent-change-value/versions").retrieve()
+                .bodyToMono(List.class).block(Duration.ofSeconds(10));
+        assertEquals(List.of(1), versions);
+    }
+}